@@ -4,6 +4,7 @@ import com.example.companyScraper.model.ScrapeResult;
 import com.example.companyScraper.service.ScraperService;
 import com.example.companyScraper.util.CsvExporter;
 import com.example.companyScraper.util.InputReader;
+import com.example.companyScraper.util.Scraper;
 import com.opencsv.CSVWriter;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -61,7 +62,20 @@ public class FileUploadController {
             @RequestParam(defaultValue = "true") boolean extractSocial,
             @RequestParam(defaultValue = "true") boolean extractFacebook,
             @RequestParam(defaultValue = "3") int maxRetries,
-            @RequestParam(defaultValue = "true") boolean useDirectConnection) throws Exception {
+            @RequestParam(defaultValue = "true") boolean useDirectConnection,
+            @RequestParam(defaultValue = "RAW_HTML") Scraper.ExtractionScope extractionScope,
+            @RequestParam(defaultValue = "false") boolean crawl,
+            @RequestParam(defaultValue = "5") int crawlMaxPages,
+            @RequestParam(defaultValue = "2") int crawlMaxDepth,
+            @RequestParam(defaultValue = "false") boolean sitemapDiscovery,
+            @RequestParam(defaultValue = "2") int sitemapMaxPicks,
+            @RequestParam(defaultValue = "false") boolean probe,
+            @RequestParam(required = false) List<String> probePaths,
+            @RequestParam(defaultValue = "false") boolean documentExtraction,
+            @RequestParam(defaultValue = "3") int maxDocumentsPerPage,
+            @RequestParam(defaultValue = "5120") int maxBodyKb,
+            @RequestParam(required = false) Scraper.ProxyRotationStrategy proxyStrategy,
+            @RequestParam(required = false) Integer maxInFlightPerProxy) throws Exception {
 
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().body("No file uploaded".getBytes());
@@ -72,11 +86,8 @@ public class FileUploadController {
             return ResponseEntity.badRequest().body("No URLs found".getBytes());
         }
 
-        // Set connection preferences - DIRECT CONNECTION CHECKBOX
-        scraperService.setUseDirectConnection(useDirectConnection);
-
         // Create scraping options
-        ScraperService.ScrapingOptions options = new ScraperService.ScrapingOptions();
+        ScraperService.ScrapingOptions options = scraperService.defaultOptions();
         options.setExtractPeople(extractPeople);
         options.setExtractSocial(extractSocial);
         options.setExtractFacebook(extractFacebook);
@@ -84,6 +95,20 @@ public class FileUploadController {
         options.setUseDirectConnection(useDirectConnection);
         options.setAutoExport(false);
         options.setExportFormat(format);
+        options.setExtractionScope(extractionScope);
+        options.setCrawlEnabled(crawl);
+        options.setCrawlMaxPages(crawlMaxPages);
+        options.setCrawlMaxDepth(crawlMaxDepth);
+        options.setSitemapDiscovery(sitemapDiscovery);
+        options.setSitemapMaxPicks(sitemapMaxPicks);
+        options.setProbeEnabled(probe);
+        options.setProbePaths(probePaths);
+        options.setDocumentExtraction(documentExtraction);
+        options.setMaxDocumentsPerPage(maxDocumentsPerPage);
+        options.setMaxBodyKb(maxBodyKb);
+        // The proxy file and health check come from scraper.proxy.*; these two may vary per job
+        if (proxyStrategy != null) options.setProxyStrategy(proxyStrategy);
+        if (maxInFlightPerProxy != null) options.setMaxInFlightPerProxy(maxInFlightPerProxy);
 
         List<ScrapeResult> results = scraperService.scrapeUrls(urls, options);
 
@@ -123,11 +148,8 @@ public class FileUploadController {
             return ResponseEntity.badRequest().body(new AdvancedScrapingStats("No URLs found", null));
         }
 
-        // Set connection preferences
-        scraperService.setUseDirectConnection(useDirectConnection);
-
         // Create scraping options
-        ScraperService.ScrapingOptions options = new ScraperService.ScrapingOptions();
+        ScraperService.ScrapingOptions options = scraperService.defaultOptions();
         options.setExtractPeople(extractPeople);
         options.setExtractSocial(extractSocial);
         options.setExtractFacebook(extractFacebook);
@@ -174,14 +196,14 @@ public class FileUploadController {
             return ResponseEntity.badRequest().body("No URLs found".getBytes());
         }
 
-        
-        scraperService.setExtractPeople(extractPeople);
-        scraperService.setExtractSocial(extractSocial);
-        scraperService.setMaxRetries(maxRetries);
-        scraperService.setUseDirectConnection(useDirectConnection);
+        // Options travel with the job instead of overwriting the service's shared settings
+        ScraperService.ScrapingOptions options = scraperService.defaultOptions();
+        options.setExtractPeople(extractPeople);
+        options.setExtractSocial(extractSocial);
+        options.setMaxRetries(maxRetries);
+        options.setUseDirectConnection(useDirectConnection);
 
-        
-        List<ScrapeResult> results = scraperService.scrapeUrls(urls);
+        List<ScrapeResult> results = scraperService.scrapeUrls(urls, options);
 
         Path tempOutput = Files.createTempFile("scraped_legacy_", ".csv");
         try {
@@ -0,0 +1,70 @@
+package com.example.companyScraper.controller;
+
+import com.example.companyScraper.util.FlightRecordings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Flight recordings on a live instance, at /actuator/jfr:
+ * <ul>
+ *   <li>GET: whether one is running, and the finished recordings</li>
+ *   <li>POST {@code {"settings": "profile", "maxSeconds": 300}}: start one (both optional)</li>
+ *   <li>DELETE: stop it and write the file</li>
+ *   <li>GET /actuator/jfr/{file}: download a finished recording, e.g. for JDK Mission Control</li>
+ * </ul>
+ * Off unless {@code scraper.jfr.enabled=true}, and then it still has to be added to
+ * {@code management.endpoints.web.exposure.include}: a recording carries the environment
+ * variables and system properties of the process, so keep it behind a separate
+ * {@code management.server.port} that isn't public.
+ */
+@Component
+@ConditionalOnProperty(name = "scraper.jfr.enabled", havingValue = "true")
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private final FlightRecordings recordings;
+
+    public FlightRecorderEndpoint(@Value("${scraper.jfr.dir:recordings}") String dir) {
+        this.recordings = new FlightRecordings(Paths.get(dir));
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return recordings.status();
+    }
+
+    @ReadOperation
+    public Resource download(@Selector String file) {
+        Path recording = recordings.find(file);
+        return recording != null ? new FileSystemResource(recording) : null;
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String settings, @Nullable Integer maxSeconds) throws Exception {
+        return recordings.start(settings, maxSeconds != null ? Duration.ofSeconds(maxSeconds) : null);
+    }
+
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        Path file = recordings.stop();
+        Map<String, Object> status = recordings.status();
+        if (file != null) {
+            status.put("written", file.getFileName().toString());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.companyScraper.controller;
+
+import com.example.companyScraper.model.ScrapeResult;
+import com.example.companyScraper.service.ScraperService;
+import com.example.companyScraper.util.CsvExporter;
+import com.example.companyScraper.util.InputReader;
+import com.example.companyScraper.util.JobScheduler;
+import com.example.companyScraper.util.JobTrace;
+import com.example.companyScraper.util.Scraper;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Asynchronous scrape jobs. An upload returns a job id straight away; jobs share the worker
+ * pool fairly by weight, so a small upload isn't stuck behind a bulk one.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final ScraperService scraperService;
+    private final InputReader inputReader;
+
+    public JobController(ScraperService scraperService, InputReader inputReader) {
+        this.scraperService = scraperService;
+        this.inputReader = inputReader;
+    }
+
+    @PostMapping
+    public ResponseEntity<Object> submit(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "1") int weight,
+            @RequestParam(defaultValue = "false") boolean stream,
+            @RequestParam(defaultValue = "100") int window,
+            @RequestParam(defaultValue = "false") boolean priority,
+            @RequestParam(required = false) List<String> priorityDomains,
+            @RequestParam(defaultValue = "false") boolean hedge,
+            @RequestParam(defaultValue = "true") boolean extractPeople,
+            @RequestParam(defaultValue = "true") boolean extractSocial,
+            @RequestParam(defaultValue = "true") boolean extractFacebook,
+            @RequestParam(defaultValue = "3") int maxRetries,
+            @RequestParam(defaultValue = "true") boolean useDirectConnection,
+            @RequestParam(defaultValue = "RAW_HTML") Scraper.ExtractionScope extractionScope,
+            @RequestParam(defaultValue = "false") boolean crawl,
+            @RequestParam(defaultValue = "false") boolean sitemapDiscovery,
+            @RequestParam(defaultValue = "false") boolean probe,
+            @RequestParam(defaultValue = "false") boolean documentExtraction,
+            @RequestParam(defaultValue = "5120") int maxBodyKb,
+            @RequestParam(required = false) Scraper.ProxyRotationStrategy proxyStrategy,
+            @RequestParam(required = false) Integer maxInFlightPerProxy) throws Exception {
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body("No file uploaded");
+        }
+
+        ScraperService.ScrapingOptions options = scraperService.defaultOptions();
+        options.setExtractPeople(extractPeople);
+        options.setExtractSocial(extractSocial);
+        options.setExtractFacebook(extractFacebook);
+        options.setMaxRetries(maxRetries);
+        options.setUseDirectConnection(useDirectConnection);
+        options.setExtractionScope(extractionScope);
+        options.setCrawlEnabled(crawl);
+        options.setSitemapDiscovery(sitemapDiscovery);
+        options.setProbeEnabled(probe);
+        options.setDocumentExtraction(documentExtraction);
+        options.setMaxBodyKb(maxBodyKb);
+        options.setJobWeight(weight);
+        options.setPriority(priority);
+        options.setPriorityDomains(priorityDomains);
+        options.setHedgeRequests(hedge);
+        // The proxy file and health check come from scraper.proxy.*; these two may vary per job
+        if (proxyStrategy != null) options.setProxyStrategy(proxyStrategy);
+        if (maxInFlightPerProxy != null) options.setMaxInFlightPerProxy(maxInFlightPerProxy);
+
+        String jobName = name != null && !name.isBlank() ? name : file.getOriginalFilename();
+        if (stream) {
+            // Input and results stay on disk; for uploads too large to hold in memory
+            InputReader.UrlSource urls = inputReader.saveUrls(file);
+            if (urls.size() == 0) {
+                urls.close();
+                return ResponseEntity.badRequest().body("No URLs found");
+            }
+            return ResponseEntity.accepted().body(scraperService.submitStreaming(urls, options, jobName, window));
+        }
+
+        List<String> urls = inputReader.readUrls(file);
+        if (urls.isEmpty()) {
+            return ResponseEntity.badRequest().body("No URLs found");
+        }
+        JobScheduler.Job<ScrapeResult> job = scraperService.submitUrls(urls, options, jobName);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping
+    public List<JobScheduler.Job<?>> list() {
+        return scraperService.getJobScheduler().jobs();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Object> status(@PathVariable String id) {
+        JobScheduler.Job<?> job = scraperService.getJobScheduler().get(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/results")
+    public ResponseEntity<?> results(@PathVariable String id) throws Exception {
+        JobScheduler.Job<ScrapeResult> job = scraperService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getState() != JobScheduler.State.COMPLETED) {
+            return ResponseEntity.status(409).body(("Job is " + job.getState()).getBytes());
+        }
+        if (!job.isResultsKept()) {
+            // Scraped on behalf of a caller that took the results, e.g. a shard for another node
+            return ResponseEntity.status(410).body("Results of this job aren't kept".getBytes());
+        }
+        if (job.isStreamed()) {
+            // Already on disk; sent straight from the file rather than loaded
+            Path output = scraperService.getStreamedResults(id);
+            if (output == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + id + "_results.csv")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new FileSystemResource(output));
+        }
+
+        List<ScrapeResult> results = job.await().stream().filter(Objects::nonNull).toList();
+        Path tempOutput = Files.createTempFile("job_results_", ".csv");
+        try {
+            CsvExporter.exportToCsv(tempOutput.toString(), results, CsvExporter.ExportFormat.STANDARD, false);
+            byte[] csvBytes = Files.readAllBytes(tempOutput);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + id + "_results.csv");
+            headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+            return ResponseEntity.ok().headers(headers).body(csvBytes);
+        } finally {
+            Files.deleteIfExists(tempOutput);
+        }
+    }
+
+    /**
+     * The job's timeline in Chrome trace-event format, for chrome://tracing or ui.perfetto.dev.
+     * Works while the job runs too, showing what has finished so far.
+     */
+    @GetMapping("/{id}/trace")
+    public ResponseEntity<StreamingResponseBody> trace(@PathVariable String id) {
+        JobTrace trace = scraperService.getTrace(id);
+        if (trace == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + id + "_trace.json")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(trace::writeTo);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Object> cancel(@PathVariable String id) {
+        return scraperService.getJobScheduler().cancel(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+}
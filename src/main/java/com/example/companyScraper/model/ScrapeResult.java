@@ -5,6 +5,8 @@ import java.util.*;
 
 public class ScrapeResult {
     private String url;
+    // Where the input actually ended up after redirects; url stays the input as given
+    private String resolvedUrl;
     private String status;
     private List<String> emails;
     private List<String> phones;
@@ -13,6 +15,12 @@ public class ScrapeResult {
     private List<String> facebookUrls;
     private List<Person> people;
     private String notes;
+    private long bytesSkipped;
+
+    // For reading results back from the job journal
+    public ScrapeResult() {
+        this(null);
+    }
 
     public ScrapeResult(String url) { 
         this.url = url;
@@ -34,6 +42,7 @@ public class ScrapeResult {
         r.setFacebookUrls(result.getFacebookUrls());
         r.setPeople(convertPeople(result.getPeople()));
         r.setNotes(result.getNotes());
+        r.setBytesSkipped(result.getBytesSkipped());
         return r;
     }
 
@@ -57,6 +66,9 @@ public class ScrapeResult {
     public String getUrl() { return url; }
     public void setUrl(String url) { this.url = url; }
     
+    public String getResolvedUrl() { return resolvedUrl; }
+    public void setResolvedUrl(String resolvedUrl) { this.resolvedUrl = resolvedUrl; }
+    
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     
@@ -92,6 +104,9 @@ public class ScrapeResult {
     
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+    
+    public long getBytesSkipped() { return bytesSkipped; }
+    public void setBytesSkipped(long bytesSkipped) { this.bytesSkipped = bytesSkipped; }
 
     // Person inner class
     public static class Person {
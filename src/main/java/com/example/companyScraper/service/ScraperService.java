@@ -2,38 +2,165 @@ package com.example.companyScraper.service;
 
 import com.example.companyScraper.model.ScrapeResult;
 import com.example.companyScraper.util.*;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class ScraperService {
     
     private final NameDatabaseManager nameDatabase;
-    private Scraper scraper;
+    // One engine for the service's lifetime; per-job settings travel with each call
+    private final Scraper scraper;
+    // Defaults for callers that don't pass options; jobs never read or write these
     private boolean useDirectConnection = true;
     private boolean extractPeople = true;
     private boolean extractSocial = true;
     private boolean extractFacebook = true;
     private int maxRetries = 3;
-    private ExecutorService executorService;
+    private Scraper.ExtractionScope extractionScope = Scraper.ExtractionScope.RAW_HTML;
+    // From scraper.proxy.*; used by jobs that connect through proxies
+    private String proxyFile;
+    private final Scraper.ProxyRotationStrategy proxyStrategy;
+    private final int maxInFlightPerProxy;
+    private final String proxyCheckUrl;
+    private final int proxyCheckIntervalSec;
+    private final JobScheduler jobScheduler;
+    // URLs matching scraper.priority.domains go to the scheduler's high-priority lane
+    private final PriorityMatcher priorityMatcher;
+    // Running jobs on disk, so a restart resumes them instead of starting over
+    private final JobJournal<ScrapingOptions, ScrapeResult> jobJournal;
+    // Where streamed jobs write their CSV (scraper.results.dir)
+    private final Path streamedResultsDir;
+    // Permanent redirects kept across restarts (scraper.redirect-cache.file)
+    private final Path redirectCacheFile;
+    // Multi-instance mode: URLs of other nodes' domains go through a shared directory (null when single)
+    private final ShardedWorkQueue<ScrapingOptions, ScrapeResult> workQueue;
+    // Published jobs still waiting for results from other nodes, by queue key
+    private final Map<String, BiConsumer<Integer, ScrapeResult>> collecting = new ConcurrentHashMap<>();
+    // The same jobs, to run shards here that their node stopped working on
+    private final Map<String, JobScheduler.Job<ScrapeResult>> published = new ConcurrentHashMap<>();
+    // Running jobs that use the engine's proxy pool; guarded by proxyPoolLock
+    private final Object proxyPoolLock = new Object();
+    private int proxyPoolJobs;
+    private ScheduledExecutorService clusterPoller;
+    // Hard per-URL deadline from scraper.timeout.total; 0 for none
+    private final long urlTimeoutMs;
+    // Runs each URL's scrape off the worker so the deadline also covers parsing and extraction.
+    // Bounded: an abandoned attempt stuck in a call that ignores interrupts keeps its thread, and
+    // once every thread is stuck new attempts queue and time out instead of piling up threads
+    private final ThreadPoolExecutor attemptExecutor = new ThreadPoolExecutor(
+        MAX_ATTEMPT_THREADS, MAX_ATTEMPT_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "scrape-attempt");
+            t.setDaemon(true);
+            return t;
+        });
+    // End to end per URL, cooldowns and retries included; hedging goes by the scraper's fetch times instead
+    private final LatencyHistogram urlTimes = new LatencyHistogram();
+    private final LongAdder timedOutUrls = new LongAdder();
+    // Timelines of the latest jobs, by job id; scraper.trace.max-events caps each one (0 turns tracing off)
+    // and scraper.trace.max-total-events all of them together
+    private final int traceMaxEvents;
+    private final JobTrace.Budget traceBudget;
+    private final Cache<String, JobTrace> traces = Caffeine.newBuilder()
+        .maximumSize(MAX_TRACED_JOBS)
+        .executor(Runnable::run)
+        .<String, JobTrace>removalListener((id, trace, cause) -> {
+            if (trace != null) trace.discard();
+        })
+        .build();
     
     // Configuration
     private static final int DEFAULT_THREAD_POOL_SIZE = 5;
     private static final long DEFAULT_DELAY_MS = 1000;
     private static final long DEFAULT_DOMAIN_COOLDOWN_MS = 5000;
+    // How far ahead of the workers DNS is resolved; a bit more than the pool size
+    private static final int DNS_LOOKAHEAD = DEFAULT_THREAD_POOL_SIZE * 2;
+    // An attempt for every worker, and as many again for abandoned ones still unwinding
+    private static final int MAX_ATTEMPT_THREADS = DEFAULT_THREAD_POOL_SIZE * 2;
+    private static final int DEFAULT_PROXY_CHECK_INTERVAL_SEC = 60;
+    private static final long CLUSTER_POLL_MS = 1_000;
+    private static final int MAX_TRACED_JOBS = 10;
 
-    public ScraperService() {
+    public ScraperService(@Value("${scraper.priority.domains:}") String priorityDomains,
+                          @Value("${scraper.journal.dir:job-journal}") String journalDir,
+                          @Value("${scraper.results.dir:job-results}") String resultsDir,
+                          @Value("${scraper.redirect-cache.file:redirect-cache.tsv}") String redirectCacheFile,
+                          @Value("${scraper.cluster.dir:}") String clusterDir,
+                          @Value("${scraper.cluster.node-index:0}") int nodeIndex,
+                          @Value("${scraper.cluster.node-count:1}") int nodeCount,
+                          @Value("${scraper.cluster.lease-timeout:30}") int leaseTimeoutSec,
+                          @Value("${scraper.ratelimit.dir:}") String rateLimitDir,
+                          @Value("${scraper.ratelimit.block-size:4}") int rateLimitBlockSize,
+                          @Value("${scraper.timeout.total:0}") int urlTimeoutSec,
+                          @Value("${scraper.metrics.max-domains:100}") int metricsMaxDomains,
+                          @Value("${scraper.metrics.max-proxies:50}") int metricsMaxProxies,
+                          @Value("${scraper.trace.max-events:20000}") int traceMaxEvents,
+                          @Value("${scraper.trace.max-total-events:100000}") long traceMaxTotalEvents,
+                          @Value("${scraper.proxy.file:}") String proxyFile,
+                          @Value("${scraper.proxy.strategy:ROUND_ROBIN}") Scraper.ProxyRotationStrategy proxyStrategy,
+                          @Value("${scraper.proxy.max-in-flight:0}") int maxInFlightPerProxy,
+                          @Value("${scraper.proxy.check-url:}") String proxyCheckUrl,
+                          @Value("${scraper.proxy.check-interval:" + DEFAULT_PROXY_CHECK_INTERVAL_SEC + "}") int proxyCheckIntervalSec) {
         this.nameDatabase = new NameDatabaseManager();
-        this.executorService = Executors.newFixedThreadPool(DEFAULT_THREAD_POOL_SIZE);
-        initializeScraper();
+        this.proxyFile = proxyFile.isBlank() ? null : proxyFile;
+        this.proxyStrategy = proxyStrategy;
+        this.maxInFlightPerProxy = maxInFlightPerProxy;
+        this.proxyCheckUrl = proxyCheckUrl;
+        this.proxyCheckIntervalSec = proxyCheckIntervalSec;
+        this.traceMaxEvents = traceMaxEvents;
+        this.traceBudget = new JobTrace.Budget(traceMaxTotalEvents);
+        this.urlTimeoutMs = Math.max(0, urlTimeoutSec) * 1000L;
+        attemptExecutor.allowCoreThreadTimeOut(true);
+        this.jobJournal = new JobJournal<>(Paths.get(journalDir), ScrapingOptions.class, ScrapeResult.class);
+        this.streamedResultsDir = Paths.get(resultsDir);
+        this.redirectCacheFile = Paths.get(redirectCacheFile);
+        this.workQueue = clusterDir.isBlank() || nodeCount <= 1
+            ? null
+            : new ShardedWorkQueue<>(Paths.get(clusterDir), nodeIndex, nodeCount, ScrapingOptions.class, ScrapeResult.class,
+                Math.max(1, leaseTimeoutSec) * 1000L);
+        this.priorityMatcher = PriorityMatcher.parse(priorityDomains);
+        if (!priorityMatcher.isEmpty()) {
+            System.out.println("Priority domains: " + priorityMatcher);
+        }
+        this.jobScheduler = new JobScheduler(DEFAULT_THREAD_POOL_SIZE, "scrape-worker");
+        ScrapeMetrics.limitTags(metricsMaxDomains, metricsMaxProxies);
+        ScrapeMetrics.registerGauges(jobScheduler);
+        this.scraper = new Scraper(DEFAULT_DELAY_MS, DEFAULT_DOMAIN_COOLDOWN_MS, maxRetries);
+        if (!rateLimitDir.isBlank()) {
+            // Replicas sharing this directory share per-domain cooldowns
+            scraper.useRateCoordinator(new DomainRateLimiter.FileCoordinator(Paths.get(rateLimitDir)), rateLimitBlockSize);
+            System.out.println("Domain rate limits shared through " + rateLimitDir);
+        }
     }
     
     @PostConstruct
@@ -46,53 +173,384 @@ public class ScraperService {
         } catch (Exception e) {
             System.err.println("Failed to initialize name database: " + e.getMessage());
         }
+        
+        try {
+            scraper.getRedirectCache().load(redirectCacheFile);
+            System.out.println("Loaded " + scraper.getRedirectCache().size() + " remembered redirects");
+        } catch (Exception e) {
+            System.err.println("Failed to load redirect cache: " + e.getMessage());
+        }
+        
+        if (workQueue != null) {
+            // Resumed jobs republish what is left, so anything published before the restart is stale
+            workQueue.removeOwnLeftovers();
+        }
+        resumeJournaledJobs();
+        
+        if (workQueue != null) {
+            clusterPoller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cluster-poll");
+                t.setDaemon(true);
+                return t;
+            });
+            clusterPoller.scheduleWithFixedDelay(this::pollCluster, 0, CLUSTER_POLL_MS, TimeUnit.MILLISECONDS);
+            System.out.println("Cluster mode: node " + workQueue.getNodeIndex() + " of " + workQueue.getNodeCount());
+        }
     }
     
-    private void initializeScraper() {
-        this.scraper = new Scraper(
-            DEFAULT_DELAY_MS, 
-            DEFAULT_DOMAIN_COOLDOWN_MS, 
-            maxRetries
-        );
+    // Owner side: pick up results other nodes reported, and take back shards whose node went quiet.
+    // Worker side: keep the leases of running shards alive and run shards other nodes published.
+    private void pollCluster() {
+        try {
+            workQueue.heartbeat();
+            collecting.forEach(workQueue::collect);
+            published.forEach((key, job) -> {
+                BitSet expired = workQueue.reclaimExpired(key);
+                if (!expired.isEmpty()) job.runLocally(expired);
+            });
+            for (ShardedWorkQueue<ScrapingOptions, ScrapeResult>.Shard shard : workQueue.claim()) {
+                runShard(shard);
+            }
+        } catch (Exception e) {
+            System.err.println("Cluster poll failed: " + e.getMessage());
+        }
+    }
+    
+    // Runs on this node's own proxy pool: the owner's proxy file is a path on the owner's machine
+    private void runShard(ShardedWorkQueue<ScrapingOptions, ScrapeResult>.Shard shard) {
+        ScrapingOptions options = shard.options;
+        
+        String id = jobScheduler.newJobId();
+        JobTrace trace = newTrace(id);
+        long queuedSince = trace != null ? trace.now() : 0;
+        List<Callable<ScrapeResult>> tasks = new ArrayList<>();
+        BitSet highPriority = new BitSet();
+        PriorityMatcher matcher = priorityMatcher.plus(options.priorityDomains);
+        for (int i = 0; i < shard.indexes.size(); i++) {
+            int index = shard.indexes.get(i);
+            String url = shard.urls.get(i);
+            tasks.add(() -> {
+                // The owner dropped the job (done or cancelled); don't spend requests on it
+                if (!shard.isLive()) return null;
+                ScrapeResult result = scrapeSingleUrl(trace, index, url, queuedSince, options);
+                shard.report(index, result);
+                return result;
+            });
+            if (options.priority || matcher.matches(url)) highPriority.set(i);
+        }
+        
+        // Results go back to the owner through the queue; nothing here reads them again
+        JobScheduler.Job<ScrapeResult> job = jobScheduler.submit(id,
+            "shard " + workQueue.getNodeIndex() + " of " + shard.key, options.jobWeight, tasks, highPriority,
+            new BitSet(), false);
+        System.out.println("Running " + tasks.size() + " URLs for node " + shard.owner + " as " + job.getId());
+        job.completion().whenComplete((results, error) -> shard.done());
+    }
+    
+    // Jobs interrupted by a restart pick up where they stopped; finished URLs aren't fetched again
+    private void resumeJournaledJobs() {
+        for (JobJournal.Pending<ScrapingOptions, ScrapeResult> pending : jobJournal.pending()) {
+            boolean pooled = false;
+            JobJournal<ScrapingOptions, ScrapeResult>.Writer writer;
+            try {
+                pooled = claimProxyPool(pending.options);
+                writer = jobJournal.resume(pending);
+            } catch (Exception e) {
+                if (pooled) releaseProxyPool();
+                System.err.println("Failed to resume " + pending.id + ": " + e.getMessage());
+                continue;
+            }
+            try {
+                // Nobody is waiting on a resumed job; its results are fetched by id
+                submitJob(pending.id, pending.name, pending.options, pending.urls, pending.completed, writer, true, pooled);
+                System.out.println("Resumed " + pending.id + " (" + pending.name + "): "
+                    + pending.completed.size() + " of " + pending.urls.size() + " URLs already done");
+            } catch (Exception e) {
+                System.err.println("Failed to resume " + pending.id + ": " + e.getMessage());
+            }
+        }
     }
     
     // Main scraping method
     public List<ScrapeResult> scrapeUrls(List<String> urls) {
-        return scrapeUrls(urls, new ScrapingOptions());
+        return scrapeUrls(urls, defaultOptions());
     }
     
     public List<ScrapeResult> scrapeUrls(List<String> urls, ScrapingOptions options) {
         if (urls == null || urls.isEmpty()) {
             return new ArrayList<>();
         }
+        // The caller holds the job, so the scheduler needn't keep the results once it's done
+        return submitUrls(urls, options, urls.size() + " URLs", false).await();
+    }
+    
+    /**
+     * Queue a job on the shared workers and return right away. The job runs on a snapshot of
+     * the options, so changing them afterwards or submitting other jobs can't affect it. Its
+     * results stay available by id after it finishes.
+     *
+     * @throws IllegalStateException if it asks for a different proxy file or per-proxy cap than
+     *                               a job still running on the proxy pool
+     */
+    public JobScheduler.Job<ScrapeResult> submitUrls(List<String> urls, ScrapingOptions options, String name) {
+        return submitUrls(urls, options, name, true);
+    }
+    
+    private JobScheduler.Job<ScrapeResult> submitUrls(List<String> urls, ScrapingOptions options, String name,
+                                                      boolean keepResults) {
+        ScrapingOptions frozen = (options != null ? options : defaultOptions()).snapshot();
+        List<String> jobUrls = List.copyOf(urls);
+        boolean pooled = claimProxyPool(frozen);
+        String id = jobScheduler.newJobId();
         
-        // Update scraper configuration based on options
-        applyScrapingOptions(options);
-        
-        System.out.println("Starting to scrape " + urls.size() + " URLs");
-        System.out.println("Configuration: " + getCurrentConfig());
+        JobJournal<ScrapingOptions, ScrapeResult>.Writer writer = null;
+        try {
+            writer = jobJournal.start(id, name, frozen.jobWeight, frozen, jobUrls);
+        } catch (Exception e) {
+            System.err.println("Failed to journal " + id + ", it won't survive a restart: " + e.getMessage());
+        }
+        return submitJob(id, name, frozen, jobUrls, Map.of(), writer, keepResults, pooled);
+    }
+    
+    // pooled: the job holds a claim on the proxy pool (claimProxyPool), given back when it ends
+    private JobScheduler.Job<ScrapeResult> submitJob(String id, String name, ScrapingOptions frozen, List<String> jobUrls,
+                                                     Map<Integer, ScrapeResult> done,
+                                                     JobJournal<ScrapingOptions, ScrapeResult>.Writer writer,
+                                                     boolean keepResults, boolean pooled) {
+        System.out.println("Configuration: " + describe(frozen));
         
-        List<CompletableFuture<ScrapeResult>> futures = urls.stream()
-            .map(url -> CompletableFuture.supplyAsync(() -> scrapeSingleUrl(url, options), executorService))
+        // Resolve the first hosts now; each task then warms DNS for the URLs queued just behind it
+        Scraper.ExtractionOptions extraction = frozen.toExtractionOptions();
+        scraper.prefetchDns(jobUrls.subList(0, Math.min(jobUrls.size(), DNS_LOOKAHEAD)), extraction);
+        JobTrace trace = newTrace(id);
+        long queuedSince = trace != null ? trace.now() : 0;
+        long submitted = System.currentTimeMillis();
+        LatencyHistogram timeToResult = new LatencyHistogram();
+        List<Callable<ScrapeResult>> tasks = IntStream.range(0, jobUrls.size())
+            .mapToObj(i -> (Callable<ScrapeResult>) () -> {
+                if (done.containsKey(i)) return done.get(i);
+                int from = Math.min(jobUrls.size(), i + DNS_LOOKAHEAD);
+                scraper.prefetchDns(jobUrls.subList(from, Math.min(jobUrls.size(), from + 1)), extraction);
+                ScrapeResult result = scrapeSingleUrl(trace, i, jobUrls.get(i), queuedSince, frozen);
+                if (writer != null) writer.record(i, result);
+                timeToResult.record(System.currentTimeMillis() - submitted);
+                return result;
+            })
             .collect(Collectors.toList());
         
-        // Wait for all completions and collect results
-        List<ScrapeResult> results = futures.stream()
-            .map(CompletableFuture::join)
-            .collect(Collectors.toList());
+        // Hand URLs out one domain at a time in turn, so a run of one host's URLs waits on its
+        // cooldown while other domains' URLs go ahead
+        int[] order = DomainOrder.interleave(jobUrls.stream()
+            .map(url -> Objects.requireNonNullElse(UrlHosts.hostOf(url), url))
+            .toList());
+        
+        // A whole upload can be tagged as priority; otherwise configured and per-upload domains pick URLs out
+        BitSet highPriority = new BitSet();
+        PriorityMatcher matcher = priorityMatcher.plus(frozen.priorityDomains);
+        for (int i = 0; i < jobUrls.size(); i++) {
+            if (frozen.priority || matcher.matches(jobUrls.get(i))) highPriority.set(i);
+        }
+        
+        // In cluster mode URLs whose domain belongs to another node are published instead of run here
+        BitSet remote = new BitSet();
+        String queueKey = null;
+        if (workQueue != null) {
+            for (int i = 0; i < jobUrls.size(); i++) {
+                if (!done.containsKey(i) && workQueue.shardOf(jobUrls.get(i)) != workQueue.getNodeIndex()) remote.set(i);
+            }
+            try {
+                queueKey = workQueue.publish(id, frozen, jobUrls, remote);
+            } catch (Exception e) {
+                System.err.println("Failed to publish " + id + " to other nodes, running it all here: " + e.getMessage());
+                remote.clear();
+            }
+        }
+        
+        JobScheduler.Job<ScrapeResult> job;
+        try {
+            job = jobScheduler.submit(id, name, frozen.jobWeight, tasks, highPriority, remote, keepResults, order);
+        } catch (RuntimeException e) {
+            if (pooled) releaseProxyPool();
+            throw e;
+        }
+        if (pooled) {
+            job.completion().whenComplete((results, error) -> releaseProxyPool());
+        }
+        System.out.println("Queued " + job.getId() + ": " + jobUrls.size() + " URLs (" + name + ", weight "
+            + frozen.jobWeight + ", " + highPriority.cardinality() + " high priority"
+            + (remote.isEmpty() ? "" : ", " + remote.cardinality() + " on other nodes") + ")");
+        if (queueKey != null) {
+            String key = queueKey;
+            collecting.put(key, (i, result) -> {
+                if (writer != null) writer.record(i, result);
+                job.supply(i, result);
+            });
+            published.put(key, job);
+            job.completion().whenComplete((results, error) -> {
+                collecting.remove(key);
+                published.remove(key);
+                workQueue.remove(key);
+            });
+        }
+        job.completion().thenAccept(results -> {
+            System.out.println("Completed scraping " + results.size() + " URLs (" + job.getId() + "); time to result "
+                + timeToResult.summary());
+            printScrapingSummary(results);
+            saveRedirectCache();
+        });
+        if (writer != null) {
+            // Completed or cancelled; a job cut short by shutdown never gets here and stays journaled
+            job.completion().whenComplete((results, error) -> {
+                writer.close();
+                jobJournal.finish(id);
+            });
+        }
+        return job;
+    }
+    
+    /**
+     * Queue a job that reads its URLs from disk and writes each result to a CSV file as soon as
+     * it and every URL before it are done, with at most {@code window} URLs handed out past the
+     * oldest unfinished one. Neither the input nor the results are held in memory, so heap use
+     * doesn't grow with the job. Streamed jobs run on this node only and aren't journaled or
+     * traced.
+     *
+     * @throws IllegalStateException as for {@link #submitUrls}
+     */
+    public JobScheduler.Job<ScrapeResult> submitStreaming(InputReader.UrlSource urls, ScrapingOptions options,
+                                                          String name, int window) throws IOException {
+        ScrapingOptions frozen = (options != null ? options : defaultOptions()).snapshot();
+        boolean pooled = claimProxyPool(frozen);
+        System.out.println("Configuration: " + describe(frozen));
         
-        System.out.println("Completed scraping " + results.size() + " URLs");
-        printScrapingSummary(results);
+        String id = jobScheduler.newJobId();
+        Path output = streamedResultsDir.resolve(id + ".csv");
+        CsvExporter.CsvSink sink;
+        try {
+            sink = new CsvExporter.CsvSink(output, CsvExporter.ExportFormat.STANDARD);
+        } catch (IOException | RuntimeException e) {
+            if (pooled) releaseProxyPool();
+            throw e;
+        }
+        Iterator<Callable<ScrapeResult>> tasks = new Iterator<>() {
+            // The scheduler asks for tasks in index order
+            private int handedOut;
+            
+            @Override
+            public boolean hasNext() {
+                return urls.hasNext();
+            }
+            
+            @Override
+            public Callable<ScrapeResult> next() {
+                int index = handedOut++;
+                String url = urls.next();
+                sink.expect(index, url);
+                return () -> scrapeSingleUrl(url, frozen);
+            }
+        };
         
-        return results;
+        JobScheduler.Job<ScrapeResult> job;
+        try {
+            job = jobScheduler.submitStreaming(id, name, frozen.jobWeight, urls.size(), tasks, window, sink);
+        } catch (RuntimeException e) {
+            sink.close();
+            if (pooled) releaseProxyPool();
+            throw e;
+        }
+        if (pooled) {
+            job.completion().whenComplete((results, error) -> releaseProxyPool());
+        }
+        System.out.println("Queued " + id + ": " + urls.size() + " URLs streamed to " + output
+            + " (" + name + ", weight " + frozen.jobWeight + ", window " + window + ")");
+        job.completion().whenComplete((results, error) -> {
+            // The scheduler already closed the sink
+            try {
+                urls.close();
+            } catch (IOException e) {
+                System.err.println("Failed to remove input of " + id + ": " + e.getMessage());
+            }
+            System.out.println((error == null ? "Completed " : "Stopped ") + id + ": " + sink.getRows()
+                + " of " + urls.size() + " results written to " + output);
+            saveRedirectCache();
+        });
+        return job;
+    }
+    
+    /** CSV written by a streamed job, or null if there is none. */
+    public Path getStreamedResults(String id) {
+        Path output = streamedResultsDir.resolve(id + ".csv");
+        return Files.exists(output) ? output : null;
+    }
+    
+    public JobScheduler getJobScheduler() {
+        return jobScheduler;
+    }
+    
+    /** Timeline recorded for a job, or null if it wasn't traced or has been evicted. */
+    public JobTrace getTrace(String id) {
+        return traces.getIfPresent(id);
+    }
+    
+    private JobTrace newTrace(String id) {
+        if (traceMaxEvents <= 0) return null;
+        // The newest job gets a full budget: older timelines are dropped to make room for it
+        Iterator<String> oldest = traces.policy().eviction()
+            .map(eviction -> eviction.coldest(MAX_TRACED_JOBS).keySet())
+            .orElse(Set.of())
+            .iterator();
+        while (traceBudget.getAvailable() < traceMaxEvents && oldest.hasNext()) {
+            traces.invalidate(oldest.next());
+        }
+        JobTrace trace = new JobTrace(id, traceMaxEvents, traceBudget);
+        traces.put(id, trace);
+        return trace;
+    }
+    
+    // Every job on this scheduler is submitted by submitUrls, so results are always ScrapeResults
+    @SuppressWarnings("unchecked")
+    public JobScheduler.Job<ScrapeResult> getJob(String id) {
+        return (JobScheduler.Job<ScrapeResult>) jobScheduler.get(id);
     }
     
     private ScrapeResult scrapeSingleUrl(String url, ScrapingOptions options) {
+        ScrapeResult result = scrapeAndExtract(url, options);
+        ScrapeMetrics.recordOutcome(result.getStatus());
+        return result;
+    }
+    
+    // Every stage below records on the job's timeline through the lane bound to this thread
+    private ScrapeResult scrapeSingleUrl(JobTrace trace, int index, String url, long queuedSince,
+                                         ScrapingOptions options) {
+        if (trace == null) return scrapeSingleUrl(url, options);
+        try (JobTrace.Lane lane = trace.enter(index, url, queuedSince)) {
+            ScrapeResult result = scrapeSingleUrl(url, options);
+            lane.setStatus(result.getStatus());
+            return result;
+        }
+    }
+    
+    private ScrapeResult scrapeAndExtract(String url, ScrapingOptions options) {
         try {
             System.out.println("Scraping: " + url);
             
-            Scraper.ScrapeResponse response = scraper.scrapeWithRetryLogging(url, options.maxRetries);
+            long started = System.currentTimeMillis();
+            Scraper.ScrapeResponse response;
+            try {
+                response = urlTimeoutMs > 0
+                    ? scrapeWithinDeadline(url, options, started + urlTimeoutMs)
+                    : scrapeSite(url, options, options.toExtractionOptions(), new ArrayList<>());
+            } catch (TimeoutException e) {
+                timedOutUrls.increment();
+                System.err.println("Gave up on " + url + ": " + e.getMessage());
+                ScrapeResult timedOut = createErrorResult(url, "TIMEOUT: " + e.getMessage());
+                timedOut.setStatus("TIMEOUT");
+                return timedOut;
+            }
             
+            if (response.error == null) {
+                urlTimes.record(System.currentTimeMillis() - started);
+            }
             if (response.error != null) {
                 System.err.println("Failed to scrape " + url + ": " + response.error.getMessage());
                 return createErrorResult(url, "ERROR: " + response.error.getMessage());
@@ -100,6 +558,10 @@ public class ScraperService {
             
             Scraper.Result scraperResult = response.result;
             ScrapeResult result = ScrapeResult.fromResult(scraperResult);
+            result.setUrl(url);
+            result.setResolvedUrl(response.document != null
+                ? response.document.location()
+                : scraper.getRedirectCache().resolve(scraper.normalizeUrl(url)));
             
             // Apply filtering based on options
             if (!options.extractPeople) {
@@ -121,6 +583,71 @@ public class ScraperService {
         }
     }
     
+    /**
+     * Scrape on a separate thread and stop waiting at the deadline, whatever stage the scrape is
+     * in; the abandoned attempt is interrupted and its fetches abort at the same deadline. A
+     * multi-page scrape that runs out of time returns the pages fetched so far; only when none of
+     * them worked does the URL time out.
+     */
+    private Scraper.ScrapeResponse scrapeWithinDeadline(String url, ScrapingOptions options, long deadlineAt)
+            throws Exception {
+        Scraper.ExtractionOptions extraction = options.toExtractionOptions().withDeadline(deadlineAt);
+        List<Scraper.Result> pages = Collections.synchronizedList(new ArrayList<>());
+        Future<Scraper.ScrapeResponse> attempt =
+            attemptExecutor.submit(JobTrace.propagate(() -> scrapeSite(url, options, extraction, pages)));
+        try {
+            return attempt.get(Math.max(0, extraction.remainingMs()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            Scraper.Result partial = Scraper.Result.merge(scraper.normalizeUrl(url), List.copyOf(pages));
+            if (!partial.isSuccess()) {
+                throw new TimeoutException("no response within " + urlTimeoutMs + " ms");
+            }
+            System.out.println("Deadline reached for " + url + ", keeping " + pages.size() + " page(s)");
+            return new Scraper.ScrapeResponse(partial, null);
+        } catch (ExecutionException e) {
+            return new Scraper.ScrapeResponse(new Scraper.Result(url, "FAILED"),
+                e.getCause() instanceof Exception cause ? cause : e);
+        } finally {
+            attempt.cancel(true);
+        }
+    }
+    
+    // Cheapest discovery first: sitemap picks, then probed well-known paths, then a crawl, then the page itself.
+    // Multi-page results are also added to pages as they come in.
+    private Scraper.ScrapeResponse scrapeSite(String url, ScrapingOptions options, Scraper.ExtractionOptions extraction,
+                                              List<Scraper.Result> pages) {
+        SiteCrawler.CrawlConfig crawlConfig = new SiteCrawler.CrawlConfig(
+            options.crawlMaxPages, options.crawlMaxDepth, options.maxRetries, extraction);
+        
+        if (options.sitemapDiscovery) {
+            List<String> sitemapPicks = new SitemapDiscovery(scraper).discover(url, options.sitemapMaxPicks, extraction);
+            if (!sitemapPicks.isEmpty()) {
+                return new SiteCrawler(scraper).fetchTargets(url, sitemapPicks, crawlConfig, pages);
+            }
+        }
+        
+        if (options.probeEnabled) {
+            ContactPathProber.ProbeReport probe = new ContactPathProber(scraper, options.probePaths, 3).probe(url, extraction);
+            if (!probe.hits.isEmpty()) {
+                return new SiteCrawler(scraper).fetchTargets(url, probe.hits, crawlConfig, pages);
+            }
+        }
+        
+        if (options.crawlEnabled) {
+            return new SiteCrawler(scraper).crawl(url, crawlConfig, pages);
+        }
+        
+        return scraper.scrapeWithRetryLogging(url, options.maxRetries, extraction);
+    }
+    
+    private void saveRedirectCache() {
+        try {
+            scraper.getRedirectCache().save(redirectCacheFile);
+        } catch (Exception e) {
+            System.err.println("Failed to save redirect cache: " + e.getMessage());
+        }
+    }
+    
     private ScrapeResult createErrorResult(String url, String errorMessage) {
         ScrapeResult result = new ScrapeResult(url);
         result.setStatus("FAILED");
@@ -134,38 +661,63 @@ public class ScraperService {
         return result;
     }
     
+    /**
+     * Set the engine's proxy pool up for a job and count the job as running on it until
+     * {@link #releaseProxyPool}. There is one pool for all jobs, so a job asking for another
+     * proxy file or per-proxy cap is refused while others still use the current one, rather than
+     * swapping the proxies out from under them. False for a job that connects directly.
+     */
+    private boolean claimProxyPool(ScrapingOptions options) {
+        if (options.useDirectConnection) return false;
+        synchronized (proxyPoolLock) {
+            String current = scraper.getProxyFile();
+            if (options.proxyFile != null && current != null && proxyPoolJobs > 0
+                    && !scraper.usesProxyFile(options.proxyFile, options.maxInFlightPerProxy)) {
+                throw new IllegalStateException("Proxy file " + current + " is in use by "
+                    + proxyPoolJobs + " running job(s); submit with the same proxy settings or once they finish");
+            }
+            applyScrapingOptions(options);
+            proxyPoolJobs++;
+            return true;
+        }
+    }
+    
+    private void releaseProxyPool() {
+        synchronized (proxyPoolLock) {
+            proxyPoolJobs--;
+        }
+    }
+    
     private void applyScrapingOptions(ScrapingOptions options) {
         if (options != null) {
-            this.useDirectConnection = options.useDirectConnection;
-            this.extractPeople = options.extractPeople;
-            this.extractSocial = options.extractSocial;
-            this.extractFacebook = options.extractFacebook;
-            this.maxRetries = options.maxRetries;
-            
-            // Reinitialize scraper with new settings
-            if (!useDirectConnection && options.proxyFile != null) {
-                this.scraper = new Scraper(
-                    options.proxyFile, 
-                    true, 
-                    Scraper.ProxyRotationStrategy.ROUND_ROBIN,
-                    DEFAULT_DELAY_MS,
-                    DEFAULT_DOMAIN_COOLDOWN_MS,
-                    maxRetries
-                );
-            } else {
-                this.scraper = new Scraper(
-                    DEFAULT_DELAY_MS, 
-                    DEFAULT_DOMAIN_COOLDOWN_MS, 
-                    maxRetries
-                );
+            // The engine is kept; only a new proxy file (or cap) swaps its proxy pool
+            if (!options.useDirectConnection && options.proxyFile != null) {
+                scraper.useProxyFile(options.proxyFile, options.maxInFlightPerProxy);
+                scraper.startHealthChecks(options.proxyCheckUrl, options.proxyCheckIntervalSec * 1000L);
             }
         }
     }
     
-    // Individual setters for backward compatibility
+    /** Options filled in with the service defaults and the configured proxy settings, for callers to adjust. */
+    public ScrapingOptions defaultOptions() {
+        ScrapingOptions options = new ScrapingOptions();
+        options.setUseDirectConnection(useDirectConnection);
+        options.setExtractPeople(extractPeople);
+        options.setExtractSocial(extractSocial);
+        options.setExtractFacebook(extractFacebook);
+        options.setMaxRetries(maxRetries);
+        options.setExtractionScope(extractionScope);
+        options.setProxyFile(proxyFile);
+        options.setProxyStrategy(proxyStrategy);
+        options.setMaxInFlightPerProxy(maxInFlightPerProxy);
+        options.setProxyCheckUrl(proxyCheckUrl);
+        options.setProxyCheckIntervalSec(proxyCheckIntervalSec);
+        return options;
+    }
+    
+    // Individual setters for backward compatibility; they change the defaults used by scrapeUrls(urls)
     public void setUseDirectConnection(boolean useDirectConnection) {
         this.useDirectConnection = useDirectConnection;
-        initializeScraper();
     }
     
     public void setExtractPeople(boolean extractPeople) {
@@ -182,19 +734,13 @@ public class ScraperService {
     
     public void setMaxRetries(int maxRetries) {
         this.maxRetries = maxRetries;
-        initializeScraper();
     }
     
     public void setProxyFile(String proxyFile) {
         if (proxyFile != null && !proxyFile.trim().isEmpty()) {
-            this.scraper = new Scraper(
-                proxyFile, 
-                true, 
-                Scraper.ProxyRotationStrategy.ROUND_ROBIN,
-                DEFAULT_DELAY_MS,
-                DEFAULT_DOMAIN_COOLDOWN_MS,
-                maxRetries
-            );
+            scraper.useProxyFile(proxyFile);
+            scraper.startHealthChecks(ProxyHealthChecker.DEFAULT_CHECK_URL, DEFAULT_PROXY_CHECK_INTERVAL_SEC * 1000L);
+            this.proxyFile = proxyFile;
             this.useDirectConnection = false;
         }
     }
@@ -206,8 +752,19 @@ public class ScraperService {
             status.setServiceStatus("OPERATIONAL");
             status.setDatabaseLoaded(nameDatabase.isDatabaseLoaded());
             status.setConnectionType(useDirectConnection ? "DIRECT" : "PROXY");
+            ProxyPool pool = scraper.getProxyPool();
+            if (!pool.isEmpty()) {
+                status.setProxyStats(String.format("Proxies: %d loaded, %d quarantined",
+                    pool.size(), pool.quarantinedCount()));
+            }
             status.setActiveFeatures(getActiveFeatures());
-            status.setThreadPoolActive(!executorService.isShutdown());
+            status.setThreadPoolActive(!jobScheduler.isShutdown());
+            status.setJobStats(jobScheduler.summary());
+            status.setTransferStats(scraper.getTransferStats().summary());
+            status.setDnsStats(scraper.getDnsResolver().summary());
+            status.setLatencyStats("URL time " + urlTimes.summary() + ", fetch time "
+                + scraper.getFetchLatency().getOverall().summary() + ", " + scraper.getHedgedFetches()
+                + " hedged, " + timedOutUrls.sum() + " timed out");
             
             if (nameDatabase.isDatabaseLoaded()) {
                 status.setDatabaseStats(String.format(
@@ -234,10 +791,11 @@ public class ScraperService {
         return String.join(", ", features);
     }
     
-    private String getCurrentConfig() {
+    private String describe(ScrapingOptions options) {
         return String.format(
-            "DirectConnection: %s, People: %s, Social: %s, Facebook: %s, Retries: %d",
-            useDirectConnection, extractPeople, extractSocial, extractFacebook, maxRetries
+            "DirectConnection: %s, People: %s, Social: %s, Facebook: %s, Retries: %d, Scope: %s",
+            options.useDirectConnection, options.extractPeople, options.extractSocial, options.extractFacebook,
+            options.maxRetries, options.extractionScope
         );
     }
     
@@ -248,6 +806,7 @@ public class ScraperService {
         long peopleCount = results.stream().mapToLong(r -> r.getPeople() != null ? r.getPeople().size() : 0).sum();
         long emailCount = results.stream().mapToLong(r -> r.getEmails() != null ? r.getEmails().size() : 0).sum();
         long phoneCount = results.stream().mapToLong(r -> r.getPhones() != null ? r.getPhones().size() : 0).sum();
+        long skippedBytes = results.stream().mapToLong(ScrapeResult::getBytesSkipped).sum();
         
         System.out.println("=== SCRAPING SUMMARY ===");
         System.out.println("Total URLs: " + results.size());
@@ -255,41 +814,9 @@ public class ScraperService {
         System.out.println("People Found: " + peopleCount);
         System.out.println("Emails Found: " + emailCount);
         System.out.println("Phones Found: " + phoneCount);
+        System.out.println("Non-HTML Skipped: " + (skippedBytes / 1024) + " KB not downloaded");
         System.out.println("Success Rate: " + String.format("%.1f%%", (double) successCount / results.size() * 100));
-    }
-    
-    // Batch processing for large datasets
-    public List<ScrapeResult> scrapeUrlsInBatches(List<String> urls, int batchSize) {
-        if (urls == null || urls.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        List<ScrapeResult> allResults = new ArrayList<>();
-        AtomicInteger batchCounter = new AtomicInteger(1);
-        
-        for (int i = 0; i < urls.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, urls.size());
-            List<String> batch = urls.subList(i, end);
-            
-            System.out.println("Processing batch " + batchCounter.get() + " (" + batch.size() + " URLs)");
-            
-            List<ScrapeResult> batchResults = scrapeUrls(batch);
-            allResults.addAll(batchResults);
-            
-            System.out.println("Completed batch " + batchCounter.getAndIncrement());
-            
-            // Add delay between batches to be respectful
-            if (i + batchSize < urls.size()) {
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-        }
-        
-        return allResults;
+        System.out.println(scraper.getDnsResolver().summary());
     }
     
     // Scraping options inner class
@@ -302,6 +829,25 @@ public class ScraperService {
         private String proxyFile;
         private boolean autoExport = false;
         private String exportFormat = "standard";
+        private Scraper.ExtractionScope extractionScope = Scraper.ExtractionScope.RAW_HTML;
+        private boolean crawlEnabled = false;
+        private int crawlMaxPages = 5;
+        private int crawlMaxDepth = 2;
+        private boolean sitemapDiscovery = false;
+        private int sitemapMaxPicks = 2;
+        private boolean probeEnabled = false;
+        private List<String> probePaths = ContactPathProber.DEFAULT_PATHS;
+        private boolean documentExtraction = false;
+        private int maxDocumentsPerPage = 3;
+        private int maxBodyKb = 5120;
+        private String proxyCheckUrl = ProxyHealthChecker.DEFAULT_CHECK_URL;
+        private int proxyCheckIntervalSec = DEFAULT_PROXY_CHECK_INTERVAL_SEC;
+        private Scraper.ProxyRotationStrategy proxyStrategy = Scraper.ProxyRotationStrategy.ROUND_ROBIN;
+        private int maxInFlightPerProxy = 0;
+        private int jobWeight = 1;
+        private boolean priority = false;
+        private List<String> priorityDomains = List.of();
+        private boolean hedgeRequests = false;
         
         // Getters and setters
         public boolean isUseDirectConnection() { return useDirectConnection; }
@@ -327,6 +873,118 @@ public class ScraperService {
         
         public String getExportFormat() { return exportFormat; }
         public void setExportFormat(String exportFormat) { this.exportFormat = exportFormat; }
+        
+        public Scraper.ExtractionScope getExtractionScope() { return extractionScope; }
+        public void setExtractionScope(Scraper.ExtractionScope extractionScope) {
+            this.extractionScope = extractionScope != null ? extractionScope : Scraper.ExtractionScope.RAW_HTML;
+        }
+        
+        public boolean isCrawlEnabled() { return crawlEnabled; }
+        public void setCrawlEnabled(boolean crawlEnabled) { this.crawlEnabled = crawlEnabled; }
+        
+        public int getCrawlMaxPages() { return crawlMaxPages; }
+        public void setCrawlMaxPages(int crawlMaxPages) { this.crawlMaxPages = crawlMaxPages; }
+        
+        public int getCrawlMaxDepth() { return crawlMaxDepth; }
+        public void setCrawlMaxDepth(int crawlMaxDepth) { this.crawlMaxDepth = crawlMaxDepth; }
+        
+        public boolean isSitemapDiscovery() { return sitemapDiscovery; }
+        public void setSitemapDiscovery(boolean sitemapDiscovery) { this.sitemapDiscovery = sitemapDiscovery; }
+        
+        public int getSitemapMaxPicks() { return sitemapMaxPicks; }
+        public void setSitemapMaxPicks(int sitemapMaxPicks) { this.sitemapMaxPicks = sitemapMaxPicks; }
+        
+        public boolean isProbeEnabled() { return probeEnabled; }
+        public void setProbeEnabled(boolean probeEnabled) { this.probeEnabled = probeEnabled; }
+        
+        public List<String> getProbePaths() { return probePaths; }
+        public void setProbePaths(List<String> probePaths) {
+            this.probePaths = probePaths != null && !probePaths.isEmpty() ? probePaths : ContactPathProber.DEFAULT_PATHS;
+        }
+        
+        public boolean isDocumentExtraction() { return documentExtraction; }
+        public void setDocumentExtraction(boolean documentExtraction) { this.documentExtraction = documentExtraction; }
+        
+        public int getMaxDocumentsPerPage() { return maxDocumentsPerPage; }
+        public void setMaxDocumentsPerPage(int maxDocumentsPerPage) { this.maxDocumentsPerPage = maxDocumentsPerPage; }
+        
+        public int getMaxBodyKb() { return maxBodyKb; }
+        public void setMaxBodyKb(int maxBodyKb) { this.maxBodyKb = maxBodyKb; }
+        
+        public String getProxyCheckUrl() { return proxyCheckUrl; }
+        public void setProxyCheckUrl(String proxyCheckUrl) {
+            this.proxyCheckUrl = proxyCheckUrl != null && !proxyCheckUrl.isBlank() ? proxyCheckUrl : ProxyHealthChecker.DEFAULT_CHECK_URL;
+        }
+        
+        public int getProxyCheckIntervalSec() { return proxyCheckIntervalSec; }
+        public void setProxyCheckIntervalSec(int proxyCheckIntervalSec) { this.proxyCheckIntervalSec = Math.max(1, proxyCheckIntervalSec); }
+        
+        public Scraper.ProxyRotationStrategy getProxyStrategy() { return proxyStrategy; }
+        public void setProxyStrategy(Scraper.ProxyRotationStrategy proxyStrategy) {
+            this.proxyStrategy = proxyStrategy != null ? proxyStrategy : Scraper.ProxyRotationStrategy.ROUND_ROBIN;
+        }
+        
+        // 0 means no cap
+        public int getMaxInFlightPerProxy() { return maxInFlightPerProxy; }
+        public void setMaxInFlightPerProxy(int maxInFlightPerProxy) { this.maxInFlightPerProxy = Math.max(0, maxInFlightPerProxy); }
+        
+        // Share of the workers relative to other running jobs
+        public int getJobWeight() { return jobWeight; }
+        public void setJobWeight(int jobWeight) { this.jobWeight = Math.max(1, jobWeight); }
+        
+        // Send every URL of the upload to the high-priority lane
+        public boolean isPriority() { return priority; }
+        public void setPriority(boolean priority) { this.priority = priority; }
+        
+        // Extra domains or URL globs treated as priority for this upload only
+        public List<String> getPriorityDomains() { return priorityDomains; }
+        public void setPriorityDomains(List<String> priorityDomains) {
+            this.priorityDomains = priorityDomains != null ? priorityDomains : List.of();
+        }
+        
+        // Race a second request through another proxy when one is slower than its domain's p95
+        public boolean isHedgeRequests() { return hedgeRequests; }
+        public void setHedgeRequests(boolean hedgeRequests) { this.hedgeRequests = hedgeRequests; }
+        
+        /** Copy taken when a job is submitted; the job only ever reads its own copy. */
+        public ScrapingOptions snapshot() {
+            ScrapingOptions copy = new ScrapingOptions();
+            copy.useDirectConnection = useDirectConnection;
+            copy.extractPeople = extractPeople;
+            copy.extractSocial = extractSocial;
+            copy.extractFacebook = extractFacebook;
+            copy.maxRetries = maxRetries;
+            copy.proxyFile = proxyFile;
+            copy.autoExport = autoExport;
+            copy.exportFormat = exportFormat;
+            copy.extractionScope = extractionScope;
+            copy.crawlEnabled = crawlEnabled;
+            copy.crawlMaxPages = crawlMaxPages;
+            copy.crawlMaxDepth = crawlMaxDepth;
+            copy.sitemapDiscovery = sitemapDiscovery;
+            copy.sitemapMaxPicks = sitemapMaxPicks;
+            copy.probeEnabled = probeEnabled;
+            copy.probePaths = List.copyOf(probePaths);
+            copy.documentExtraction = documentExtraction;
+            copy.maxDocumentsPerPage = maxDocumentsPerPage;
+            copy.maxBodyKb = maxBodyKb;
+            copy.proxyCheckUrl = proxyCheckUrl;
+            copy.proxyCheckIntervalSec = proxyCheckIntervalSec;
+            copy.proxyStrategy = proxyStrategy;
+            copy.maxInFlightPerProxy = maxInFlightPerProxy;
+            copy.jobWeight = jobWeight;
+            copy.priority = priority;
+            copy.priorityDomains = List.copyOf(priorityDomains);
+            copy.hedgeRequests = hedgeRequests;
+            return copy;
+        }
+        
+        public Scraper.ExtractionOptions toExtractionOptions() {
+            return new Scraper.ExtractionOptions(extractionScope, documentExtraction, maxDocumentsPerPage,
+                maxBodyKb * 1024L,
+                useDirectConnection ? Scraper.ConnectionType.DIRECT : Scraper.ConnectionType.PROXY,
+                proxyStrategy, 0, hedgeRequests);
+        }
     }
     
     // Health status inner class
@@ -337,6 +995,11 @@ public class ScraperService {
         private String activeFeatures;
         private boolean threadPoolActive;
         private String databaseStats;
+        private String transferStats;
+        private String dnsStats;
+        private String latencyStats;
+        private String proxyStats;
+        private String jobStats;
         private String errorMessage;
         
         // Getters and setters
@@ -358,15 +1021,36 @@ public class ScraperService {
         public String getDatabaseStats() { return databaseStats; }
         public void setDatabaseStats(String databaseStats) { this.databaseStats = databaseStats; }
         
+        public String getTransferStats() { return transferStats; }
+        public void setTransferStats(String transferStats) { this.transferStats = transferStats; }
+        
+        public String getDnsStats() { return dnsStats; }
+        public void setDnsStats(String dnsStats) { this.dnsStats = dnsStats; }
+        
+        public String getLatencyStats() { return latencyStats; }
+        public void setLatencyStats(String latencyStats) { this.latencyStats = latencyStats; }
+        
+        public String getProxyStats() { return proxyStats; }
+        public void setProxyStats(String proxyStats) { this.proxyStats = proxyStats; }
+        
+        public String getJobStats() { return jobStats; }
+        public void setJobStats(String jobStats) { this.jobStats = jobStats; }
+        
         public String getErrorMessage() { return errorMessage; }
         public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
     }
     
      
     public void shutdown() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-            System.out.println("ScraperService executor service shut down");
+        if (clusterPoller != null) {
+            clusterPoller.shutdownNow();
+        }
+        attemptExecutor.shutdownNow();
+        saveRedirectCache();
+        scraper.close();
+        if (!jobScheduler.isShutdown()) {
+            jobScheduler.close();
+            System.out.println("ScraperService job scheduler shut down");
         }
     }
     
@@ -0,0 +1,199 @@
+package com.example.companyScraper.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DNS layer for the fetch path: answers from a bounded cache, remembers failures in a short
+ * negative cache, and can resolve hosts ahead of time so a fetch rarely waits on a lookup.
+ * <p>
+ * InetAddress doesn't expose record TTLs, so entries live for a configured TTL; the 30s default
+ * matches the JVM's own positive cache TTL. The upstream lookup is pluggable so tests can run
+ * against a stub instead of real DNS.
+ */
+public class CachingDnsResolver implements DnsResolver {
+
+    /** Upstream resolution; the default is the JVM resolver. */
+    public interface Lookup {
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    public static final long DEFAULT_POSITIVE_TTL_MS = 30_000;
+    public static final long DEFAULT_NEGATIVE_TTL_MS = 10_000;
+    private static final int MAX_HOSTS = 50_000;
+
+    // Prefetches are best-effort; when the queue is full the host is simply resolved on demand
+    private static final ThreadPoolExecutor PREFETCH_POOL = new ThreadPoolExecutor(
+        4, 4, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(256),
+        r -> {
+            Thread t = new Thread(r, "dns-prefetch");
+            t.setDaemon(true);
+            return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy()
+    );
+
+    private final Lookup lookup;
+    private final Cache<String, Entry> cache;
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder prefetches = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    public CachingDnsResolver() {
+        this(SystemDefaultDnsResolver.INSTANCE::resolve, DEFAULT_POSITIVE_TTL_MS, DEFAULT_NEGATIVE_TTL_MS);
+    }
+
+    public CachingDnsResolver(Lookup lookup, long positiveTtlMs, long negativeTtlMs) {
+        this(lookup, positiveTtlMs, negativeTtlMs, Ticker.systemTicker());
+    }
+
+    CachingDnsResolver(Lookup lookup, long positiveTtlMs, long negativeTtlMs, Ticker ticker) {
+        this.lookup = lookup;
+        long positiveNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, positiveTtlMs));
+        long negativeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, negativeTtlMs));
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(MAX_HOSTS)
+            .ticker(ticker)
+            .expireAfter(new Expiry<String, Entry>() {
+                @Override
+                public long expireAfterCreate(String host, Entry entry, long currentTime) {
+                    return entry.failure != null ? negativeNanos : positiveNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(String host, Entry entry, long currentTime, long currentDuration) {
+                    return expireAfterCreate(host, entry, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String host, Entry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long start = System.nanoTime();
+        try {
+            String key = host.toLowerCase(Locale.ROOT);
+            Entry entry = cache.getIfPresent(key);
+            if (entry != null) {
+                if (entry.failure != null) negativeHits.increment(); else cacheHits.increment();
+            } else {
+                // Join a prefetch already under way rather than resolving the same host twice
+                CompletableFuture<Entry> pending = inFlight.get(key);
+                entry = pending != null ? joinQuietly(pending, key) : lookupAndCache(key);
+            }
+            return entry.addressesOrThrow();
+        } finally {
+            long blocked = System.nanoTime() - start;
+            blockedNanos.add(blocked);
+            ScrapeMetrics.record(ScrapeMetrics.Stage.DNS, blocked);
+        }
+    }
+
+    /** Start resolving the host in the background unless it is cached or already being resolved. */
+    public void prefetch(String host) {
+        if (host == null || host.isEmpty()) return;
+        String key = host.toLowerCase(Locale.ROOT);
+        if (cache.getIfPresent(key) != null || inFlight.containsKey(key)) return;
+
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) return;
+
+        prefetches.increment();
+        try {
+            PREFETCH_POOL.execute(() -> {
+                try {
+                    future.complete(lookupAndCache(key));
+                } catch (RuntimeException e) {
+                    future.complete(null);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Anyone already waiting on this future falls back to resolving it themselves
+            inFlight.remove(key, future);
+            future.complete(null);
+        }
+    }
+
+    private Entry joinQuietly(CompletableFuture<Entry> pending, String key) {
+        try {
+            Entry entry = pending.get(30, TimeUnit.SECONDS);
+            return entry != null ? entry : lookupAndCache(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return lookupAndCache(key);
+        } catch (ExecutionException | TimeoutException e) {
+            return lookupAndCache(key);
+        }
+    }
+
+    private Entry lookupAndCache(String host) {
+        long start = System.nanoTime();
+        Entry entry;
+        try {
+            entry = new Entry(lookup.resolve(host), null);
+        } catch (UnknownHostException e) {
+            entry = new Entry(null, e);
+        } finally {
+            lookups.increment();
+            lookupNanos.add(System.nanoTime() - start);
+        }
+        cache.put(host, entry);
+        return entry;
+    }
+
+    public long getLookups() { return lookups.sum(); }
+    public long getLookupTimeMs() { return TimeUnit.NANOSECONDS.toMillis(lookupNanos.sum()); }
+    public long getCacheHits() { return cacheHits.sum(); }
+    public long getNegativeHits() { return negativeHits.sum(); }
+    public long getPrefetches() { return prefetches.sum(); }
+    // Time fetch threads actually spent waiting on DNS, after cache hits and prefetches
+    public long getBlockedTimeMs() { return TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum()); }
+
+    public String summary() {
+        long count = getLookups();
+        return String.format("DNS: %d lookup(s) (avg %d ms), %d cache hit(s), %d negative hit(s), %d prefetched, %d ms blocked in fetches",
+            count, count > 0 ? getLookupTimeMs() / count : 0, getCacheHits(), getNegativeHits(), getPrefetches(),
+            getBlockedTimeMs());
+    }
+
+    private static class Entry {
+        final InetAddress[] addresses;
+        final UnknownHostException failure;
+
+        Entry(InetAddress[] addresses, UnknownHostException failure) {
+            this.addresses = addresses;
+            this.failure = failure;
+        }
+
+        InetAddress[] addressesOrThrow() throws UnknownHostException {
+            if (failure != null) {
+                throw new UnknownHostException(failure.getMessage());
+            }
+            return addresses.clone();
+        }
+    }
+}
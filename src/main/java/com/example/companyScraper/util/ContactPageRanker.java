@@ -0,0 +1,60 @@
+package com.example.companyScraper.util;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Scores same-site URLs by how likely they are to list contacts or people,
+ * based on the URL path and (when known) the anchor text that linked to it.
+ */
+public class ContactPageRanker {
+
+    // Keyword weights, matched against lower-cased path and anchor text
+    private static final Map<String, Integer> POSITIVE_KEYWORDS = Map.ofEntries(
+        Map.entry("contact", 10), Map.entry("kontakt", 10), Map.entry("impressum", 9),
+        Map.entry("team", 9), Map.entry("leadership", 9), Map.entry("people", 8),
+        Map.entry("staff", 8), Map.entry("management", 7), Map.entry("executive", 7),
+        Map.entry("founder", 7), Map.entry("board", 5), Map.entry("about", 6),
+        Map.entry("who-we-are", 6), Map.entry("our-story", 3), Map.entry("company", 3),
+        Map.entry("directory", 5), Map.entry("office", 4), Map.entry("location", 3)
+    );
+
+    private static final Map<String, Integer> NEGATIVE_KEYWORDS = Map.ofEntries(
+        Map.entry("blog", -4), Map.entry("news", -3), Map.entry("press-release", -3),
+        Map.entry("privacy", -6), Map.entry("terms", -6), Map.entry("cookie", -6),
+        Map.entry("login", -8), Map.entry("signin", -8), Map.entry("cart", -8),
+        Map.entry("checkout", -8), Map.entry("product", -3), Map.entry("shop", -4),
+        Map.entry("tag/", -5), Map.entry("category/", -4), Map.entry("page/", -4)
+    );
+
+    public static int score(String url, String anchorText) {
+        String path = pathOf(url);
+        String anchor = anchorText != null ? anchorText.toLowerCase(Locale.ROOT) : "";
+
+        int score = 0;
+        for (Map.Entry<String, Integer> kw : POSITIVE_KEYWORDS.entrySet()) {
+            if (path.contains(kw.getKey())) score += kw.getValue();
+            if (anchor.contains(kw.getKey())) score += kw.getValue();
+        }
+        for (Map.Entry<String, Integer> kw : NEGATIVE_KEYWORDS.entrySet()) {
+            if (path.contains(kw.getKey())) score += kw.getValue();
+        }
+
+        // Prefer shallow pages: /contact over /blog/2019/05/some-post-about-contact
+        int segments = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') segments++;
+        }
+        return score - Math.max(0, segments - 2);
+    }
+
+    private static String pathOf(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            return path != null ? path.toLowerCase(Locale.ROOT) : "";
+        } catch (Exception e) {
+            return url.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.companyScraper.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Cheap alternative to a crawl: HEAD (or tiny ranged GET) a list of well-known contact paths
+ * on the input's origin and fully fetch only those that answer 200 with an HTML content type.
+ * The probe burst takes one per-domain cooldown slot and runs with bounded concurrency over
+ * pooled keep-alive connections; the follow-up page fetches are paced like any other scrape.
+ */
+public class ContactPathProber {
+
+    public static final List<String> DEFAULT_PATHS = List.of("/contact", "/contact-us", "/about", "/team", "/impressum");
+
+    // Probes across all sites share this pool; per-site concurrency is capped separately
+    private static final ExecutorService PROBE_EXECUTOR = Executors.newFixedThreadPool(8, r -> {
+        Thread t = new Thread(r, "contact-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Scraper scraper;
+    private final List<String> paths;
+    private final int maxConcurrentPerSite;
+
+    public ContactPathProber(Scraper scraper, List<String> paths, int maxConcurrentPerSite) {
+        this.scraper = scraper;
+        this.paths = paths != null && !paths.isEmpty() ? paths : DEFAULT_PATHS;
+        this.maxConcurrentPerSite = Math.max(1, maxConcurrentPerSite);
+    }
+
+    public ProbeReport probe(String siteUrl, Scraper.ExtractionOptions extraction) {
+        long start = System.currentTimeMillis();
+        String origin = originOf(scraper.normalizeUrl(siteUrl));
+        if (origin == null) return new ProbeReport(List.of(), 0, 0, 0);
+
+        ProxyPool.Lease lease;
+        try {
+            // The whole burst counts as one request against the domain's cooldown and one proxy slot
+            scraper.awaitDomainSlot(origin);
+            lease = scraper.leaseProxy(origin, extraction);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ProbeReport(List.of(), 0, 0, 0);
+        } catch (IOException e) {
+            System.err.println("Path probe skipped for " + origin + ": " + e.getMessage());
+            return new ProbeReport(List.of(), 0, 0, 0);
+        }
+
+        Scraper.ProxyInfo proxy = lease.proxy();
+        String userAgent = scraper.getRandomUserAgent();
+        Semaphore siteSlots = new Semaphore(maxConcurrentPerSite);
+
+        List<Future<HttpFetcher.ProbeResponse>> futures = new ArrayList<>();
+        for (String path : paths) {
+            String target = origin + (path.startsWith("/") ? path : "/" + path);
+            futures.add(PROBE_EXECUTOR.submit(() -> {
+                siteSlots.acquire();
+                try {
+                    return scraper.getHttpFetcher().probe(target, proxy, userAgent);
+                } finally {
+                    siteSlots.release();
+                }
+            }));
+        }
+
+        Set<String> hits = new LinkedHashSet<>();
+        long bytes = 0;
+        try {
+            for (Future<HttpFetcher.ProbeResponse> future : futures) {
+                try {
+                    HttpFetcher.ProbeResponse response = future.get(30, TimeUnit.SECONDS);
+                    bytes += response.bytesRead;
+                    // A redirect back to the home page means the path doesn't really exist
+                    if (response.isHtmlPage() && !isSiteRoot(response.finalUrl)) {
+                        hits.add(response.finalUrl);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    future.cancel(true);
+                }
+            }
+        } finally {
+            lease.close();
+        }
+
+        ProbeReport report = new ProbeReport(new ArrayList<>(hits), paths.size(), bytes, System.currentTimeMillis() - start);
+        System.out.println("Probed " + report.probesSent + " path(s) on " + origin + " in " + report.elapsedMs
+            + " ms (" + report.bytesRead + " body bytes): " + report.hits.size() + " hit(s) " + report.hits);
+        return report;
+    }
+
+    private static boolean isSiteRoot(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            return path == null || path.isEmpty() || "/".equals(path);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getScheme() == null || uri.getHost() == null) return null;
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() > 0 ? ":" + uri.getPort() : "");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static class ProbeReport {
+        public final List<String> hits;
+        public final int probesSent;
+        public final long bytesRead;
+        public final long elapsedMs;
+
+        public ProbeReport(List<String> hits, int probesSent, long bytesRead, long elapsedMs) {
+            this.hits = hits;
+            this.probesSent = probesSent;
+            this.bytesRead = bytesRead;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+}
@@ -50,6 +50,11 @@ public class CsvExporter {
      */
     public static boolean exportToCsv(String filePath, List<ScrapeResult> results, 
                                      ExportFormat format, boolean createBackup) {
+        return ScrapeMetrics.time(ScrapeMetrics.Stage.EXPORT, () -> writeCsv(filePath, results, format, createBackup));
+    }
+
+    private static boolean writeCsv(String filePath, List<ScrapeResult> results,
+                                    ExportFormat format, boolean createBackup) {
         if (results == null || results.isEmpty()) {
             System.err.println("No results to export");
             return false;
@@ -500,4 +505,62 @@ public class CsvExporter {
     public enum ExportFormat {
         STANDARD, DETAILED
     }
+
+    /**
+     * Writes rows as results arrive instead of from a finished list, for streamed jobs whose
+     * results are never all in memory. Same header and row layout as {@link #exportToCsv}.
+     */
+    public static class CsvSink implements JobScheduler.ResultSink<ScrapeResult> {
+        private final Path file;
+        private final ExportFormat format;
+        private final OutputStream out;
+        private final CSVWriter writer;
+        // URL of each task handed out but not yet written, for a row when the task fails
+        private final Map<Integer, String> pendingUrls = new HashMap<>();
+        private int rows;
+
+        public CsvSink(Path file, ExportFormat format) throws IOException {
+            this.file = file;
+            this.format = format;
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.out = new BufferedOutputStream(Files.newOutputStream(file));
+            // UTF-8 BOM for Excel compatibility, then the header
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            this.writer = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                CSVWriter.DEFAULT_SEPARATOR,
+                CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                CSVWriter.DEFAULT_ESCAPE_CHARACTER,
+                CSVWriter.DEFAULT_LINE_END);
+            writer.writeNext(format == ExportFormat.DETAILED ? DETAILED_HEADERS : STANDARD_HEADERS);
+        }
+
+        /** Record the URL of task {@code index}, so its row can be written even if the task fails. */
+        public synchronized void expect(int index, String url) {
+            pendingUrls.put(index, url);
+        }
+
+        @Override
+        public synchronized void accept(int index, ScrapeResult result) throws IOException {
+            String url = pendingUrls.remove(index);
+            if (result == null) {
+                // The task threw; still one row per input URL, so a failure isn't silently missing
+                result = new ScrapeResult(url);
+                result.setStatus("FAILED");
+                result.setNotes("Scrape failed");
+            }
+            writer.writeNext(format == ExportFormat.DETAILED ? createDetailedRow(result) : createStandardRow(result));
+            rows++;
+        }
+
+        public synchronized int getRows() { return rows; }
+
+        public Path getFile() { return file; }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.example.companyScraper.util;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional stage that follows PDF/Word links on a page and streams them through Tika.
+ * Documents run on their own small bounded pool with hard byte and time limits, so a 50MB
+ * brochure can neither starve the HTML workers nor hold memory; when the pool is saturated
+ * further documents are skipped rather than queued. Extracted text goes through the same
+ * email, phone and name extractors as HTML pages.
+ */
+public class DocumentExtractor {
+
+    private static final Set<String> DOCUMENT_EXTENSIONS = Set.of(".pdf", ".docx", ".doc", ".odt", ".rtf");
+    private static final Set<String> DOCUMENT_CONTENT_TYPES = Set.of(
+        "application/pdf",
+        "application/msword",
+        "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+        "application/vnd.oasis.opendocument.text",
+        "application/rtf");
+
+    private static final long MAX_DOCUMENT_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_TEXT_CHARS = 200_000;
+    private static final long DOCUMENT_TIMEOUT_MS = 30_000;
+
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 8;
+    private static final ThreadPoolExecutor DOCUMENT_POOL = new ThreadPoolExecutor(
+        WORKERS, WORKERS, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+        r -> {
+            Thread t = new Thread(r, "document-extractor");
+            t.setDaemon(true);
+            return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy()
+    );
+
+    // AutoDetectParser is thread-safe but loads every Tika parser; build it on first use only
+    private static class ParserHolder {
+        static final AutoDetectParser PARSER = new AutoDetectParser();
+    }
+
+    private final Scraper scraper;
+
+    public DocumentExtractor(Scraper scraper) {
+        this.scraper = scraper;
+    }
+
+    public static boolean isDocumentUrl(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            if (path == null) return false;
+            String lower = path.toLowerCase(Locale.ROOT);
+            int dot = lower.lastIndexOf('.');
+            return dot >= 0 && DOCUMENT_EXTENSIONS.contains(lower.substring(dot));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public static boolean isDocumentContentType(String contentType) {
+        if (contentType == null) return false;
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int semicolon = type.indexOf(';');
+        return DOCUMENT_CONTENT_TYPES.contains((semicolon >= 0 ? type.substring(0, semicolon) : type).trim());
+    }
+
+    /**
+     * Extract contacts from up to {@code extraction.maxDocuments} documents linked from the page
+     * and return them as per-document results (status SUCCESS only where text was extracted).
+     */
+    public List<Scraper.Result> extractLinkedDocuments(Document page, String pageUrl, Scraper.ExtractionOptions extraction) {
+        Set<String> links = new LinkedHashSet<>();
+        for (Element a : page.select("a[href]")) {
+            String href = a.absUrl("href");
+            if ((href.startsWith("http://") || href.startsWith("https://")) && isDocumentUrl(href)) {
+                links.add(href);
+                if (links.size() >= extraction.maxDocuments) break;
+            }
+        }
+        if (links.isEmpty()) return List.of();
+
+        return extract(links, PhoneExtractor.inferRegion(pageUrl, page), extraction);
+    }
+
+    /**
+     * Extract contacts from a URL that is itself a document (an input pointing straight at a
+     * PDF). Runs on the same bounded pool; null when the pool is full or nothing was extracted.
+     */
+    public Scraper.Result extractDocument(String url, Scraper.ExtractionOptions extraction) {
+        return first(extract(List.of(new DocumentTask(url, extraction, null)), PhoneExtractor.inferRegion(url, null)));
+    }
+
+    /**
+     * As above, for a document whose response is already open, e.g. from a page fetch that found
+     * a PDF: its body is parsed without requesting it again. The response is closed either way.
+     */
+    public Scraper.Result extractDocument(String url, HttpFetcher.StreamResponse opened,
+                                          Scraper.ExtractionOptions extraction) {
+        return first(extract(List.of(new DocumentTask(url, extraction, opened)), PhoneExtractor.inferRegion(url, null)));
+    }
+
+    private static Scraper.Result first(List<Scraper.Result> results) {
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    private List<Scraper.Result> extract(Collection<String> links, String phoneRegion, Scraper.ExtractionOptions extraction) {
+        List<DocumentTask> tasks = new ArrayList<>();
+        for (String link : links) {
+            tasks.add(new DocumentTask(link, extraction, null));
+        }
+        return extract(tasks, phoneRegion);
+    }
+
+    private List<Scraper.Result> extract(List<DocumentTask> documents, String phoneRegion) {
+        Map<String, DocumentTask> tasks = new LinkedHashMap<>();
+        Map<String, Future<String>> futures = new LinkedHashMap<>();
+        for (DocumentTask task : documents) {
+            try {
+                futures.put(task.url, DOCUMENT_POOL.submit(task));
+                tasks.put(task.url, task);
+            } catch (RejectedExecutionException e) {
+                System.err.println("Document pool saturated, skipping " + task.url);
+                task.discard();
+            }
+        }
+
+        List<Scraper.Result> results = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + DOCUMENT_TIMEOUT_MS;
+        for (Map.Entry<String, Future<String>> entry : futures.entrySet()) {
+            String link = entry.getKey();
+            Future<String> future = entry.getValue();
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                String text = future.get(remaining, TimeUnit.MILLISECONDS);
+                if (text != null && !text.isBlank()) {
+                    results.add(extractFromText(link, text, phoneRegion));
+                }
+            } catch (TimeoutException e) {
+                System.err.println("Document extraction timed out for " + link);
+                tasks.get(link).abort();
+                future.cancel(true);
+                tasks.get(link).discard();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                tasks.values().forEach(DocumentTask::abort);
+                tasks.values().forEach(DocumentTask::discard);
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("Document extraction failed for " + link + ": " + e.getCause().getMessage());
+            }
+        }
+        return results;
+    }
+
+    private Scraper.Result extractFromText(String url, String text, String phoneRegion) {
+        Set<String> emails = EmailExtractor.extractEmails(text);
+        Set<String> phones = PhoneExtractor.extractValidNormalizedPhones(text, phoneRegion);
+        Set<String> linkedins = LinkedInExtractor.extractLinkedInUrls(text);
+        List<Scraper.Person> people = NameRoleExtractor.extractPeopleWithAI(text, url);
+        return new Scraper.Result(url, "SUCCESS", emails, phones, linkedins, Set.of(), Set.of(), people,
+            "Document: " + url);
+    }
+
+    /**
+     * Streams one document into Tika, fetching it unless its response came already open. The
+     * open response is kept so a timed-out parse can be stopped by dropping its connection;
+     * interrupting alone doesn't stop most Tika parsers.
+     */
+    private class DocumentTask implements Callable<String> {
+        private final String url;
+        private final Scraper.ExtractionOptions extraction;
+        private final HttpFetcher.StreamResponse preopened;
+        private volatile HttpFetcher.StreamResponse response;
+        private volatile boolean aborted;
+        // Whoever claims the task first owns the preopened response: the run, or discard()
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        DocumentTask(String url, Scraper.ExtractionOptions extraction, HttpFetcher.StreamResponse preopened) {
+            this.url = url;
+            this.extraction = extraction;
+            this.preopened = preopened;
+            this.response = preopened;
+        }
+
+        @Override
+        public String call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) return null;
+            if (preopened == null) {
+                scraper.awaitDomainSlot(url);
+                if (aborted) return null;
+            }
+
+            BodyContentHandler handler = new BodyContentHandler(MAX_TEXT_CHARS);
+            try (ProxyPool.Lease lease = preopened != null ? ProxyPool.Lease.NONE : scraper.leaseProxy(url, extraction);
+                 HttpFetcher.StreamResponse opened = preopened != null ? preopened : scraper.getHttpFetcher()
+                    .openStream(url, lease.proxy(), scraper.getRandomUserAgent(), null, extraction.deadlineAt)) {
+                if (opened.statusCode != 200) return null;
+
+                response = opened;
+                if (aborted) return null;
+                InputStream in = new BoundedInputStream(opened.body(), MAX_DOCUMENT_BYTES);
+                ParserHolder.PARSER.parse(in, handler, new Metadata(), new ParseContext());
+            } catch (Exception e) {
+                // Write limit reached or document truncated at the byte cap: keep the text read so far
+                if (aborted) return null;
+            }
+            return handler.toString();
+        }
+
+        // Closes the preopened response unread, unless the task already started and owns it
+        void discard() {
+            if (preopened == null || !claimed.compareAndSet(false, true)) return;
+            try {
+                preopened.close();
+            } catch (Exception ignored) {
+            }
+        }
+
+        void abort() {
+            aborted = true;
+            HttpFetcher.StreamResponse open = response;
+            if (open != null) {
+                open.abort();
+            }
+        }
+    }
+}
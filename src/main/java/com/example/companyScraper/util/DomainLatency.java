@@ -0,0 +1,41 @@
+package com.example.companyScraper.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Fetch latency per domain, used to decide when a fetch is slow enough to hedge.
+ * A domain with too few samples of its own (most inputs have one URL per company) falls back to
+ * the latency across all domains.
+ */
+public class DomainLatency {
+
+    // About 2 KB per domain
+    private static final int MAX_DOMAINS = 2_000;
+    private static final int MIN_SAMPLES = 5;
+
+    private final Cache<String, LatencyHistogram> domains = Caffeine.newBuilder()
+        .maximumSize(MAX_DOMAINS)
+        .build();
+    private final LatencyHistogram overall = new LatencyHistogram();
+
+    public void record(String url, long millis) {
+        overall.record(millis);
+        String domain = UrlHosts.hostOf(url);
+        if (domain != null) {
+            domains.get(domain, d -> new LatencyHistogram()).record(millis);
+        }
+    }
+
+    /** The q-th quantile for the URL's domain, or across all domains; -1 until there are enough samples. */
+    public long percentile(String url, double q) {
+        String domain = UrlHosts.hostOf(url);
+        LatencyHistogram histogram = domain != null ? domains.getIfPresent(domain) : null;
+        if (histogram != null && histogram.getCount() >= MIN_SAMPLES) {
+            return histogram.percentile(q);
+        }
+        return overall.getCount() >= MIN_SAMPLES ? overall.percentile(q) : -1;
+    }
+
+    public LatencyHistogram getOverall() { return overall; }
+}
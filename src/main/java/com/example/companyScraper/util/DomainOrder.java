@@ -0,0 +1,36 @@
+package com.example.companyScraper.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatch order for a job whose URLs are grouped by domain: one URL per domain in turn, so the
+ * workers spread over domains instead of queueing on one domain's cooldown. The rate limiter
+ * still enforces the cooldown; this only decides which URL a free worker takes next.
+ */
+public final class DomainOrder {
+
+    private DomainOrder() {
+    }
+
+    /**
+     * Indexes of {@code domains}, one per domain in turn (domains in order of first appearance),
+     * each domain's own in input order.
+     */
+    public static int[] interleave(List<String> domains) {
+        Map<String, List<Integer>> byDomain = new LinkedHashMap<>();
+        for (int i = 0; i < domains.size(); i++) {
+            byDomain.computeIfAbsent(domains.get(i), d -> new ArrayList<>()).add(i);
+        }
+        int[] order = new int[domains.size()];
+        int next = 0;
+        for (int round = 0; next < order.length; round++) {
+            for (List<Integer> indexes : byDomain.values()) {
+                if (round < indexes.size()) order[next++] = indexes.get(round);
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.companyScraper.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-domain request slots, optionally shared by several replicas. Each domain gets at most one
+ * request per interval across everyone using the same {@link Coordinator}: the coordinator
+ * hands out consecutive time slots (a token bucket of one token, tracked as the time the next
+ * slot is free), and a replica leases them in blocks so it only talks to the coordinator once
+ * per block rather than once per request. The block follows local demand, so a domain with a
+ * single waiting request only takes one slot and doesn't hold others back. Slots a replica
+ * leased but didn't use in time are dropped, never used late.
+ */
+public class DomainRateLimiter {
+
+    // A slot this far in the past still counts as on time (scheduling jitter)
+    private static final long SLOT_TOLERANCE_MS = 50;
+    // How long an idle domain's slots are kept after its last leased slot would have passed
+    private static final long IDLE_DOMAIN_MS = 60_000;
+
+    /** Reserves {@code count} consecutive slots for a domain and returns when the first one starts. */
+    public interface Coordinator {
+        long reserve(String domain, int count, long intervalMs) throws IOException;
+    }
+
+    private final Coordinator coordinator;
+    private final long intervalMs;
+    private final int blockSize;
+    private final LongSupplier clock;
+    // Idle domains are dropped, so a job over millions of domains doesn't keep one entry each
+    private final Cache<String, Slots> slots;
+
+    public DomainRateLimiter(Coordinator coordinator, long intervalMs, int blockSize) {
+        this(coordinator, intervalMs, blockSize, System::currentTimeMillis);
+    }
+
+    DomainRateLimiter(Coordinator coordinator, long intervalMs, int blockSize, LongSupplier clock) {
+        this.coordinator = coordinator;
+        this.intervalMs = Math.max(1, intervalMs);
+        this.blockSize = Math.max(1, blockSize);
+        this.clock = clock;
+        // Expiry runs on the same clock as the slots; a dropped domain's coordinator state still paces it
+        this.slots = Caffeine.newBuilder()
+            .expireAfterAccess(this.intervalMs * this.blockSize + IDLE_DOMAIN_MS, TimeUnit.MILLISECONDS)
+            .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+            .build();
+    }
+
+    /** Wait until this replica may send the next request to the domain. */
+    public void acquire(String domain) throws InterruptedException {
+        long wait = nextSlot(domain) - clock.getAsLong();
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+    }
+
+    // Take the next leased slot for the domain, leasing a new block when none is left
+    long nextSlot(String domain) {
+        Slots domainSlots = slots.get(domain, d -> new Slots());
+        domainSlots.waiting.incrementAndGet();
+        synchronized (domainSlots) {
+            // Counted until it has its slot, so the block covers exactly who is still waiting
+            try {
+                long now = clock.getAsLong();
+                while (!domainSlots.leased.isEmpty() && domainSlots.leased.peekFirst() < now - SLOT_TOLERANCE_MS) {
+                    domainSlots.leased.pollFirst();
+                }
+                if (domainSlots.leased.isEmpty()) {
+                    int count = Math.min(blockSize, domainSlots.waiting.get());
+                    long start = reserve(domain, count);
+                    for (int i = 0; i < count; i++) {
+                        domainSlots.leased.addLast(start + i * intervalMs);
+                    }
+                }
+                return domainSlots.leased.pollFirst();
+            } finally {
+                domainSlots.waiting.decrementAndGet();
+            }
+        }
+    }
+
+    private long reserve(String domain, int count) {
+        try {
+            return coordinator.reserve(domain, count, intervalMs);
+        } catch (IOException e) {
+            // Losing coordination must not stop scraping; this replica keeps to the interval on its own
+            System.err.println("Rate coordinator unavailable for " + domain + ": " + e.getMessage());
+            return clock.getAsLong();
+        }
+    }
+
+    public int getBlockSize() { return blockSize; }
+
+    // Domains with slot state held right now
+    long trackedDomains() {
+        slots.cleanUp();
+        return slots.estimatedSize();
+    }
+
+    private static class Slots {
+        final Deque<Long> leased = new ArrayDeque<>();
+        final AtomicInteger waiting = new AtomicInteger();
+    }
+
+    /** Coordinator for replicas inside one JVM, e.g. several engines or tests. */
+    public static final class InProcessCoordinator implements Coordinator {
+        private static final int MAX_DOMAINS = 10_000;
+
+        private final Map<String, Long> nextFree = new HashMap<>();
+        private final LongSupplier clock;
+
+        public InProcessCoordinator() {
+            this(System::currentTimeMillis);
+        }
+
+        InProcessCoordinator(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public synchronized long reserve(String domain, int count, long intervalMs) {
+            long now = clock.getAsLong();
+            if (nextFree.size() > MAX_DOMAINS) {
+                nextFree.values().removeIf(free -> free < now);
+            }
+            long start = Math.max(now, nextFree.getOrDefault(domain, 0L));
+            nextFree.put(domain, start + count * intervalMs);
+            return start;
+        }
+    }
+
+    /**
+     * Coordinator for replicas on one machine (or sharing a volume that supports file locks).
+     * Domains are spread over a fixed set of small files, each a list of "domain TAB next free
+     * slot" lines updated under an exclusive file lock. Replicas need roughly synchronised clocks.
+     */
+    public static final class FileCoordinator implements Coordinator {
+        private static final int BUCKETS = 64;
+        // Entries whose next free slot is this far in the past carry no information any more
+        private static final long FORGET_AFTER_MS = 60_000;
+
+        // A JVM can hold a file lock only once, so its own threads (and coordinators) queue up here first
+        private static final Map<Path, Object> FILE_LOCKS = new ConcurrentHashMap<>();
+
+        private final Path dir;
+        private final LongSupplier clock;
+
+        public FileCoordinator(Path dir) {
+            this(dir, System::currentTimeMillis);
+        }
+
+        FileCoordinator(Path dir, LongSupplier clock) {
+            this.dir = dir;
+            this.clock = clock;
+        }
+
+        @Override
+        public long reserve(String domain, int count, long intervalMs) throws IOException {
+            int bucket = Math.floorMod(domain.hashCode(), BUCKETS);
+            Path file = dir.resolve("slots-" + bucket + ".tsv").toAbsolutePath().normalize();
+            synchronized (FILE_LOCKS.computeIfAbsent(file, f -> new Object())) {
+                Files.createDirectories(dir);
+                try (FileChannel channel = FileChannel.open(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    // Held until the channel closes, which releases it
+                    channel.lock();
+                    Map<String, Long> nextFree = read(channel);
+                    long now = clock.getAsLong();
+                    nextFree.values().removeIf(free -> free < now - FORGET_AFTER_MS);
+
+                    long start = Math.max(now, nextFree.getOrDefault(domain, 0L));
+                    nextFree.put(domain, start + count * intervalMs);
+                    write(channel, nextFree);
+                    return start;
+                }
+            }
+        }
+
+        private static Map<String, Long> read(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) { }
+            Map<String, Long> nextFree = new LinkedHashMap<>();
+            for (String line : new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).split("\n")) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) continue;
+                try {
+                    nextFree.put(line.substring(0, tab), Long.parseLong(line.substring(tab + 1).trim()));
+                } catch (NumberFormatException e) {
+                    // Skip a damaged line; worst case that domain gets one early slot
+                }
+            }
+            return nextFree;
+        }
+
+        private static void write(FileChannel channel, Map<String, Long> nextFree) throws IOException {
+            StringBuilder out = new StringBuilder();
+            nextFree.forEach((domain, free) -> out.append(domain).append('\t').append(free).append('\n'));
+            ByteBuffer bytes = ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8));
+            channel.truncate(0);
+            while (bytes.hasRemaining()) channel.write(bytes, bytes.position());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.companyScraper.util;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * One Java Flight Recorder recording at a time on the running instance, written to a file in
+ * {@code dir} when it stops. The "profile" settings add lock contention, sleeps, socket I/O and
+ * allocation samples to the scraper's own events; "default" is lighter. A recording stops by
+ * itself after its maximum duration, so a forgotten one can't run (and grow) forever.
+ */
+public class FlightRecordings {
+
+    public static final Duration DEFAULT_MAX_DURATION = Duration.ofMinutes(10);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path dir;
+    private Recording recording;
+    private Path file;
+    private String settings;
+
+    public FlightRecordings(Path dir) {
+        this.dir = dir;
+    }
+
+    /** Start recording; fails if one is already running. */
+    public synchronized Map<String, Object> start(String settingsName, Duration maxDuration)
+            throws IOException, ParseException {
+        if (isRunning()) {
+            throw new IllegalStateException("A recording is already running, writing to " + file.getFileName());
+        }
+        if (recording != null) {
+            // The previous one reached its maximum duration and is already on disk
+            recording.close();
+            recording = null;
+        }
+        String name = settingsName != null && !settingsName.isBlank() ? settingsName : "profile";
+        Configuration configuration = Configuration.getConfiguration(name);
+        Files.createDirectories(dir);
+
+        Recording next = new Recording(configuration);
+        next.setName("scrape-" + LocalDateTime.now().format(FILE_TIME));
+        for (Class<? extends Event> event : List.of(ScrapeEvents.Scrape.class, ScrapeEvents.RateLimitWait.class,
+                ScrapeEvents.ProxyLease.class, ScrapeEvents.Extractor.class, ScrapeEvents.AiCall.class)) {
+            next.enable(event);
+        }
+        next.setToDisk(true);
+        next.setDuration(maxDuration != null && !maxDuration.isNegative() && !maxDuration.isZero()
+            ? maxDuration : DEFAULT_MAX_DURATION);
+        Path destination = dir.resolve(next.getName() + ".jfr");
+        next.setDestination(destination);
+        next.start();
+
+        recording = next;
+        file = destination;
+        settings = name;
+        System.out.println("Flight recording started (" + name + "), writing to " + destination);
+        return status();
+    }
+
+    /** Stop the running recording and return its file; null if nothing was recorded. */
+    public synchronized Path stop() {
+        if (recording == null) return null;
+        if (recording.getState() == RecordingState.RUNNING) {
+            // Writes the destination file
+            recording.stop();
+        }
+        recording.close();
+        recording = null;
+        System.out.println("Flight recording written to " + file);
+        return file;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", isRunning());
+        if (recording != null) {
+            status.put("file", file.getFileName().toString());
+            status.put("settings", settings);
+            status.put("startedAt", recording.getStartTime());
+            status.put("maxDuration", recording.getDuration());
+        }
+        status.put("recordings", list());
+        return status;
+    }
+
+    /** A finished recording in the recordings directory by file name, or null. */
+    public Path find(String name) {
+        if (name == null || !name.endsWith(".jfr") || name.contains("/") || name.contains("\\")) return null;
+        Path found = dir.resolve(name);
+        synchronized (this) {
+            if (isRunning() && found.equals(file)) return null;
+        }
+        return Files.isRegularFile(found) ? found : null;
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private List<String> list() {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(f -> f.getFileName().toString()).filter(f -> f.endsWith(".jfr")).sorted().toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,704 @@
+package com.example.companyScraper.util;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.ProtocolException;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultRedirectStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.brotli.dec.BrotliInputStream;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Pooled, keep-alive HTTP client shared by every fetch path (pages, sitemaps, documents,
+ * path probes). Connections are reused per route, so a burst of requests to one site costs a
+ * single TCP/TLS handshake instead of one per request.
+ * <p>
+ * Content decoding is done here rather than by the client so gzip, deflate and Brotli are all
+ * decoded as a stream, and so a reader that stops early can drop the connection instead of
+ * downloading the rest of the body.
+ */
+public class HttpFetcher implements Closeable {
+
+    private static final int PROBE_TIMEOUT_MS = 5000;
+    private static final int PROBE_RANGE_BYTES = 1024;
+    private static final int FETCH_TIMEOUT_MS = 15000;
+    private static final int MAX_REDIRECTS = 10;
+    private static final String ACCEPT_ENCODING = "gzip, deflate, br";
+
+    // Aborts requests still running at their deadline; socket timeouts alone don't stop a slow drip
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "fetch-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Undecoded bytes worth reading to keep a connection reusable rather than dropping it
+    private static final long DRAIN_LIMIT_BYTES = 16 * 1024;
+    private static final byte[] BODY_END = "</body".getBytes(StandardCharsets.US_ASCII);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final CachingDnsResolver dnsResolver;
+    private final RedirectCache redirectCache = new RedirectCache(20_000);
+    private final TransferStats transferStats = new TransferStats();
+
+    public HttpFetcher(int maxConnectionsPerRoute) {
+        this(maxConnectionsPerRoute, new CachingDnsResolver());
+    }
+
+    public HttpFetcher(int maxConnectionsPerRoute, CachingDnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", new TimedSocketFactory(PlainConnectionSocketFactory.getSocketFactory()))
+            .register("https", new TimedLayeredSocketFactory(SSLConnectionSocketFactory.getSocketFactory()))
+            .build();
+        this.connectionManager = new PoolingHttpClientConnectionManager(
+            socketFactories, null, null, dnsResolver, 30, TimeUnit.SECONDS);
+        this.connectionManager.setMaxTotal(200);
+        this.connectionManager.setDefaultMaxPerRoute(Math.max(1, maxConnectionsPerRoute));
+
+        this.client = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .disableContentCompression()
+            .setRedirectStrategy(new RecordingRedirectStrategy())
+            .evictIdleConnections(30, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * HEAD the URL, falling back to a tiny ranged GET for servers that reject HEAD.
+     * Never downloads more than {@value #PROBE_RANGE_BYTES} bytes of body.
+     */
+    public ProbeResponse probe(String url, Scraper.ProxyInfo proxy, String userAgent) throws IOException {
+        url = redirectCache.resolve(url);
+        ProbeResponse head = execute(new HttpHead(url), proxy, userAgent);
+        if (head.statusCode != 405 && head.statusCode != 501) {
+            return head;
+        }
+
+        HttpGet get = new HttpGet(url);
+        get.setHeader("Range", "bytes=0-" + (PROBE_RANGE_BYTES - 1));
+        return execute(get, proxy, userAgent);
+    }
+
+    private ProbeResponse execute(HttpRequestBase request, Scraper.ProxyInfo proxy, String userAgent) throws IOException {
+        request.setHeader("User-Agent", userAgent);
+        request.setHeader("Accept", "text/html,application/xhtml+xml");
+
+        RequestConfig.Builder config = RequestConfig.custom()
+            .setConnectTimeout(PROBE_TIMEOUT_MS)
+            .setConnectionRequestTimeout(PROBE_TIMEOUT_MS)
+            .setSocketTimeout(PROBE_TIMEOUT_MS);
+        HttpClientContext context = newContext();
+        applyProxy(config, context, proxy);
+        request.setConfig(config.build());
+
+        try (CloseableHttpResponse response = client.execute(request, context)) {
+            int status = response.getStatusLine().getStatusCode();
+            Header contentType = response.getFirstHeader("Content-Type");
+            long bytesRead = 0;
+
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                try (InputStream in = entity.getContent()) {
+                    byte[] buffer = new byte[PROBE_RANGE_BYTES];
+                    int n;
+                    while (bytesRead < PROBE_RANGE_BYTES && (n = in.read(buffer)) != -1) {
+                        bytesRead += n;
+                    }
+                }
+            }
+
+            return new ProbeResponse(finalUrl(request, context), status,
+                contentType != null ? contentType.getValue() : null, bytesRead);
+        }
+    }
+
+    /**
+     * GET a page and read its decoded body until {@code </body>} or {@code maxBodyBytes},
+     * whichever comes first. Non-200 and non-markup responses come back without a body; for
+     * non-markup the connection is dropped as soon as the headers are in. Wire bytes read and
+     * bytes left undownloaded are recorded per domain.
+     */
+    public PageResponse fetchPage(String url, Scraper.ProxyInfo proxy, String userAgent,
+                                  Map<String, String> headers, long maxBodyBytes) throws IOException {
+        return fetchPage(url, proxy, userAgent, headers, maxBodyBytes, 0);
+    }
+
+    /** As above, but connecting and reading stop at {@code deadlineAt} (epoch millis, 0 for none). */
+    public PageResponse fetchPage(String url, Scraper.ProxyInfo proxy, String userAgent,
+                                  Map<String, String> headers, long maxBodyBytes, long deadlineAt) throws IOException {
+        return fetchPage(url, proxy, userAgent, headers, maxBodyBytes, deadlineAt, false);
+    }
+
+    /**
+     * As above; with {@code openDocuments}, a PDF/Word response comes back with its body unread
+     * in {@link PageResponse#document}, for the caller to read and close, instead of being dropped.
+     */
+    public PageResponse fetchPage(String url, Scraper.ProxyInfo proxy, String userAgent, Map<String, String> headers,
+                                  long maxBodyBytes, long deadlineAt, boolean openDocuments) throws IOException {
+        StreamResponse stream = openStream(url, proxy, userAgent, headers, deadlineAt);
+        try {
+            if (stream.statusCode != 200) {
+                return new PageResponse(stream.finalUrl, stream.statusCode, stream.contentType, null,
+                    new byte[0], stream.wireBytes(), false, 0);
+            }
+            if (!isMarkup(stream.contentType)) {
+                if (openDocuments && DocumentExtractor.isDocumentContentType(stream.contentType)) {
+                    PageResponse document = new PageResponse(stream.finalUrl, stream.statusCode, stream.contentType,
+                        null, new byte[0], 0, false, 0, stream);
+                    stream = null;
+                    return document;
+                }
+                // Decided from the headers alone: drop the connection before any of the body arrives
+                stream.abort();
+                long skipped = Math.max(0, stream.contentLength);
+                transferStats.recordSkipped(stream.finalUrl, skipped);
+                return new PageResponse(stream.finalUrl, stream.statusCode, stream.contentType, null,
+                    new byte[0], 0, false, skipped);
+            }
+
+            long downloadStart = System.nanoTime();
+            BodyRead read = readUntilBodyEnd(stream.body(), maxBodyBytes);
+            ScrapeMetrics.record(ScrapeMetrics.Stage.DOWNLOAD, System.nanoTime() - downloadStart);
+            long wireBytes = stream.wireBytes();
+            boolean stoppedEarly = !read.complete;
+            long saved = stoppedEarly && stream.contentLength > 0 ? Math.max(0, stream.contentLength - wireBytes) : 0;
+            transferStats.record(stream.finalUrl, wireBytes, saved, stoppedEarly);
+
+            return new PageResponse(stream.finalUrl, stream.statusCode, stream.contentType, stream.charset(),
+                read.bytes, wireBytes, stoppedEarly, 0);
+        } finally {
+            if (stream != null) stream.close();
+        }
+    }
+
+    /**
+     * GET the URL and hand back the decoded body as a stream. Closing the response releases the
+     * connection; if the body wasn't read (nearly) to the end the connection is dropped instead,
+     * so callers can stop reading at any point without paying for the rest of the download.
+     */
+    public StreamResponse openStream(String url, Scraper.ProxyInfo proxy, String userAgent,
+                                     Map<String, String> headers) throws IOException {
+        return openStream(url, proxy, userAgent, headers, 0);
+    }
+
+    /**
+     * As above, but the request is aborted at {@code deadlineAt} (epoch millis, 0 for none)
+     * wherever it is: waiting for a connection, connecting, or reading the body.
+     */
+    public StreamResponse openStream(String url, Scraper.ProxyInfo proxy, String userAgent,
+                                     Map<String, String> headers, long deadlineAt) throws IOException {
+        long remaining = deadlineAt > 0 ? deadlineAt - System.currentTimeMillis() : FETCH_TIMEOUT_MS;
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("Deadline passed before fetching " + url);
+        }
+        int timeout = (int) Math.min(FETCH_TIMEOUT_MS, remaining);
+        String target = redirectCache.resolve(url);
+        HttpGet get = new HttpGet(target);
+        get.setHeader("Accept-Encoding", ACCEPT_ENCODING);
+        if (headers != null) {
+            headers.forEach(get::setHeader);
+        }
+        get.setHeader("User-Agent", userAgent);
+
+        RequestConfig.Builder config = RequestConfig.custom()
+            .setConnectTimeout(timeout)
+            .setConnectionRequestTimeout(timeout)
+            .setSocketTimeout(timeout)
+            .setRedirectsEnabled(true)
+            .setMaxRedirects(MAX_REDIRECTS);
+        HttpClientContext context = newContext();
+        applyProxy(config, context, proxy);
+        get.setConfig(config.build());
+
+        ScheduledFuture<?> abort = deadlineAt > 0
+            ? DEADLINES.schedule(get::abort, remaining, TimeUnit.MILLISECONDS)
+            : null;
+        CloseableHttpResponse response;
+        ScrapeMetrics.requestStarted();
+        long start = System.nanoTime();
+        try {
+            response = client.execute(get, context);
+        } catch (IOException e) {
+            ScrapeMetrics.requestFinished();
+            ScrapeMetrics.recordResponse(url, 0, System.nanoTime() - start);
+            if (abort != null) abort.cancel(false);
+            // A remembered redirect target that stopped answering shouldn't keep failing the input
+            if (!target.equals(url)) redirectCache.invalidate(url);
+            throw e;
+        }
+        // Request sent to response headers in, including waiting for and opening the connection
+        long ttfb = System.nanoTime() - start;
+        ScrapeMetrics.record(ScrapeMetrics.Stage.TTFB, ttfb);
+        int status = response.getStatusLine().getStatusCode();
+        ScrapeMetrics.recordResponse(url, status, ttfb);
+        // Nor one that now answers with an error: the next fetch starts from the input URL again
+        if (status >= 400 && !target.equals(url)) redirectCache.invalidate(url);
+        StreamResponse stream;
+        try {
+            stream = new StreamResponse(response, finalUrl(get, context));
+        } catch (IOException | RuntimeException e) {
+            ScrapeMetrics.requestFinished();
+            throw e;
+        }
+        stream.deadline = abort;
+        return stream;
+    }
+
+    public TransferStats getTransferStats() {
+        return transferStats;
+    }
+
+    public CachingDnsResolver getDnsResolver() {
+        return dnsResolver;
+    }
+
+    public RedirectCache getRedirectCache() {
+        return redirectCache;
+    }
+
+    /**
+     * Copy the stream until the first {@code </body} (case-insensitive, in any ASCII-compatible
+     * charset) or {@code maxBytes}. The chunk holding the tag is kept whole so the closing markup
+     * usually comes along; everything after it is never read.
+     */
+    static BodyRead readUntilBodyEnd(InputStream in, long maxBytes) throws IOException {
+        long budget = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(budget, 64 * 1024));
+        byte[] buffer = new byte[8192];
+        int matched = 0;
+        long total = 0;
+
+        while (total < budget) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, budget - total));
+            if (n == -1) {
+                return new BodyRead(out.toByteArray(), true);
+            }
+            out.write(buffer, 0, n);
+            total += n;
+
+            for (int i = 0; i < n; i++) {
+                int c = Character.toLowerCase(buffer[i] & 0xff);
+                if (c == BODY_END[matched]) {
+                    if (++matched == BODY_END.length) {
+                        return new BodyRead(out.toByteArray(), false);
+                    }
+                } else {
+                    matched = c == '<' ? 1 : 0;
+                }
+            }
+        }
+        return new BodyRead(out.toByteArray(), false);
+    }
+
+    static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if (contentEncoding == null) return in;
+        switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(in, 8192);
+            case "deflate":
+                return inflate(in);
+            case "br":
+                return new BrotliInputStream(in);
+            default:
+                return in;
+        }
+    }
+
+    // "deflate" should be zlib-wrapped, but plenty of servers send raw deflate; sniff the header
+    private static InputStream inflate(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int cmf = buffered.read();
+        int flg = buffered.read();
+        buffered.reset();
+        boolean zlib = cmf != -1 && flg != -1 && (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        return new InflaterInputStream(buffered, new Inflater(!zlib), 8192);
+    }
+
+    private static boolean isMarkup(String contentType) {
+        // Same types Jsoup accepts for parsing; a missing Content-Type is given the benefit of the doubt
+        if (contentType == null) return true;
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.startsWith("application/xml") || type.contains("+xml");
+    }
+
+    /** Times TCP connects for the metrics; TLS handshakes are timed with them on https. */
+    private static class TimedSocketFactory implements ConnectionSocketFactory {
+        private final ConnectionSocketFactory delegate;
+
+        TimedSocketFactory(ConnectionSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return delegate.createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                ScrapeMetrics.record(ScrapeMetrics.Stage.CONNECT, System.nanoTime() - start);
+            }
+        }
+    }
+
+    // Must stay layered: https through a proxy upgrades the tunnel with createLayeredSocket
+    private static class TimedLayeredSocketFactory extends TimedSocketFactory implements LayeredConnectionSocketFactory {
+        private final LayeredConnectionSocketFactory delegate;
+
+        TimedLayeredSocketFactory(LayeredConnectionSocketFactory delegate) {
+            super(delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+            return delegate.createLayeredSocket(socket, target, port, context);
+        }
+    }
+
+    /** Follows redirects as usual, remembering the permanent ones for the next fetch. */
+    private class RecordingRedirectStrategy extends DefaultRedirectStrategy {
+        @Override
+        public HttpUriRequest getRedirect(HttpRequest request, HttpResponse response, HttpContext context)
+                throws ProtocolException {
+            HttpUriRequest redirect = super.getRedirect(request, response, context);
+            int status = response.getStatusLine().getStatusCode();
+            if (status == HttpStatus.SC_MOVED_PERMANENTLY || status == SC_PERMANENT_REDIRECT) {
+                String from = requestUrl(request, context);
+                if (from != null) {
+                    redirectCache.recordPermanent(from, redirect.getURI().toString());
+                }
+            }
+            return redirect;
+        }
+
+        // The executing request is a wrapper with a route-relative URI; the original holds the absolute one
+        private String requestUrl(HttpRequest request, HttpContext context) {
+            HttpRequest original = request instanceof HttpRequestWrapper ? ((HttpRequestWrapper) request).getOriginal() : request;
+            if (original instanceof HttpUriRequest && ((HttpUriRequest) original).getURI().isAbsolute()) {
+                return ((HttpUriRequest) original).getURI().toString();
+            }
+            HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+            return target != null ? target.toURI() + request.getRequestLine().getUri() : null;
+        }
+    }
+
+    private static HttpClientContext newContext() {
+        // Per-request cookie jar: keeps cookie-then-redirect handshakes working without sharing state
+        HttpClientContext context = HttpClientContext.create();
+        context.setCookieStore(new BasicCookieStore());
+        return context;
+    }
+
+    static void applyProxy(RequestConfig.Builder config, HttpClientContext context, Scraper.ProxyInfo proxy) {
+        if (proxy == null) return;
+
+        config.setProxy(new HttpHost(proxy.host, proxy.port));
+        if (proxy.user != null && proxy.pass != null) {
+            BasicCredentialsProvider credentials = new BasicCredentialsProvider();
+            credentials.setCredentials(new AuthScope(proxy.host, proxy.port),
+                new UsernamePasswordCredentials(proxy.user, proxy.pass));
+            context.setCredentialsProvider(credentials);
+        }
+    }
+
+    private static String finalUrl(HttpRequestBase request, HttpClientContext context) {
+        List<URI> redirects = context.getRedirectLocations();
+        if (redirects != null && !redirects.isEmpty()) {
+            return redirects.get(redirects.size() - 1).toString();
+        }
+        return request.getURI().toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+        connectionManager.close();
+    }
+
+    /**
+     * An open GET response. {@link #body()} is the decoded stream; closing it is a no-op,
+     * the connection is released (or dropped) when this response is closed.
+     */
+    public static class StreamResponse implements Closeable {
+        public final String finalUrl;
+        public final int statusCode;
+        public final String contentType;
+        public final long contentLength;
+
+        private final CloseableHttpResponse response;
+        private final TrackedStream wire;
+        private final String contentEncoding;
+        private TrackedStream decoded;
+        // Pending abort at the request deadline, called off once the response is closed
+        private ScheduledFuture<?> deadline;
+        // Released along with the response, e.g. the proxy slot it went through
+        private AutoCloseable releaseOnClose;
+        private boolean closed;
+
+        StreamResponse(CloseableHttpResponse response, String finalUrl) throws IOException {
+            this.response = response;
+            this.finalUrl = finalUrl;
+            this.statusCode = response.getStatusLine().getStatusCode();
+            Header type = response.getFirstHeader("Content-Type");
+            Header encoding = response.getFirstHeader("Content-Encoding");
+            this.contentType = type != null ? type.getValue() : null;
+            this.contentEncoding = encoding != null ? encoding.getValue() : null;
+
+            HttpEntity entity = response.getEntity();
+            this.contentLength = entity != null ? entity.getContentLength() : 0;
+            try {
+                InputStream content = entity != null ? entity.getContent() : null;
+                this.wire = new TrackedStream(content != null ? content : InputStream.nullInputStream());
+            } catch (IOException | RuntimeException e) {
+                response.close();
+                throw e;
+            }
+        }
+
+        public InputStream body() throws IOException {
+            if (decoded == null) {
+                // An empty body can't be fed to a decoder that expects a header
+                decoded = new TrackedStream(contentLength == 0 ? wire : decode(wire, contentEncoding));
+            }
+            return decoded;
+        }
+
+        public String charset() {
+            try {
+                HttpEntity entity = response.getEntity();
+                Charset charset = entity != null ? ContentType.get(entity).getCharset() : null;
+                return charset != null ? charset.name() : null;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        public long wireBytes() {
+            return wire.count;
+        }
+
+        /** Close {@code resource} once this response is closed. */
+        public void releaseOnClose(AutoCloseable resource) {
+            this.releaseOnClose = resource;
+        }
+
+        // Safe from another thread: drops the connection so a blocked reader fails fast
+        public void abort() {
+            try {
+                response.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                long remaining = contentLength >= 0 ? contentLength - wire.count : -1;
+                boolean decodedToEnd = decoded != null && decoded.eof;
+                if (!wire.eof && (decodedToEnd || (remaining >= 0 && remaining <= DRAIN_LIMIT_BYTES))) {
+                    wire.drain(DRAIN_LIMIT_BYTES);
+                }
+                if (wire.eof) {
+                    wire.release();
+                }
+            } catch (IOException ignored) {
+                // Fall through: closing the response below drops the connection
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    ScrapeMetrics.requestFinished();
+                }
+                if (deadline != null) deadline.cancel(false);
+                try {
+                    // No-op once the body was read to the end; otherwise shuts the connection down
+                    response.close();
+                } finally {
+                    if (releaseOnClose != null) {
+                        AutoCloseable resource = releaseOnClose;
+                        releaseOnClose = null;
+                        try {
+                            resource.close();
+                        } catch (Exception ignored) {
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Counts bytes and remembers end-of-stream; close() is deferred to the owning response. */
+    private static final class TrackedStream extends FilterInputStream {
+        long count;
+        boolean eof;
+
+        TrackedStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) eof = true; else count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) eof = true; else count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void drain(long limit) throws IOException {
+            byte[] buffer = new byte[4096];
+            long drained = 0;
+            int n;
+            while (drained <= limit && (n = read(buffer, 0, buffer.length)) != -1) {
+                drained += n;
+            }
+        }
+
+        void release() throws IOException {
+            super.close();
+        }
+    }
+
+    static class BodyRead {
+        final byte[] bytes;
+        final boolean complete;
+
+        BodyRead(byte[] bytes, boolean complete) {
+            this.bytes = bytes;
+            this.complete = complete;
+        }
+    }
+
+    public static class PageResponse {
+        public final String finalUrl;
+        public final int statusCode;
+        public final String contentType;
+        public final String charset;
+        public final byte[] body;
+        public final long wireBytes;
+        // True when reading stopped at </body> or the byte budget rather than end of stream
+        public final boolean stoppedEarly;
+        // Content-Length of a non-markup body that was never downloaded (0 when the length wasn't sent)
+        public final long bytesSkipped;
+        // Open response of a document fetched with openDocuments; whoever reads it closes it
+        public final StreamResponse document;
+
+        public PageResponse(String finalUrl, int statusCode, String contentType, String charset,
+                            byte[] body, long wireBytes, boolean stoppedEarly, long bytesSkipped) {
+            this(finalUrl, statusCode, contentType, charset, body, wireBytes, stoppedEarly, bytesSkipped, null);
+        }
+
+        public PageResponse(String finalUrl, int statusCode, String contentType, String charset, byte[] body,
+                            long wireBytes, boolean stoppedEarly, long bytesSkipped, StreamResponse document) {
+            this.finalUrl = finalUrl;
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.charset = charset;
+            this.body = body;
+            this.wireBytes = wireBytes;
+            this.stoppedEarly = stoppedEarly;
+            this.bytesSkipped = bytesSkipped;
+            this.document = document;
+        }
+
+        public boolean isMarkup() {
+            return HttpFetcher.isMarkup(contentType);
+        }
+
+        // Charset from the header when present, otherwise Jsoup sniffs BOM and <meta charset>
+        public Document parse() throws IOException {
+            return Jsoup.parse(new ByteArrayInputStream(body), charset, finalUrl);
+        }
+    }
+
+    public static class ProbeResponse {
+        public final String finalUrl;
+        public final int statusCode;
+        public final String contentType;
+        public final long bytesRead;
+
+        public ProbeResponse(String finalUrl, int statusCode, String contentType, long bytesRead) {
+            this.finalUrl = finalUrl;
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.bytesRead = bytesRead;
+        }
+
+        // 206 is what a ranged GET returns for a page that exists
+        public boolean isHtmlPage() {
+            boolean ok = statusCode == 200 || statusCode == 206;
+            String type = contentType != null ? contentType.toLowerCase() : "";
+            return ok && (type.startsWith("text/html") || type.startsWith("application/xhtml"));
+        }
+    }
+}
@@ -6,9 +6,13 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Component
@@ -19,9 +23,8 @@ public class InputReader {
         if (filename.endsWith(".csv") || filename.endsWith(".txt")) {
             try (BufferedReader br = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
                 return br.lines()
-                        .map(String::trim)
-                        .filter(line -> !line.isEmpty())
-                        .map(line -> line.startsWith("http") ? line : "https://" + line)
+                        .map(InputReader::normalize)
+                        .filter(Objects::nonNull)
                         .collect(Collectors.toList());
             }
         } else if (filename.endsWith(".xlsx")) {
@@ -45,4 +48,93 @@ public class InputReader {
             throw new IllegalArgumentException("Unsupported file format. Only CSV, TXT, XLSX supported.");
         }
     }
+
+    /**
+     * Save the upload to disk and count its URLs without keeping them in memory, for streamed
+     * jobs. An XLSX workbook has to be parsed whole anyway, so its URLs are written out as lines.
+     */
+    public UrlSource saveUrls(MultipartFile file) throws Exception {
+        String filename = file.getOriginalFilename().toLowerCase();
+        Path saved = Files.createTempFile("urls_", ".txt");
+        try {
+            if (filename.endsWith(".csv") || filename.endsWith(".txt")) {
+                file.transferTo(saved);
+            } else if (filename.endsWith(".xlsx")) {
+                Files.write(saved, readUrls(file), StandardCharsets.UTF_8);
+            } else {
+                throw new IllegalArgumentException("Unsupported file format. Only CSV, TXT, XLSX supported.");
+            }
+
+            int count = 0;
+            try (BufferedReader br = open(saved)) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (normalize(line) != null) count++;
+                }
+            }
+            return new UrlSource(saved, count);
+        } catch (Exception e) {
+            Files.deleteIfExists(saved);
+            throw e;
+        }
+    }
+
+    private static String normalize(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) return null;
+        return trimmed.startsWith("http") ? trimmed : "https://" + trimmed;
+    }
+
+    // Malformed bytes are replaced rather than failing the whole upload, as in readUrls
+    private static BufferedReader open(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /** URLs of a saved upload, read once and in order. Closing deletes the file. */
+    public static class UrlSource implements Iterator<String>, Closeable {
+        private final Path file;
+        private final int size;
+        private BufferedReader reader;
+        private String next;
+        private boolean closed;
+
+        UrlSource(Path file, int size) {
+            this.file = file;
+            this.size = size;
+        }
+
+        public int size() { return size; }
+
+        @Override
+        public synchronized boolean hasNext() {
+            if (next != null) return true;
+            if (closed) return false;
+            try {
+                if (reader == null) reader = open(file);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    next = normalize(line);
+                    if (next != null) return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String url = next;
+            next = null;
+            return url;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closed = true;
+            if (reader != null) reader.close();
+            Files.deleteIfExists(file);
+        }
+    }
 }
@@ -0,0 +1,199 @@
+package com.example.companyScraper.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps running jobs on local disk so a restart doesn't throw away finished work. Each job has a
+ * header ({@code <id>.job.json}: name, weight, options and the input URLs, written atomically)
+ * and a results file ({@code <id>.results.jsonl}) that gets one JSON line per finished URL as it
+ * completes. A crash can at worst leave a torn last line, which is ignored on replay. Both files
+ * are deleted once the job completes or is cancelled; whatever is left at startup is a job that
+ * was interrupted and can be resumed with {@link #pending()}.
+ */
+public class JobJournal<O, R> {
+
+    private static final String HEADER_SUFFIX = ".job.json";
+    private static final String RESULTS_SUFFIX = ".results.jsonl";
+
+    private final Path dir;
+    private final Class<O> optionsType;
+    private final Class<R> resultType;
+    private final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public JobJournal(Path dir, Class<O> optionsType, Class<R> resultType) {
+        this.dir = dir;
+        this.optionsType = optionsType;
+        this.resultType = resultType;
+    }
+
+    /** Write the header of a new job and open its results file. */
+    public Writer start(String id, String name, int weight, O options, List<String> urls) throws IOException {
+        Files.createDirectories(dir);
+        ObjectNode header = mapper.createObjectNode();
+        header.put("id", id);
+        header.put("name", name);
+        header.put("weight", weight);
+        header.set("options", mapper.valueToTree(options));
+        header.set("urls", mapper.valueToTree(urls));
+
+        Path file = dir.resolve(id + HEADER_SUFFIX);
+        Path tmp = dir.resolve(id + HEADER_SUFFIX + ".tmp");
+        Files.write(tmp, mapper.writeValueAsBytes(header));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Writer(id);
+    }
+
+    /** Open the results file of an interrupted job to carry on appending to it. */
+    public Writer resume(Pending<O, R> job) throws IOException {
+        return new Writer(job.id);
+    }
+
+    /** Jobs left behind by a previous run, oldest first. Unreadable headers are skipped. */
+    public List<Pending<O, R>> pending() {
+        List<Pending<O, R>> jobs = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return jobs;
+
+        try (DirectoryStream<Path> headers = Files.newDirectoryStream(dir, "*" + HEADER_SUFFIX)) {
+            for (Path header : headers) {
+                try {
+                    jobs.add(read(header));
+                } catch (Exception e) {
+                    System.err.println("Skipping unreadable job journal " + header + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list job journals in " + dir + ": " + e.getMessage());
+        }
+        jobs.sort((a, b) -> Long.compare(a.startedAt, b.startedAt));
+        return jobs;
+    }
+
+    /** Forget a job that completed or was cancelled. */
+    public void finish(String id) {
+        try {
+            Files.deleteIfExists(dir.resolve(id + RESULTS_SUFFIX));
+            Files.deleteIfExists(dir.resolve(id + HEADER_SUFFIX));
+        } catch (IOException e) {
+            System.err.println("Failed to remove job journal " + id + ": " + e.getMessage());
+        }
+    }
+
+    private Pending<O, R> read(Path headerFile) throws IOException {
+        JsonNode header = mapper.readTree(headerFile.toFile());
+        String id = header.get("id").asText();
+        List<String> urls = new ArrayList<>();
+        header.get("urls").forEach(url -> urls.add(url.asText()));
+
+        Map<Integer, R> completed = new HashMap<>();
+        Path results = dir.resolve(id + RESULTS_SUFFIX);
+        if (Files.exists(results)) {
+            for (String line : Files.readAllLines(results, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) continue;
+                try {
+                    JsonNode node = mapper.readTree(line);
+                    int index = node.get("index").asInt();
+                    if (index >= 0 && index < urls.size()) {
+                        completed.put(index, mapper.treeToValue(node.get("result"), resultType));
+                    }
+                } catch (Exception e) {
+                    // Torn write from a crash; that URL simply runs again
+                }
+            }
+        }
+        return new Pending<>(id, header.get("name").asText(), header.get("weight").asInt(1),
+            mapper.treeToValue(header.get("options"), optionsType), urls, completed,
+            Files.getLastModifiedTime(headerFile).toMillis());
+    }
+
+    /** Appends finished results of one job; safe to share between worker threads. */
+    public final class Writer implements Closeable {
+        private final String id;
+        private final FileChannel channel;
+
+        private Writer(String id) throws IOException {
+            this.id = id;
+            Path file = dir.resolve(id + RESULTS_SUFFIX);
+            boolean torn = endsMidLine(file);
+            this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // A torn last line must not swallow the first line written after resuming
+            if (torn) channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+
+        private static boolean endsMidLine(Path file) throws IOException {
+            if (!Files.exists(file)) return false;
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (in.size() == 0) return false;
+                ByteBuffer last = ByteBuffer.allocate(1);
+                in.read(last, in.size() - 1);
+                return last.get(0) != '\n';
+            }
+        }
+
+        public String getId() { return id; }
+
+        public synchronized void record(int index, R result) {
+            if (result == null || !channel.isOpen()) return;
+            try {
+                ObjectNode line = mapper.createObjectNode();
+                line.put("index", index);
+                line.set("result", mapper.valueToTree(result));
+                // One write per line, so a crash can only tear the last one
+                ByteBuffer bytes = ByteBuffer.wrap((mapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) channel.write(bytes);
+            } catch (IOException e) {
+                System.err.println("Failed to journal result " + index + " of " + id + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close job journal " + id + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** An interrupted job as found on disk, with the results it had already finished by index. */
+    public static final class Pending<O, R> {
+        public final String id;
+        public final String name;
+        public final int weight;
+        public final O options;
+        public final List<String> urls;
+        public final Map<Integer, R> completed;
+        final long startedAt;
+
+        Pending(String id, String name, int weight, O options, List<String> urls, Map<Integer, R> completed,
+                long startedAt) {
+            this.id = id;
+            this.name = name;
+            this.weight = weight;
+            this.options = options;
+            this.urls = List.copyOf(urls);
+            this.completed = completed;
+            this.startedAt = startedAt;
+        }
+    }
+}
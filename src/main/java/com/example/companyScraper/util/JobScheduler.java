@@ -0,0 +1,642 @@
+package com.example.companyScraper.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runs several jobs at once over one fixed set of worker threads with start-time fair queuing.
+ * Each job has a virtual clock that advances by 1/weight for every task handed out, and a free
+ * worker always takes the next task of the job whose clock is furthest behind. A job submitted
+ * later starts at the current virtual time, so it neither waits behind the backlog of a big job
+ * nor gets to catch up on service it was never owed: a 10-URL job next to a 50k-URL one gets its
+ * weighted share of the workers straight away and finishes in seconds.
+ *
+ * <p>Tasks flagged as high priority go to a separate lane that is served first, across all
+ * jobs. To keep the normal lane moving, at most {@value #HIGH_LANE_BURST} high-lane tasks are
+ * handed out in a row while normal tasks are waiting.
+ *
+ * <p>Tasks can also be marked external: they are never dispatched here, and their results are
+ * handed in with {@link Job#supply} when whoever runs them elsewhere reports back.
+ *
+ * <p>A streamed job ({@link #submitStreaming}) keeps neither its task list nor its results: tasks
+ * are pulled one at a time and results are pushed to a sink as they complete, so a job of a
+ * million URLs needs no more memory than one of a thousand.
+ *
+ * <p>The last {@value #MAX_FINISHED_JOBS} finished jobs stay listed. Their tasks are dropped when
+ * they finish; their results are kept only if they were submitted with {@code keepResults}, for
+ * jobs nobody is waiting on yet. Other jobs hand their results to whoever awaits them and keep
+ * just their counts.
+ */
+public class JobScheduler implements Closeable {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, CANCELLED }
+
+    /**
+     * Receives the results of a streamed job in task order; null for a task that threw. Closed by
+     * the scheduler before the job is reported finished, so its output is complete by then.
+     */
+    public interface ResultSink<T> {
+        void accept(int index, T result) throws IOException;
+
+        default void close() throws IOException { }
+    }
+
+    // Finished jobs kept around so their status (and results, if kept) can still be fetched
+    private static final int MAX_FINISHED_JOBS = 100;
+    // Normal lane gets at least one task in every HIGH_LANE_BURST + 1 while both lanes have work
+    static final int HIGH_LANE_BURST = 4;
+
+    private final Object lock = new Object();
+    // Guarded by lock: jobs that still have tasks to hand out, and every job known by id
+    private final List<Job<?>> dispatchable = new ArrayList<>();
+    private final Map<String, Job<?>> jobs = new LinkedHashMap<>();
+    private final Deque<String> finished = new ArrayDeque<>();
+    private double virtualTime;
+    private int highStreak;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean closed;
+
+    public JobScheduler(int workerCount, String threadName) {
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::workLoop, threadName + "-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queue a job. Its tasks run in submission order relative to each other, interleaved with
+     * other jobs by weight (a weight-2 job gets twice the share of a weight-1 job).
+     */
+    public <T> Job<T> submit(String name, int weight, List<Callable<T>> tasks) {
+        return submit(name, weight, tasks, new BitSet());
+    }
+
+    /** @param highPriority indexes of the tasks that go to the high-priority lane */
+    public <T> Job<T> submit(String name, int weight, List<Callable<T>> tasks, BitSet highPriority) {
+        return submit(newJobId(), name, weight, tasks, highPriority);
+    }
+
+    /** Submit under an id from {@link #newJobId()}, or one carried over from a previous run. */
+    public <T> Job<T> submit(String id, String name, int weight, List<Callable<T>> tasks, BitSet highPriority) {
+        return submit(id, name, weight, tasks, highPriority, new BitSet());
+    }
+
+    /** @param external indexes of tasks run elsewhere; their slots in {@code tasks} are never called */
+    public <T> Job<T> submit(String id, String name, int weight, List<Callable<T>> tasks, BitSet highPriority,
+                             BitSet external) {
+        return submit(id, name, weight, tasks, highPriority, external, true);
+    }
+
+    /**
+     * @param keepResults whether the results stay with the job once it finished, for fetching it
+     *                    by id later; if not, only callers already holding the job get them
+     */
+    public <T> Job<T> submit(String id, String name, int weight, List<Callable<T>> tasks, BitSet highPriority,
+                             BitSet external, boolean keepResults) {
+        return submit(id, name, weight, tasks, highPriority, external, keepResults, null);
+    }
+
+    /**
+     * @param order every task index once, in the order to hand them out within each lane; null
+     *              for input order. Results stay in input order either way.
+     */
+    public <T> Job<T> submit(String id, String name, int weight, List<Callable<T>> tasks, BitSet highPriority,
+                             BitSet external, boolean keepResults, int[] order) {
+        if (closed) throw new IllegalStateException("Scheduler is shut down");
+        if (order != null && !isPermutation(order, tasks.size())) {
+            throw new IllegalArgumentException("Order must list each of the " + tasks.size() + " tasks once");
+        }
+        return enqueue(new Job<>(this, id, name, Math.max(1, weight), tasks, highPriority, external, keepResults,
+            order));
+    }
+
+    private static boolean isPermutation(int[] order, int size) {
+        if (order.length != size) return false;
+        BitSet seen = new BitSet(size);
+        for (int index : order) {
+            if (index < 0 || index >= size || seen.get(index)) return false;
+            seen.set(index);
+        }
+        return true;
+    }
+
+    /**
+     * Queue a job whose {@code total} tasks are pulled from the iterator in order, with results
+     * handed to the sink in task order instead of being kept. No more than {@code window} tasks
+     * past the oldest unfinished one are handed out, which also bounds how many results wait to
+     * be written. The job completes with an empty list.
+     */
+    public <T> Job<T> submitStreaming(String id, String name, int weight, int total, Iterator<Callable<T>> tasks,
+                                      int window, ResultSink<T> sink) {
+        if (closed) throw new IllegalStateException("Scheduler is shut down");
+        return enqueue(new Job<>(this, id, name, Math.max(1, weight), total, tasks, Math.max(1, window), sink));
+    }
+
+    private <T> Job<T> enqueue(Job<T> job) {
+        synchronized (lock) {
+            if (jobs.containsKey(job.id)) throw new IllegalArgumentException("Duplicate job id " + job.id);
+            jobs.put(job.id, job);
+            if (job.total == 0) {
+                finish(job);
+            } else if (job.hasHigh() || job.hasNormal()) {
+                dispatchable.add(job);
+                lock.notifyAll();
+            }
+        }
+        return job;
+    }
+
+    /** A fresh id, for callers that need it before the job is submitted. Skips ids in use. */
+    public String newJobId() {
+        synchronized (lock) {
+            String id;
+            do {
+                id = "job-" + nextId.getAndIncrement();
+            } while (jobs.containsKey(id));
+            return id;
+        }
+    }
+
+    public Job<?> get(String id) {
+        synchronized (lock) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<Job<?>> jobs() {
+        synchronized (lock) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /** Stop handing out the job's tasks; ones already running finish. False if unknown or done. */
+    public boolean cancel(String id) {
+        Job<?> job = get(id);
+        return job != null && abort(job, new CancellationException(id + " cancelled"));
+    }
+
+    private boolean abort(Job<?> job, Throwable cause) {
+        synchronized (lock) {
+            if (job.state == State.COMPLETED || job.state == State.CANCELLED) return false;
+            dispatchable.remove(job);
+            job.state = State.CANCELLED;
+            job.finishedAt = System.currentTimeMillis();
+            job.release();
+            retain(job);
+        }
+        job.closeSink();
+        job.completion.completeExceptionally(cause);
+        return true;
+    }
+
+    public int activeJobCount() {
+        synchronized (lock) {
+            return (int) jobs.values().stream()
+                .filter(j -> j.state == State.QUEUED || j.state == State.RUNNING)
+                .count();
+        }
+    }
+
+    /** Tasks on the workers right now. */
+    public int runningTaskCount() {
+        return running.get();
+    }
+
+    /** Unfinished tasks of active jobs that aren't running here: queued, or out on other nodes. */
+    public int waitingTaskCount() {
+        synchronized (lock) {
+            int unfinished = jobs.values().stream()
+                .filter(j -> j.state == State.QUEUED || j.state == State.RUNNING)
+                .mapToInt(j -> j.total - j.completed.get() - j.failed.get())
+                .sum();
+            return Math.max(0, unfinished - running.get());
+        }
+    }
+
+    public boolean isShutdown() {
+        return closed;
+    }
+
+    public String summary() {
+        int active = activeJobCount();
+        return String.format("Jobs: %d active, %d tracked, %d workers", active, jobs().size(), workers.size());
+    }
+
+    private void workLoop() {
+        while (!closed) {
+            Dispatch<?> dispatch;
+            try {
+                dispatch = next();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (dispatch != null) {
+                running.incrementAndGet();
+                try {
+                    dispatch.run();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Pick the lane, then hand out the next task of the job with the smallest virtual start time
+    private Dispatch<?> next() throws InterruptedException {
+        synchronized (lock) {
+            while (dispatchable.isEmpty()) {
+                if (closed) return null;
+                lock.wait();
+            }
+
+            boolean highWaiting = false;
+            boolean normalWaiting = false;
+            for (Job<?> job : dispatchable) {
+                highWaiting |= job.hasHigh();
+                normalWaiting |= job.hasNormal();
+            }
+            boolean high = highWaiting && (!normalWaiting || highStreak < HIGH_LANE_BURST);
+            highStreak = high ? highStreak + 1 : 0;
+
+            Job<?> chosen = null;
+            double chosenStart = 0;
+            for (Job<?> job : dispatchable) {
+                if (high ? !job.hasHigh() : !job.hasNormal()) continue;
+                double start = Math.max(virtualTime, job.virtualFinish);
+                if (chosen == null || start < chosenStart) {
+                    chosen = job;
+                    chosenStart = start;
+                }
+            }
+
+            virtualTime = chosenStart;
+            chosen.virtualFinish = chosenStart + 1.0 / chosen.weight;
+            if (chosen.state == State.QUEUED) {
+                chosen.state = State.RUNNING;
+                chosen.startedAt = System.currentTimeMillis();
+            }
+            int index = high ? chosen.highTasks[chosen.nextHigh++] : chosen.takeNormal();
+            // Out of tasks, or a streamed job that reached the end of its window; taskDone puts it back
+            if (!chosen.hasHigh() && !chosen.hasNormal()) {
+                dispatchable.remove(chosen);
+            }
+            return dispatch(chosen, index);
+        }
+    }
+
+    private static <T> Dispatch<T> dispatch(Job<T> job, int index) {
+        return new Dispatch<>(job, index, job.task(index));
+    }
+
+    // An external task reported back; counts like a task run here
+    private <T> void supplied(Job<T> job, int index, T result) {
+        synchronized (lock) {
+            if (index < 0 || !job.pendingExternal.get(index)) return;
+            if (job.state == State.CANCELLED || job.state == State.COMPLETED) return;
+            job.pendingExternal.clear(index);
+            if (job.state == State.QUEUED) {
+                job.state = State.RUNNING;
+                job.startedAt = System.currentTimeMillis();
+            }
+        }
+        job.store(index, result);
+        if (result != null) {
+            job.completed.incrementAndGet();
+        } else {
+            job.failed.incrementAndGet();
+        }
+        taskDone(job);
+    }
+
+    // External tasks taken back, e.g. from a node that stopped responding; they join the normal lane
+    private void reclaim(Job<?> job, BitSet indexes) {
+        synchronized (lock) {
+            if (job.state == State.CANCELLED || job.state == State.COMPLETED) return;
+            indexes.stream().filter(job.pendingExternal::get).forEach(index -> {
+                job.pendingExternal.clear(index);
+                job.reclaimed.add(index);
+            });
+            if (job.hasNormal() && !dispatchable.contains(job)) {
+                dispatchable.add(job);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void taskDone(Job<?> job) {
+        synchronized (lock) {
+            if (job.state != State.RUNNING) return;
+            if (job.completed.get() + job.failed.get() == job.total) {
+                finish(job);
+            } else if ((job.hasHigh() || job.hasNormal()) && !dispatchable.contains(job)) {
+                // A streamed job's window moved on
+                dispatchable.add(job);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Called with lock held
+    private void finish(Job<?> job) {
+        job.state = State.COMPLETED;
+        job.finishedAt = System.currentTimeMillis();
+        retain(job.keepResults ? job : job.withoutResults());
+        job.closeSink();
+        job.complete();
+        job.release();
+    }
+
+    // Called with lock held; forget the oldest finished jobs past the limit
+    private void retain(Job<?> job) {
+        jobs.put(job.id, job);
+        finished.addLast(job.id);
+        while (finished.size() > MAX_FINISHED_JOBS) {
+            jobs.remove(finished.removeFirst());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    private static final class Dispatch<T> {
+        final Job<T> job;
+        final int index;
+        final Callable<T> task;
+
+        Dispatch(Job<T> job, int index, Callable<T> task) {
+            this.job = job;
+            this.index = index;
+            this.task = task;
+        }
+
+        void run() {
+            T result = null;
+            boolean ok = false;
+            try {
+                result = task.call();
+                ok = true;
+            } catch (Exception e) {
+                System.err.println("Task " + index + " of " + job.id + " failed: " + e.getMessage());
+            }
+            try {
+                job.deliver(index, result);
+            } catch (IOException e) {
+                System.err.println("Result sink of " + job.id + " failed, stopping the job: " + e.getMessage());
+                job.scheduler.abort(job, e);
+                return;
+            }
+            (ok ? job.completed : job.failed).incrementAndGet();
+            job.scheduler.taskDone(job);
+        }
+    }
+
+    /** One submitted job. Results are in task order; a task that threw leaves a null slot. */
+    public static final class Job<T> {
+        private final JobScheduler scheduler;
+        private final String id;
+        private final String name;
+        private final int weight;
+        private final int total;
+        // Task list and results of a regular job; null for a streamed one, and once the job is over
+        private volatile List<Callable<T>> tasks;
+        private volatile AtomicReferenceArray<T> results;
+        private final boolean keepResults;
+        // Streamed job: tasks pulled in order, results released to the sink in order
+        private final Iterator<Callable<T>> source;
+        private final ResultSink<T> sink;
+        private final int window;
+        private final Map<Integer, T> reorder = new HashMap<>();
+        private volatile int emitted;
+        private boolean sinkClosed;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final CompletableFuture<List<T>> completion = new CompletableFuture<>();
+        private final long submittedAt;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile State state = State.QUEUED;
+        private final int[] highTasks;
+        private final int[] normalTasks;
+        // Guarded by the scheduler lock
+        private final BitSet pendingExternal;
+        private final Deque<Integer> reclaimed = new ArrayDeque<>();
+        private int nextHigh;
+        private int nextNormal;
+        private int nextIndex;
+        private double virtualFinish;
+
+        private Job(JobScheduler scheduler, String id, String name, int weight, List<Callable<T>> tasks,
+                    BitSet highPriority, BitSet external, boolean keepResults, int[] order) {
+            this.scheduler = scheduler;
+            this.id = id;
+            this.name = name;
+            this.weight = weight;
+            this.submittedAt = System.currentTimeMillis();
+            this.keepResults = keepResults;
+            this.tasks = List.copyOf(tasks);
+            this.total = this.tasks.size();
+            this.results = new AtomicReferenceArray<>(this.tasks.size());
+            this.source = null;
+            this.sink = null;
+            this.window = 0;
+            this.pendingExternal = external.get(0, this.tasks.size());
+            BitSet high = highPriority.get(0, this.tasks.size());
+            high.andNot(pendingExternal);
+            BitSet normal = new BitSet();
+            normal.set(0, this.tasks.size());
+            normal.andNot(high);
+            normal.andNot(pendingExternal);
+            this.highTasks = order == null ? high.stream().toArray() : Arrays.stream(order).filter(high::get).toArray();
+            this.normalTasks = order == null ? normal.stream().toArray() : Arrays.stream(order).filter(normal::get).toArray();
+        }
+
+        private Job(JobScheduler scheduler, String id, String name, int weight, int total,
+                    Iterator<Callable<T>> source, int window, ResultSink<T> sink) {
+            this.scheduler = scheduler;
+            this.id = id;
+            this.name = name;
+            this.weight = weight;
+            this.submittedAt = System.currentTimeMillis();
+            this.keepResults = true;
+            this.total = total;
+            this.tasks = null;
+            this.results = null;
+            this.source = source;
+            this.sink = sink;
+            this.window = window;
+            this.pendingExternal = new BitSet();
+            this.highTasks = new int[0];
+            this.normalTasks = null;
+        }
+
+        // What stays listed of a finished job whose results went only to those awaiting it
+        private Job(Job<T> done) {
+            this.scheduler = done.scheduler;
+            this.id = done.id;
+            this.name = done.name;
+            this.weight = done.weight;
+            this.submittedAt = done.submittedAt;
+            this.keepResults = false;
+            this.total = done.total;
+            this.tasks = null;
+            this.results = null;
+            this.source = null;
+            this.sink = null;
+            this.window = 0;
+            this.pendingExternal = new BitSet();
+            this.highTasks = done.highTasks;
+            this.normalTasks = new int[0];
+            this.completed.set(done.completed.get());
+            this.failed.set(done.failed.get());
+            this.startedAt = done.startedAt;
+            this.finishedAt = done.finishedAt;
+            this.state = done.state;
+            this.completion.complete(List.of());
+        }
+
+        private Job<T> withoutResults() {
+            return new Job<>(this);
+        }
+
+        private boolean hasHigh() {
+            return nextHigh < highTasks.length;
+        }
+
+        private boolean hasNormal() {
+            if (source != null) return nextIndex < total && nextIndex < emitted + window;
+            return nextNormal < normalTasks.length || !reclaimed.isEmpty();
+        }
+
+        private int takeNormal() {
+            if (source != null) return nextIndex++;
+            return nextNormal < normalTasks.length ? normalTasks[nextNormal++] : reclaimed.poll();
+        }
+
+        // Called with the scheduler lock held; a streamed job asks in index order
+        private Callable<T> task(int index) {
+            if (source == null) return tasks.get(index);
+            try {
+                return source.hasNext() ? source.next() : () -> null;
+            } catch (RuntimeException e) {
+                return () -> { throw e; };
+            }
+        }
+
+        private void deliver(int index, T result) throws IOException {
+            if (sink == null) {
+                store(index, result);
+                return;
+            }
+            synchronized (reorder) {
+                // Late result of a cancelled job
+                if (sinkClosed) return;
+                reorder.put(index, result);
+                while (reorder.containsKey(emitted)) {
+                    sink.accept(emitted, reorder.remove(emitted));
+                    emitted++;
+                }
+            }
+        }
+
+        private void store(int index, T result) {
+            AtomicReferenceArray<T> slots = results;
+            // Gone once a cancelled job was released; a late result has nowhere to go
+            if (slots != null) slots.set(index, result);
+        }
+
+        // Called with the scheduler lock held once the job is over; completion has the results by then
+        private void release() {
+            tasks = null;
+            results = null;
+        }
+
+        private void closeSink() {
+            if (sink == null) return;
+            synchronized (reorder) {
+                if (sinkClosed) return;
+                sinkClosed = true;
+                reorder.clear();
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close result sink of " + id + ": " + e.getMessage());
+                }
+            }
+        }
+
+        private void complete() {
+            if (results == null) {
+                completion.complete(List.of());
+                return;
+            }
+            List<T> list = new ArrayList<>(results.length());
+            for (int i = 0; i < results.length(); i++) {
+                list.add(results.get(i));
+            }
+            completion.complete(list);
+        }
+
+        /** Completes with the results once every task ran; fails with CancellationException if cancelled. */
+        public CompletableFuture<List<T>> completion() {
+            return completion;
+        }
+
+        public List<T> await() {
+            return completion.join();
+        }
+
+        /** Hand in the result of an external task; null counts as failed. Repeats are ignored. */
+        public void supply(int index, T result) {
+            scheduler.supplied(this, index, result);
+        }
+
+        /**
+         * Run external tasks here after all. Indexes already handed in are skipped, and a result
+         * that still arrives for a reclaimed index is ignored.
+         */
+        public void runLocally(BitSet indexes) {
+            scheduler.reclaim(this, indexes);
+        }
+
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public int getWeight() { return weight; }
+        public int getTotal() { return total; }
+        public boolean isStreamed() { return sink != null; }
+        public boolean isResultsKept() { return keepResults; }
+        public int getHighPriority() { return highTasks.length; }
+        public int getCompleted() { return completed.get(); }
+        public int getFailed() { return failed.get(); }
+        public State getState() { return state; }
+        public long getSubmittedAt() { return submittedAt; }
+        public long getStartedAt() { return startedAt; }
+        public long getFinishedAt() { return finishedAt; }
+    }
+}
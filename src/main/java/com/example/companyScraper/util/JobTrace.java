@@ -0,0 +1,321 @@
+package com.example.companyScraper.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timeline of one job: how long each URL sat in the queue, then a span per URL on the worker
+ * that ran it, with the stages inside it (rate limit and proxy waits, fetches, parsing, each
+ * extractor, AI calls, retry backoff). Exported in the Chrome trace-event format, so it opens in
+ * chrome://tracing or ui.perfetto.dev with one row per worker thread: head-of-line blocking,
+ * retry storms and AI stalls show up as long bars.
+ * <p>
+ * Stages find the trace through the thread they run on: {@link #enter} binds a URL to the
+ * current thread, {@link #span} records on whatever URL is bound (and does nothing when none
+ * is), and {@link #propagate} carries the binding to another thread. A trace keeps at most
+ * {@code maxEvents} events, and all traces sharing a {@link Budget} at most its total; the rest
+ * are counted as dropped. {@link #discard} hands a trace's events back to the budget.
+ */
+public class JobTrace {
+
+    private static final ThreadLocal<Lane> CURRENT = new ThreadLocal<>();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String jobId;
+    private final int maxEvents;
+    private final Budget budget;
+    private final long originNanos = System.nanoTime();
+    private final long originMillis = System.currentTimeMillis();
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger kept = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+    private volatile boolean discarded;
+
+    public JobTrace(String jobId, int maxEvents) {
+        this(jobId, maxEvents, null);
+    }
+
+    /** A trace whose events also count against {@code budget} (null for no shared limit). */
+    public JobTrace(String jobId, int maxEvents, Budget budget) {
+        this.jobId = jobId;
+        this.maxEvents = Math.max(0, maxEvents);
+        this.budget = budget;
+    }
+
+    /** Nanotime reading for {@link #enter}; the trace starts at 0. */
+    public long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Bind URL {@code index} to the current thread until the lane is closed. The time since
+     * {@code queuedSince} (a {@link #now} reading, e.g. when the job was submitted) is recorded
+     * as the URL's time in the queue.
+     */
+    public Lane enter(int index, String url, long queuedSince) {
+        long start = System.nanoTime();
+        if (start > queuedSince) {
+            add(new Event('q', "queued", "queue", 0, queuedSince, start, index, null));
+        }
+        Lane lane = new Lane(this, index, url, start, CURRENT.get());
+        CURRENT.set(lane);
+        return lane;
+    }
+
+    /** Time a stage of the URL bound to this thread; a no-op span when there is none. */
+    public static Span span(String name, String category) {
+        Lane lane = CURRENT.get();
+        return lane != null ? new Span(lane, name, category) : Span.NONE;
+    }
+
+    /** Run {@code stage} as a span of the URL bound to this thread and return what it returns. */
+    public static <T, E extends Exception> T time(String name, String category, Timed<T, E> stage) throws E {
+        Span span = span(name, category);
+        try {
+            return stage.run();
+        } finally {
+            span.close();
+        }
+    }
+
+    /** A zero-length marker on the URL bound to this thread, e.g. when a request is hedged. */
+    public static void mark(String name, String detail) {
+        Lane lane = CURRENT.get();
+        if (lane != null) {
+            long now = System.nanoTime();
+            lane.trace.add(new Event('i', name, "mark", Thread.currentThread().threadId(), now, now, lane.index, detail));
+        }
+    }
+
+    /** Run {@code task} bound to the same URL as the calling thread (if any). */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Lane lane = CURRENT.get();
+        if (lane == null) return task;
+        return () -> {
+            Lane previous = CURRENT.get();
+            CURRENT.set(lane);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public String getJobId() { return jobId; }
+    public int getEventCount() { return kept.get(); }
+    public int getDropped() { return dropped.get(); }
+
+    /**
+     * Stop recording, free the events and return them to the budget; for a trace nobody can
+     * fetch any more. Stages of a job still running keep calling in and are simply ignored.
+     */
+    public void discard() {
+        discarded = true;
+        events.clear();
+        int released = kept.getAndSet(0);
+        if (budget != null) budget.release(released);
+    }
+
+    /** Write what has been recorded so far as a Chrome trace-event JSON object. */
+    public void writeTo(OutputStream out) throws IOException {
+        List<Event> snapshot = new ArrayList<>(events);
+        try (JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("displayTimeUnit", "ms");
+            json.writeObjectFieldStart("otherData");
+            json.writeStringField("job", jobId);
+            json.writeNumberField("startedAt", originMillis);
+            json.writeNumberField("dropped", dropped.get());
+            json.writeEndObject();
+
+            json.writeArrayFieldStart("traceEvents");
+            writeMetadata(json, "process_name", 0, "Job " + jobId);
+            writeMetadata(json, "thread_name", 0, "Queue");
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                writeMetadata(json, "thread_name", thread.getKey(), thread.getValue());
+            }
+            for (Event event : snapshot) {
+                if (event.phase == 'q') {
+                    // Async pair: overlapping queue waits are packed into as few rows as possible
+                    writeEvent(json, event, "b", event.start);
+                    writeEvent(json, event, "e", event.end);
+                } else {
+                    writeEvent(json, event, event.phase == 'i' ? "i" : "X", event.start);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private void writeMetadata(JsonGenerator json, String name, long tid, String value) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", name);
+        json.writeStringField("ph", "M");
+        json.writeNumberField("pid", 1);
+        json.writeNumberField("tid", tid);
+        json.writeObjectFieldStart("args");
+        json.writeStringField("name", value);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private void writeEvent(JsonGenerator json, Event event, String phase, long at) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", event.name);
+        json.writeStringField("cat", event.category);
+        json.writeStringField("ph", phase);
+        json.writeNumberField("ts", micros(at));
+        json.writeNumberField("pid", 1);
+        json.writeNumberField("tid", event.tid);
+        switch (phase) {
+            case "X" -> json.writeNumberField("dur", Math.max(0, micros(event.end) - micros(event.start)));
+            case "b", "e" -> json.writeStringField("id", "0x" + Integer.toHexString(event.index));
+            case "i" -> json.writeStringField("s", "t");
+            default -> { }
+        }
+        if (!phase.equals("e")) {
+            json.writeObjectFieldStart("args");
+            json.writeNumberField("index", event.index);
+            if (event.detail != null) json.writeStringField("detail", event.detail);
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos - originNanos);
+    }
+
+    private void add(Event event) {
+        if (discarded) return;
+        if (reserved.incrementAndGet() > maxEvents || (budget != null && !budget.tryAcquire())) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (event.tid != 0) {
+            threadNames.computeIfAbsent(event.tid, tid -> Thread.currentThread().getName());
+        }
+        events.add(event);
+        kept.incrementAndGet();
+        if (discarded) {
+            // Raced with discard(): its release didn't see this event
+            discard();
+        }
+    }
+
+    /** Events all traces sharing it may hold together, so the newest jobs can't take the heap. */
+    public static final class Budget {
+        private final AtomicLong available;
+
+        public Budget(long maxEvents) {
+            this.available = new AtomicLong(Math.max(0, maxEvents));
+        }
+
+        boolean tryAcquire() {
+            long left;
+            do {
+                left = available.get();
+                if (left <= 0) return false;
+            } while (!available.compareAndSet(left, left - 1));
+            return true;
+        }
+
+        void release(long events) {
+            available.addAndGet(events);
+        }
+
+        public long getAvailable() {
+            return available.get();
+        }
+    }
+
+    /** A stage body for {@link #time}. */
+    @FunctionalInterface
+    public interface Timed<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /** One URL bound to a thread; closing it records the URL's span and restores the previous binding. */
+    public static final class Lane implements AutoCloseable {
+        private final JobTrace trace;
+        private final int index;
+        private final String url;
+        private final long start;
+        private final Lane previous;
+        private final Thread thread = Thread.currentThread();
+        private volatile String status;
+
+        private Lane(JobTrace trace, int index, String url, long start, Lane previous) {
+            this.trace = trace;
+            this.index = index;
+            this.url = url;
+            this.start = start;
+            this.previous = previous;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        @Override
+        public void close() {
+            if (Thread.currentThread() != thread) return;
+            String detail = status != null ? url + " " + status : url;
+            trace.add(new Event('X', "url", "url", thread.threadId(), start, System.nanoTime(), index, detail));
+            CURRENT.set(previous);
+        }
+    }
+
+    /** One stage of a URL; {@link #NONE} when the thread isn't working on a traced URL. */
+    public static final class Span implements AutoCloseable {
+        static final Span NONE = new Span(null, null, null);
+
+        private final Lane lane;
+        private final String name;
+        private final String category;
+        private final long start = System.nanoTime();
+        private String detail;
+
+        private Span(Lane lane, String name, String category) {
+            this.lane = lane;
+            this.name = name;
+            this.category = category;
+        }
+
+        /** Shown with the span, e.g. the status code of a fetch or the error of a failed attempt. */
+        public Span detail(String detail) {
+            if (lane != null) this.detail = detail;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (lane == null) return;
+            lane.trace.add(new Event('X', name, category, Thread.currentThread().threadId(), start, System.nanoTime(),
+                lane.index, detail));
+        }
+    }
+
+    // Times are nanoTime readings; phase 'q' is a queue wait, 'i' an instant, 'X' a span
+    private record Event(char phase, String name, String category, long tid, long start, long end, int index,
+                         String detail) {
+    }
+}
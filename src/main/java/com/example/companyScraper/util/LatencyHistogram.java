@@ -0,0 +1,62 @@
+package com.example.companyScraper.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in milliseconds. Buckets grow by 10% each, so any percentile is
+ * within 10% of the true value at a fixed size of under 2 KB, however many samples go in. Values
+ * past the last bucket (about two weeks) land in it.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;
+    private static final int BUCKETS = 220;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    /** Upper bound of the bucket holding the q-th quantile (0 < q <= 1); 0 when empty. */
+    public long percentile(double q) {
+        long total = count.sum();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public long getCount() { return count.sum(); }
+
+    public long getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : sum.sum() / total;
+    }
+
+    public String summary() {
+        return String.format("p50 %d ms, p95 %d ms, p99 %d ms (%d samples)",
+            percentile(0.50), percentile(0.95), percentile(0.99), getCount());
+    }
+
+    // Bucket 0 holds 0-1 ms; bucket i holds values up to GROWTH^i
+    private static int bucketOf(long millis) {
+        if (millis <= 1) return 0;
+        int bucket = (int) Math.ceil(Math.log(millis) / Math.log(GROWTH));
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return (long) Math.ceil(Math.pow(GROWTH, bucket));
+    }
+}
@@ -39,7 +39,8 @@ public class NameRoleExtractor {
             
             // If database extraction found few results, try AI
             if (people.size() < 2 && textContent.length() > 100 && USE_AI) {
-                List<Scraper.Person> aiPeople = callOpenRouterForPeopleExtraction(textContent, url);
+                List<Scraper.Person> aiPeople = ScrapeMetrics.time(ScrapeMetrics.Stage.AI,
+                    () -> callOpenRouterForPeopleExtraction(textContent, url));
                 System.out.println("AI extraction found " + aiPeople.size() + " people");
                 
                 // Merge results, preferring database results
@@ -141,6 +142,20 @@ public class NameRoleExtractor {
     // Only including the changed parts for brevity
     
     private static List<Scraper.Person> callOpenRouterForPeopleExtraction(String text, String url) {
+        ScrapeEvents.AiCall event = new ScrapeEvents.AiCall();
+        event.begin();
+        List<Scraper.Person> people = null;
+        try (JobTrace.Span span = JobTrace.span("ai", "ai")) {
+            people = requestPeopleFromOpenRouter(text, url);
+            span.detail(people.size() + " people from " + text.length() + " chars");
+            return people;
+        } finally {
+            event.people = people != null ? people.size() : 0;
+            event.end(url, text.length());
+        }
+    }
+
+    private static List<Scraper.Person> requestPeopleFromOpenRouter(String text, String url) {
         // Only call AI if we haven't found enough people via database
         RestTemplate restTemplate = new RestTemplate();
         
@@ -1,8 +1,13 @@
 package com.example.companyScraper.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
 import org.apache.commons.validator.routines.EmailValidator;
+import org.jsoup.nodes.Document;
+
+import java.net.URI;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -10,7 +15,30 @@ import java.util.stream.Collectors;
 public class PhoneExtractor {
     
     private static final PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
-    private static final Set<String> COUNTRY_CODES = Set.of("US", "GB", "CA", "AU", "IN", "DE", "FR", "BR", "CN");
+    private static final String DEFAULT_REGION = "US";
+    private static final Set<String> SUPPORTED_REGIONS = phoneUtil.getSupportedRegions();
+
+    // Two-letter TLDs that are marketed generically and say nothing about the company's country
+    private static final Set<String> GENERIC_CC_TLDS = Set.of(
+        "io", "ai", "co", "me", "tv", "cc", "ly", "fm", "gg", "to", "ws", "sh", "is", "app"
+    );
+    // ccTLDs whose phone region code differs from the TLD itself
+    private static final Map<String, String> TLD_REGION_OVERRIDES = Map.of("uk", "GB", "eu", "");
+    // Fallback for bare language tags such as lang="de" with no region subtag
+    private static final Map<String, String> LANGUAGE_REGIONS = Map.ofEntries(
+        Map.entry("de", "DE"), Map.entry("fr", "FR"), Map.entry("it", "IT"), Map.entry("es", "ES"),
+        Map.entry("nl", "NL"), Map.entry("pl", "PL"), Map.entry("sv", "SE"), Map.entry("da", "DK"),
+        Map.entry("fi", "FI"), Map.entry("nb", "NO"), Map.entry("no", "NO"), Map.entry("cs", "CZ"),
+        Map.entry("ja", "JP"), Map.entry("ko", "KR"), Map.entry("zh", "CN"), Map.entry("pt", "BR"),
+        Map.entry("he", "IL"), Map.entry("tr", "TR"), Map.entry("hu", "HU"), Map.entry("el", "GR")
+    );
+
+    // Raw candidate -> E.164 (or empty when invalid). Keyed by region so the same digits on a
+    // .de and a .com page don't share an answer. Bounded to keep directory crawls from growing it.
+    private static final int NORMALIZATION_CACHE_SIZE = 50_000;
+    private static final Cache<String, Optional<String>> NORMALIZATION_CACHE = Caffeine.newBuilder()
+        .maximumSize(NORMALIZATION_CACHE_SIZE)
+        .build();
     
     // Enhanced phone regex patterns
     private static final List<Pattern> PHONE_PATTERNS = Arrays.asList(
@@ -30,8 +58,59 @@ public class PhoneExtractor {
         "0123456789", "1000000000", "2000000000"
     );
 
+    private static final Pattern TEL_LINK_PATTERN = Pattern.compile("tel:([^\"'\\s>]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DATA_PHONE_PATTERN = Pattern.compile("data-phone=\"([^\"]+)\"", Pattern.CASE_INSENSITIVE);
+
     public static Set<String> extractPhones(String text) {
-        return extractValidNormalizedPhones(text, "US");
+        return extractValidNormalizedPhones(text, DEFAULT_REGION);
+    }
+
+    /**
+     * Infer the phone region for a page once, so every candidate on it is parsed against a single
+     * region instead of probing a list of countries. Order: ccTLD of the page URL, then the
+     * region (or language) in the html lang attribute, then US.
+     */
+    public static String inferRegion(String url, Document doc) {
+        String fromTld = regionFromHost(url);
+        if (fromTld != null) return fromTld;
+
+        if (doc != null) {
+            String lang = doc.select("html[lang]").attr("lang");
+            String fromLang = regionFromLanguageTag(lang);
+            if (fromLang != null) return fromLang;
+        }
+
+        return DEFAULT_REGION;
+    }
+
+    private static String regionFromHost(String url) {
+        if (url == null) return null;
+        try {
+            String host = URI.create(url.trim()).getHost();
+            if (host == null) return null;
+
+            int dot = host.lastIndexOf('.');
+            if (dot < 0 || dot == host.length() - 1) return null;
+
+            String tld = host.substring(dot + 1).toLowerCase(Locale.ROOT);
+            if (tld.length() != 2 || GENERIC_CC_TLDS.contains(tld)) return null;
+
+            String region = TLD_REGION_OVERRIDES.getOrDefault(tld, tld.toUpperCase(Locale.ROOT));
+            return SUPPORTED_REGIONS.contains(region) ? region : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String regionFromLanguageTag(String lang) {
+        if (lang == null || lang.isBlank()) return null;
+
+        Locale locale = Locale.forLanguageTag(lang.trim().replace('_', '-'));
+        String region = locale.getCountry();
+        if (!region.isEmpty()) {
+            return SUPPORTED_REGIONS.contains(region) ? region : null;
+        }
+        return LANGUAGE_REGIONS.get(locale.getLanguage());
     }
 
     public static Set<String> extractValidNormalizedPhones(String text, String defaultRegion) {
@@ -64,8 +143,7 @@ public class PhoneExtractor {
         Set<String> phones = new HashSet<>();
         
         // Extract from tel: links
-        var telPattern = Pattern.compile("tel:([^\"'\\s>]+)", Pattern.CASE_INSENSITIVE);
-        var telMatcher = telPattern.matcher(html);
+        var telMatcher = TEL_LINK_PATTERN.matcher(html);
         while (telMatcher.find()) {
             String phone = cleanPhoneString(telMatcher.group(1));
             if (isValidPhoneLength(phone)) {
@@ -74,8 +152,7 @@ public class PhoneExtractor {
         }
         
         // Extract from data-phone attributes
-        var dataPattern = Pattern.compile("data-phone=\"([^\"]+)\"", Pattern.CASE_INSENSITIVE);
-        var dataMatcher = dataPattern.matcher(html);
+        var dataMatcher = DATA_PHONE_PATTERN.matcher(html);
         while (dataMatcher.find()) {
             String phone = cleanPhoneString(dataMatcher.group(1));
             if (isValidPhoneLength(phone)) {
@@ -87,52 +164,86 @@ public class PhoneExtractor {
     }
     
     private static String normalizeWithLibPhoneNumber(String phone, String defaultRegion) {
+        // Numbers written with a + carry their own country code, so the page region is irrelevant
+        String region = phone.startsWith("+") ? "ZZ" : (defaultRegion != null ? defaultRegion : DEFAULT_REGION);
+        String cacheKey = region + "|" + phone;
+
+        return NORMALIZATION_CACHE.get(cacheKey, k -> Optional.ofNullable(parseAndFormat(phone, region)))
+            .orElse(null);
+    }
+
+    private static String parseAndFormat(String phone, String region) {
         try {
-            Phonenumber.PhoneNumber number = phoneUtil.parse(phone, defaultRegion);
+            Phonenumber.PhoneNumber number = phoneUtil.parse(phone, region);
             if (phoneUtil.isValidNumber(number)) {
                 return phoneUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
             }
-            
-            // Try with other common country codes if default fails
-            for (String countryCode : COUNTRY_CODES) {
-                if (!countryCode.equals(defaultRegion)) {
-                    number = phoneUtil.parse(phone, countryCode);
-                    if (phoneUtil.isValidNumber(number)) {
-                        return phoneUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
-                    }
-                }
-            }
         } catch (Exception e) {
             // Fall back to basic cleaning
             return cleanPhoneString(phone);
         }
-        
+
         return null;
     }
     
     private static String cleanPhoneString(String phone) {
         if (phone == null) return "";
-        
-        return phone.replaceAll("[^\\d+]", "")
-                   .replaceAll("^\\+?0+", "") // Remove leading zeros
-                   .trim();
+
+        // Keep digits and '+', then drop a leading "+0..." / "0..." run (trunk prefix)
+        StringBuilder sb = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '+') {
+                sb.append(c);
+            }
+        }
+
+        int start = sb.length() > 0 && sb.charAt(0) == '+' ? 1 : 0;
+        int end = start;
+        while (end < sb.length() && sb.charAt(end) == '0') end++;
+        if (end > start) {
+            sb.delete(0, end);
+        }
+
+        return sb.toString();
+    }
+
+    private static int countDigits(String phone) {
+        int digits = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') digits++;
+        }
+        return digits;
+    }
+
+    private static String digitsOnly(String phone) {
+        StringBuilder sb = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') sb.append(c);
+        }
+        return sb.toString();
     }
     
     private static boolean isValidPhoneLength(String phone) {
         if (phone == null) return false;
         
-        String digitsOnly = phone.replaceAll("[^\\d]", "");
-        return digitsOnly.length() >= 7 && digitsOnly.length() <= 15;
+        int digits = countDigits(phone);
+        return digits >= 7 && digits <= 15;
     }
     
     private static boolean isFalsePositive(String phone) {
-        String digitsOnly = phone.replaceAll("[^\\d]", "");
-        return FALSE_POSITIVES.contains(digitsOnly) || 
-               digitsOnly.matches("^123\\d+") || 
-               digitsOnly.matches("^555\\d+");
+        String digits = digitsOnly(phone);
+        return FALSE_POSITIVES.contains(digits) ||
+               (digits.length() > 3 && (digits.startsWith("123") || digits.startsWith("555")));
     }
 
     public static String cleanAndFormatPhone(String phone) {
+        return cleanAndFormatPhone(phone, DEFAULT_REGION);
+    }
+
+    public static String cleanAndFormatPhone(String phone, String region) {
         if (phone == null) return "";
         
         String cleaned = cleanPhoneString(phone);
@@ -140,7 +251,7 @@ public class PhoneExtractor {
         
         try {
             // Try to format using libphonenumber
-            Phonenumber.PhoneNumber number = phoneUtil.parse(cleaned, "US");
+            Phonenumber.PhoneNumber number = phoneUtil.parse(cleaned, cleaned.startsWith("+") ? "ZZ" : region);
             if (phoneUtil.isValidNumber(number)) {
                 return phoneUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.INTERNATIONAL);
             }
@@ -0,0 +1,84 @@
+package com.example.companyScraper.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which URLs go to the high-priority lane. Plain entries are domains and match the
+ * domain itself and any subdomain ({@code company.com} matches {@code www.company.com}); entries
+ * containing {@code *} are globs over the whole URL ({@code *careers*}).
+ */
+public class PriorityMatcher {
+
+    public static final PriorityMatcher NONE = new PriorityMatcher(List.of(), List.of());
+
+    private final List<String> domains;
+    private final List<Pattern> patterns;
+
+    private PriorityMatcher(List<String> domains, List<Pattern> patterns) {
+        this.domains = domains;
+        this.patterns = patterns;
+    }
+
+    /** Parse a comma-separated list as found in {@code scraper.priority.domains}. */
+    public static PriorityMatcher parse(String commaSeparated) {
+        return commaSeparated == null || commaSeparated.isBlank()
+            ? NONE
+            : NONE.plus(List.of(commaSeparated.split(",")));
+    }
+
+    public PriorityMatcher plus(Collection<String> entries) {
+        if (entries == null || entries.isEmpty()) return this;
+        List<String> moreDomains = new ArrayList<>(domains);
+        List<Pattern> morePatterns = new ArrayList<>(patterns);
+        for (String entry : entries) {
+            String e = entry.trim().toLowerCase(Locale.ROOT);
+            if (e.isEmpty()) continue;
+            if (e.contains("*")) {
+                morePatterns.add(Pattern.compile(globToRegex(e)));
+            } else {
+                moreDomains.add(e.startsWith("www.") ? e.substring(4) : e);
+            }
+        }
+        return new PriorityMatcher(List.copyOf(moreDomains), List.copyOf(morePatterns));
+    }
+
+    public boolean isEmpty() {
+        return domains.isEmpty() && patterns.isEmpty();
+    }
+
+    public boolean matches(String url) {
+        if (url == null || isEmpty()) return false;
+        String lower = url.trim().toLowerCase(Locale.ROOT);
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(lower).matches()) return true;
+        }
+
+        String host = UrlHosts.hostOf(lower);
+        if (host == null) return false;
+        for (String domain : domains) {
+            if (host.equals(domain) || host.endsWith("." + domain)) return true;
+        }
+        return false;
+    }
+
+    private static String globToRegex(String glob) {
+        String[] parts = glob.split("\\*", -1);
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) regex.append(".*");
+            if (!parts[i].isEmpty()) regex.append(Pattern.quote(parts[i]));
+        }
+        return regex.toString();
+    }
+
+    @Override
+    public String toString() {
+        List<String> all = new ArrayList<>(domains);
+        patterns.forEach(p -> all.add(p.pattern()));
+        return all.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.companyScraper.util;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Probes proxies in the background against a check URL so dead ones are found before real
+ * scrapes go through them. A failing proxy is quarantined (never selected) and re-checked with
+ * exponential backoff; the first successful check puts it back into rotation. Proxies that real
+ * traffic already exercises are only re-checked once they have been idle for an interval.
+ */
+public class ProxyHealthChecker implements Closeable {
+
+    public static final String DEFAULT_CHECK_URL = "http://www.gstatic.com/generate_204";
+    private static final int CHECK_THREADS = 8;
+    private static final long ROUND_TIMEOUT_MS = 60_000;
+    private static final String CHECK_USER_AGENT = "Mozilla/5.0 (compatible; proxy-check)";
+
+    private final ProxyPool pool;
+    private final HttpFetcher fetcher;
+    private final String checkUrl;
+    private final long intervalMs;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final LongSupplier clock;
+    private final Map<Scraper.ProxyInfo, CheckState> states = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService checkers;
+
+    public ProxyHealthChecker(ProxyPool pool, HttpFetcher fetcher, String checkUrl, long intervalMs) {
+        this(pool, fetcher, checkUrl, intervalMs, intervalMs / 2, 30 * 60_000L, System::currentTimeMillis);
+    }
+
+    ProxyHealthChecker(ProxyPool pool, HttpFetcher fetcher, String checkUrl, long intervalMs,
+                       long baseBackoffMs, long maxBackoffMs, LongSupplier clock) {
+        this.pool = pool;
+        this.fetcher = fetcher;
+        this.checkUrl = checkUrl != null && !checkUrl.isBlank() ? checkUrl : DEFAULT_CHECK_URL;
+        this.intervalMs = Math.max(1, intervalMs);
+        this.baseBackoffMs = Math.max(1, baseBackoffMs);
+        this.maxBackoffMs = Math.max(this.baseBackoffMs, maxBackoffMs);
+        this.clock = clock;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null || pool.isEmpty()) return;
+        checkers = Executors.newFixedThreadPool(CHECK_THREADS, daemon("proxy-check"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("proxy-check-scheduler"));
+        // Fixed delay, so a slow round never overlaps the next one
+        scheduler.scheduleWithFixedDelay(this::runRoundSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+        System.out.println("Proxy health checks started for " + pool.size() + " proxies against " + checkUrl);
+    }
+
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Called when real traffic shows a proxy failing: pull it out now and let the checker
+     * decide when it comes back.
+     */
+    public void reportFailing(Scraper.ProxyInfo proxy) {
+        if (pool.isQuarantined(proxy)) return;
+        CheckState state = states.computeIfAbsent(proxy, p -> new CheckState());
+        quarantine(proxy, state, clock.getAsLong());
+    }
+
+    private void runRoundSafely() {
+        try {
+            runRound();
+        } catch (Exception e) {
+            System.err.println("Proxy health check round failed: " + e.getMessage());
+        }
+    }
+
+    /** Check every proxy that is due and wait for the results. */
+    void runRound() throws InterruptedException {
+        long now = clock.getAsLong();
+        ExecutorService executor = checkers != null ? checkers : ForkJoinPool.commonPool();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (Scraper.ProxyInfo proxy : pool.all()) {
+            CheckState state = states.computeIfAbsent(proxy, p -> new CheckState());
+            if (!isDue(proxy, state, now)) continue;
+            futures.add(executor.submit(() -> check(proxy, state)));
+        }
+
+        long deadline = System.currentTimeMillis() + ROUND_TIMEOUT_MS;
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private boolean isDue(Scraper.ProxyInfo proxy, CheckState state, long now) {
+        if (pool.isQuarantined(proxy)) {
+            return now >= state.nextCheckAt;
+        }
+        ProxyPool.ProxyStats stats = pool.stats(proxy);
+        long lastActivity = Math.max(state.lastCheckedAt, stats != null ? stats.getLastUsed() : 0);
+        return now - lastActivity >= intervalMs;
+    }
+
+    private void check(Scraper.ProxyInfo proxy, CheckState state) {
+        boolean healthy;
+        try {
+            int status = fetcher.probe(checkUrl, proxy, CHECK_USER_AGENT).statusCode;
+            healthy = status >= 200 && status < 400;
+        } catch (Exception e) {
+            healthy = false;
+        }
+
+        long now = clock.getAsLong();
+        state.lastCheckedAt = now;
+        if (healthy) {
+            state.failedChecks = 0;
+            if (pool.isQuarantined(proxy)) {
+                pool.reinstate(proxy);
+                System.out.println("Proxy " + proxy + " passed its health check, back in rotation");
+            }
+        } else {
+            state.failedChecks++;
+            quarantine(proxy, state, now);
+        }
+    }
+
+    private void quarantine(Scraper.ProxyInfo proxy, CheckState state, long now) {
+        long backoff = backoffMs(state.failedChecks);
+        state.nextCheckAt = now + backoff;
+        if (!pool.isQuarantined(proxy)) {
+            pool.quarantine(proxy);
+            System.err.println("Proxy " + proxy + " quarantined, next check in " + backoff / 1000 + "s");
+        }
+    }
+
+    // base, 2x base, 4x base ... capped; failures counted from the first failed check
+    long backoffMs(int failedChecks) {
+        int doublings = Math.min(Math.max(0, failedChecks - 1), 30);
+        return Math.min(maxBackoffMs, baseBackoffMs << doublings);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            checkers.shutdownNow();
+            scheduler = null;
+            checkers = null;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static class CheckState {
+        volatile int failedChecks;
+        volatile long nextCheckAt;
+        volatile long lastCheckedAt;
+    }
+}
@@ -0,0 +1,494 @@
+package com.example.companyScraper.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free proxy pool. Stats are atomics updated by the workers themselves, and proxies are
+ * indexed by a score combining EWMA success rate and EWMA latency, so SMART selection walks a
+ * skip list from the top instead of scanning every proxy. RANDOM and ROUND_ROBIN index an
+ * immutable array and only fall back to the score walk when they keep hitting unusable proxies.
+ * AFFINITY pins each domain to a few proxies on a consistent-hash ring, so a domain keeps seeing
+ * the same exit IPs and a dead proxy only moves the domains that were pinned to it.
+ *
+ * <p>Requests hold a {@link Lease} while they use a proxy; with a per-proxy in-flight cap set,
+ * {@link #acquire} waits for a free slot instead of piling more connections onto a proxy.
+ */
+public class ProxyPool {
+
+    public static final ProxyPool EMPTY = new ProxyPool(List.of());
+
+    // Weight of the newest sample in the moving averages
+    private static final double EWMA_ALPHA = 0.2;
+    // Proxies need a few requests before their success rate means anything
+    private static final int MIN_REQUESTS_FOR_HEALTH = 5;
+    private static final double MIN_HEALTHY_SUCCESS = 0.3;
+    private static final int MAX_INDEX_PROBES = 32;
+    // Ring points per proxy; enough to spread domains evenly over a few dozen proxies
+    private static final int VIRTUAL_NODES = 100;
+    // Proxies a domain is pinned to; requests to it spread over these only
+    private static final int AFFINITY_SET_SIZE = 2;
+    private static final long SLOT_WAIT_STEP_MS = 50;
+
+    private final Entry[] entries;
+    private final Map<Scraper.ProxyInfo, Entry> byProxy;
+    private final ConcurrentSkipListSet<Rank> byScore = new ConcurrentSkipListSet<>();
+    private final AtomicInteger rrIndex = new AtomicInteger();
+    private final long[] ringHashes;
+    private final Entry[] ringOwners;
+    private final int maxInFlightPerProxy;
+    private final Object slotFreed = new Object();
+    private final AtomicInteger slotWaiters = new AtomicInteger();
+
+    public ProxyPool(List<Scraper.ProxyInfo> proxies) {
+        this(proxies, 0);
+    }
+
+    /** @param maxInFlightPerProxy requests one proxy may carry at once; 0 for no limit */
+    public ProxyPool(List<Scraper.ProxyInfo> proxies, int maxInFlightPerProxy) {
+        this(proxies, maxInFlightPerProxy, Map.of());
+    }
+
+    private ProxyPool(List<Scraper.ProxyInfo> proxies, int maxInFlightPerProxy, Map<Scraper.ProxyInfo, Entry> previous) {
+        this.maxInFlightPerProxy = Math.max(0, maxInFlightPerProxy);
+        Map<Scraper.ProxyInfo, Entry> map = new HashMap<>();
+        List<Entry> list = new ArrayList<>();
+        for (Scraper.ProxyInfo proxy : proxies) {
+            if (map.containsKey(proxy)) continue;
+            Entry entry = new Entry(proxy, list.size(), previous.get(proxy));
+            map.put(proxy, entry);
+            list.add(entry);
+            byScore.add(entry.rank.get());
+        }
+        this.entries = list.toArray(new Entry[0]);
+        this.byProxy = Collections.unmodifiableMap(map);
+
+        // Points are keyed by host:port only, so a proxy keeps its domains across reloads
+        long[][] points = new long[entries.length * VIRTUAL_NODES][];
+        int n = 0;
+        for (Entry entry : entries) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                points[n++] = new long[] { hash(entry.proxy.host + ":" + entry.proxy.port + "#" + v), entry.index };
+            }
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+        this.ringHashes = new long[points.length];
+        this.ringOwners = new Entry[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ringHashes[i] = points[i][0];
+            ringOwners[i] = entries[(int) points[i][1]];
+        }
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public int getMaxInFlightPerProxy() {
+        return maxInFlightPerProxy;
+    }
+
+    /**
+     * A pool over a new proxy list. Proxies already in this pool keep their stats, quarantine
+     * and in-flight count, so a reload neither forgets what was learned nor lets requests still
+     * running on this pool push a proxy past its cap.
+     */
+    public ProxyPool withProxies(List<Scraper.ProxyInfo> proxies, int maxInFlightPerProxy) {
+        return new ProxyPool(proxies, maxInFlightPerProxy, byProxy);
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    public List<Scraper.ProxyInfo> all() {
+        List<Scraper.ProxyInfo> all = new ArrayList<>(entries.length);
+        for (Entry entry : entries) all.add(entry.proxy);
+        return all;
+    }
+
+    public ProxyStats stats(Scraper.ProxyInfo proxy) {
+        Entry entry = proxy != null ? byProxy.get(proxy) : null;
+        return entry != null ? entry.stats : null;
+    }
+
+    /**
+     * Pick a healthy, non-quarantined proxy not in {@code exclude}; when every such proxy has
+     * been tried, pick among all of them again. Null when none is usable. Does not take an
+     * in-flight slot, so it ignores the per-proxy cap; requests go through {@link #acquire}.
+     */
+    public Scraper.ProxyInfo select(Scraper.ProxyRotationStrategy strategy, Set<Scraper.ProxyInfo> exclude) {
+        return select(strategy, null, exclude);
+    }
+
+    public Scraper.ProxyInfo select(Scraper.ProxyRotationStrategy strategy, String domain, Set<Scraper.ProxyInfo> exclude) {
+        if (entries.length == 0 || strategy == null || strategy == Scraper.ProxyRotationStrategy.NONE) return null;
+
+        Entry chosen = choose(strategy, domain, exclude, false);
+        if (chosen == null && exclude != null && !exclude.isEmpty()) {
+            chosen = choose(strategy, domain, Set.of(), false);
+        }
+        return chosen != null ? chosen.proxy : null;
+    }
+
+    /**
+     * Like {@link #select} but reserves an in-flight slot on the chosen proxy until the lease is
+     * closed. When usable proxies exist but all of them are at the cap, waits up to
+     * {@code maxWaitMs} for one to free up. The lease carries no proxy when none is usable.
+     */
+    public Lease acquire(Scraper.ProxyRotationStrategy strategy, String domain, Set<Scraper.ProxyInfo> exclude,
+                         long maxWaitMs) throws IOException, InterruptedException {
+        if (entries.length == 0 || strategy == null || strategy == Scraper.ProxyRotationStrategy.NONE) return Lease.NONE;
+
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        while (true) {
+            Entry chosen = choose(strategy, domain, exclude, true);
+            if (chosen == null && exclude != null && !exclude.isEmpty()) {
+                chosen = choose(strategy, domain, Set.of(), true);
+            }
+            if (chosen != null) return new Lease(this, chosen);
+            if (!anyUsable()) return Lease.NONE;
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IOException("No proxy slot free within " + maxWaitMs + "ms (cap " + maxInFlightPerProxy + " per proxy)");
+            }
+            slotWaiters.incrementAndGet();
+            try {
+                synchronized (slotFreed) {
+                    // Bounded wait: a release racing this check is picked up on the next step
+                    slotFreed.wait(Math.min(remaining, SLOT_WAIT_STEP_MS));
+                }
+            } finally {
+                slotWaiters.decrementAndGet();
+            }
+        }
+    }
+
+    private Entry choose(Scraper.ProxyRotationStrategy strategy, String domain, Set<Scraper.ProxyInfo> exclude, boolean reserve) {
+        switch (strategy) {
+            case RANDOM:
+                for (int i = 0; i < MAX_INDEX_PROBES; i++) {
+                    Entry entry = entries[ThreadLocalRandom.current().nextInt(entries.length)];
+                    if (isUsable(entry, exclude) && (!reserve || tryReserve(entry))) return entry;
+                }
+                return best(exclude, reserve);
+
+            case ROUND_ROBIN:
+                for (int i = 0; i < Math.min(MAX_INDEX_PROBES, entries.length); i++) {
+                    Entry entry = entries[Math.floorMod(rrIndex.getAndIncrement(), entries.length)];
+                    if (isUsable(entry, exclude) && (!reserve || tryReserve(entry))) return entry;
+                }
+                return best(exclude, reserve);
+
+            case SMART:
+                return best(exclude, reserve);
+
+            case AFFINITY:
+                return domain != null ? pinned(domain, exclude, reserve) : best(exclude, reserve);
+
+            default:
+                return null;
+        }
+    }
+
+    // Highest score first; failing proxies score low, so the walk rarely goes far
+    private Entry best(Set<Scraper.ProxyInfo> exclude, boolean reserve) {
+        for (Rank rank : byScore) {
+            Entry entry = rank.entry;
+            if (entry.rank.get() != rank) {
+                byScore.remove(rank); // superseded by a concurrent re-rank
+                continue;
+            }
+            if (isUsable(entry, exclude) && (!reserve || tryReserve(entry))) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Walk the ring clockwise from the domain's hash and take the first few distinct usable
+     * proxies. Unusable proxies are skipped, so only domains pinned to a failed proxy move, and
+     * they move to the next proxy on the ring. Among the pinned set the least busy one wins;
+     * a full pinned set returns null rather than spilling the domain onto other proxies.
+     */
+    private Entry pinned(String domain, Set<Scraper.ProxyInfo> exclude, boolean reserve) {
+        Entry[] candidates = pinnedSet(domain, exclude);
+        Entry chosen = null;
+        for (Entry candidate : candidates) {
+            if (candidate == null) break;
+            if (chosen == null || candidate.inFlight.get() < chosen.inFlight.get()) chosen = candidate;
+        }
+        if (chosen == null || !reserve || tryReserve(chosen)) return chosen;
+
+        // Lost the race for the least busy one; any free slot in the set will do
+        for (Entry candidate : candidates) {
+            if (candidate == null) break;
+            if (candidate != chosen && tryReserve(candidate)) return candidate;
+        }
+        return null;
+    }
+
+    /** The proxies a domain is currently pinned to, nearest on the ring first. */
+    public List<Scraper.ProxyInfo> pinnedProxies(String domain) {
+        List<Scraper.ProxyInfo> pinned = new ArrayList<>(AFFINITY_SET_SIZE);
+        for (Entry entry : pinnedSet(domain, Set.of())) {
+            if (entry != null) pinned.add(entry.proxy);
+        }
+        return pinned;
+    }
+
+    private Entry[] pinnedSet(String domain, Set<Scraper.ProxyInfo> exclude) {
+        Entry[] set = new Entry[AFFINITY_SET_SIZE];
+        if (ringHashes.length == 0) return set;
+
+        int start = Arrays.binarySearch(ringHashes, hash(domain));
+        if (start < 0) start = -start - 1;
+        int found = 0;
+        for (int i = 0; i < ringHashes.length && found < set.length; i++) {
+            Entry entry = ringOwners[(start + i) % ringHashes.length];
+            if (!isUsable(entry, exclude)) continue;
+            boolean seen = false;
+            for (int j = 0; j < found; j++) {
+                if (set[j] == entry) { seen = true; break; }
+            }
+            if (!seen) set[found++] = entry;
+        }
+        return set;
+    }
+
+    private boolean tryReserve(Entry entry) {
+        while (true) {
+            int current = entry.inFlight.get();
+            if (maxInFlightPerProxy > 0 && current >= maxInFlightPerProxy) return false;
+            if (entry.inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    private void release(Entry entry) {
+        entry.inFlight.decrementAndGet();
+        if (slotWaiters.get() > 0) {
+            synchronized (slotFreed) {
+                slotFreed.notifyAll();
+            }
+        }
+    }
+
+    private boolean anyUsable() {
+        for (Entry entry : entries) {
+            if (isUsable(entry, null)) return true;
+        }
+        return false;
+    }
+
+    public int inFlight(Scraper.ProxyInfo proxy) {
+        Entry entry = proxy != null ? byProxy.get(proxy) : null;
+        return entry != null ? entry.inFlight.get() : 0;
+    }
+
+    private static boolean isUsable(Entry entry, Set<Scraper.ProxyInfo> exclude) {
+        return !entry.quarantined && entry.stats.isHealthy()
+            && (exclude == null || !exclude.contains(entry.proxy));
+    }
+
+    /** Take the proxy out of rotation until {@link #reinstate} is called (by the health checker). */
+    public void quarantine(Scraper.ProxyInfo proxy) {
+        Entry entry = byProxy.get(proxy);
+        if (entry != null) entry.quarantined = true;
+    }
+
+    /**
+     * Put a quarantined proxy back in rotation. Its success EWMA starts over: the failures that
+     * got it quarantined would otherwise keep it below the health floor, and with no traffic
+     * there is nothing to pull it back up.
+     */
+    public void reinstate(Scraper.ProxyInfo proxy) {
+        Entry entry = byProxy.get(proxy);
+        if (entry == null) return;
+        entry.stats.resetSuccess();
+        entry.quarantined = false;
+        rerank(entry);
+    }
+
+    public boolean isQuarantined(Scraper.ProxyInfo proxy) {
+        Entry entry = byProxy.get(proxy);
+        return entry != null && entry.quarantined;
+    }
+
+    public int quarantinedCount() {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.quarantined) count++;
+        }
+        return count;
+    }
+
+    public void recordSuccess(Scraper.ProxyInfo proxy, long latencyMs) {
+        Entry entry = byProxy.get(proxy);
+        if (entry == null) return;
+        entry.stats.record(true, latencyMs);
+        rerank(entry);
+    }
+
+    public void recordFailure(Scraper.ProxyInfo proxy, long latencyMs) {
+        Entry entry = byProxy.get(proxy);
+        if (entry == null) return;
+        entry.stats.record(false, latencyMs);
+        rerank(entry);
+    }
+
+    private void rerank(Entry entry) {
+        Rank current = entry.rank.get();
+        long score = entry.stats.scoreKey();
+        if (current.score == score) return;
+
+        Rank next = new Rank(score, entry);
+        if (entry.rank.compareAndSet(current, next)) {
+            byScore.add(next);
+            byScore.remove(current);
+        }
+        // Losing the race is fine: the proxy is re-ranked again on its next sample
+    }
+
+    private static final class Entry {
+        final Scraper.ProxyInfo proxy;
+        final int index;
+        final ProxyStats stats;
+        final AtomicReference<Rank> rank;
+        final AtomicInteger inFlight;
+        volatile boolean quarantined;
+
+        Entry(Scraper.ProxyInfo proxy, int index, Entry previous) {
+            this.proxy = proxy;
+            this.index = index;
+            this.stats = previous != null ? previous.stats : new ProxyStats();
+            this.inFlight = previous != null ? previous.inFlight : new AtomicInteger();
+            this.quarantined = previous != null && previous.quarantined;
+            this.rank = new AtomicReference<>(new Rank(stats.scoreKey(), this));
+        }
+    }
+
+    /** An in-flight slot on one proxy; close it when the request is done. Closing twice is harmless. */
+    public static final class Lease implements AutoCloseable {
+        public static final Lease NONE = new Lease(null, null);
+
+        private final ProxyPool pool;
+        private final Entry entry;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(ProxyPool pool, Entry entry) {
+            this.pool = pool;
+            this.entry = entry;
+        }
+
+        /** The leased proxy, or null to connect directly. */
+        public Scraper.ProxyInfo proxy() {
+            return entry != null ? entry.proxy : null;
+        }
+
+        @Override
+        public void close() {
+            if (entry != null && released.compareAndSet(false, true)) {
+                pool.release(entry);
+            }
+        }
+    }
+
+    // FNV-1a, then a 64-bit finalizer so near-identical keys land far apart on the ring
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e185a5a5bL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Immutable skip-list key: higher score first, ties broken by load order. */
+    private static final class Rank implements Comparable<Rank> {
+        final long score;
+        final Entry entry;
+
+        Rank(long score, Entry entry) {
+            this.score = score;
+            this.entry = entry;
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            int byScoreDesc = Long.compare(other.score, score);
+            return byScoreDesc != 0 ? byScoreDesc : Integer.compare(entry.index, other.entry.index);
+        }
+    }
+
+    /** Per-proxy counters; safe to update from any number of workers without locking. */
+    public static class ProxyStats {
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final AtomicLong ewmaSuccessBits = new AtomicLong(Double.doubleToLongBits(1.0));
+        private final AtomicLong ewmaLatencyBits = new AtomicLong(Double.doubleToLongBits(0.0));
+        private volatile long lastUsed;
+
+        void record(boolean success, long latencyMs) {
+            (success ? successes : failures).increment();
+            updateEwma(ewmaSuccessBits, success ? 1.0 : 0.0);
+            if (latencyMs >= 0) updateEwma(ewmaLatencyBits, latencyMs);
+            lastUsed = System.currentTimeMillis();
+        }
+
+        void resetSuccess() {
+            ewmaSuccessBits.set(Double.doubleToLongBits(1.0));
+        }
+
+        private static void updateEwma(AtomicLong bits, double sample) {
+            long prev;
+            long next;
+            do {
+                prev = bits.get();
+                double value = Double.longBitsToDouble(prev);
+                next = Double.doubleToLongBits(value + EWMA_ALPHA * (sample - value));
+            } while (!bits.compareAndSet(prev, next));
+        }
+
+        public long getTotalRequests() { return successes.sum() + failures.sum(); }
+        public double getEwmaSuccess() { return Double.longBitsToDouble(ewmaSuccessBits.get()); }
+        public double getEwmaLatencyMs() { return Double.longBitsToDouble(ewmaLatencyBits.get()); }
+        public long getLastUsed() { return lastUsed; }
+
+        public double getSuccessRate() {
+            long total = getTotalRequests();
+            return total == 0 ? 1.0 : (double) successes.sum() / total;
+        }
+
+        public double getFailureRate() {
+            long total = getTotalRequests();
+            return total == 0 ? 0.0 : (double) failures.sum() / total;
+        }
+
+        public boolean isHealthy() {
+            return getTotalRequests() < MIN_REQUESTS_FOR_HEALTH || getEwmaSuccess() > MIN_HEALTHY_SUCCESS;
+        }
+
+        // Success per second of latency; a fast proxy with a few failures still beats a slow one
+        public double score() {
+            return getEwmaSuccess() / (1.0 + getEwmaLatencyMs() / 1000.0);
+        }
+
+        // Quantized so tiny EWMA drifts don't churn the skip list
+        long scoreKey() {
+            return Math.round(score() * 1000);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.companyScraper.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers permanent (301/308) redirects so later fetches go straight to the final location.
+ * A redirect that only changes the origin (http -> https, bare -> www) is stored as an origin
+ * rule and applies to every path on that origin; anything else is stored for the exact URL.
+ * Both maps are bounded, and can be saved to and loaded from a small tab-separated file.
+ */
+public class RedirectCache {
+
+    private static final int MAX_HOPS = 5;
+
+    private final Cache<String, String> origins;
+    private final Cache<String, String> urls;
+
+    public RedirectCache(int maxEntries) {
+        this.origins = Caffeine.newBuilder().maximumSize(maxEntries).build();
+        this.urls = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    public void recordPermanent(String fromUrl, String toUrl) {
+        URI from = parse(fromUrl);
+        URI to = parse(toUrl);
+        if (from == null || to == null) return;
+
+        String fromKey = key(from);
+        String toKey = key(to);
+        if (fromKey.equals(toKey)) return;
+
+        String fromOrigin = origin(from);
+        String toOrigin = origin(to);
+        if (!fromOrigin.equals(toOrigin) && pathAndQuery(from).equals(pathAndQuery(to))) {
+            origins.put(fromOrigin, toOrigin);
+        } else {
+            urls.put(fromKey, toKey);
+        }
+    }
+
+    /** Follow known permanent redirects from the URL; returns the URL unchanged when none apply. */
+    public String resolve(String url) {
+        URI current = parse(url);
+        if (current == null) return url;
+
+        Set<String> visited = new HashSet<>();
+        String resolved = null;
+        for (int hop = 0; hop < MAX_HOPS; hop++) {
+            String currentKey = key(current);
+            if (!visited.add(currentKey)) break;
+
+            String next = urls.getIfPresent(currentKey);
+            if (next == null) {
+                String targetOrigin = origins.getIfPresent(origin(current));
+                if (targetOrigin != null) {
+                    next = targetOrigin + pathAndQuery(current);
+                }
+            }
+            URI nextUri = next != null ? parse(next) : null;
+            if (nextUri == null) break;
+
+            current = nextUri;
+            resolved = key(current);
+        }
+        return resolved != null ? resolved : url;
+    }
+
+    /** Forget what is known for this URL and its origin, e.g. after the cached target failed. */
+    public void invalidate(String url) {
+        URI uri = parse(url);
+        if (uri == null) return;
+        urls.invalidate(key(uri));
+        origins.invalidate(origin(uri));
+    }
+
+    public long size() {
+        return origins.estimatedSize() + urls.estimatedSize();
+    }
+
+    /**
+     * Write both maps to {@code file}, replacing it atomically. Each save goes through its own
+     * temporary file, so saves from jobs finishing together (or from another process sharing the
+     * file) never write into each other's output.
+     */
+    public void save(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : origins.asMap().entrySet()) {
+                    out.write("O\t" + entry.getKey() + "\t" + entry.getValue());
+                    out.newLine();
+                }
+                for (Map.Entry<String, String> entry : urls.asMap().entrySet()) {
+                    out.write("U\t" + entry.getKey() + "\t" + entry.getValue());
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public void load(Path file) throws IOException {
+        if (!Files.exists(file)) return;
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] parts = line.split("\t");
+            if (parts.length != 3) continue;
+            if ("O".equals(parts[0])) {
+                origins.put(parts[1], parts[2]);
+            } else if ("U".equals(parts[0])) {
+                urls.put(parts[1], parts[2]);
+            }
+        }
+    }
+
+    private static URI parse(String url) {
+        try {
+            URI uri = URI.create(url.trim());
+            return uri.getScheme() != null && uri.getHost() != null ? uri : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String origin(URI uri) {
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        boolean defaultPort = port == -1 || ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+        return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + (defaultPort ? "" : ":" + port);
+    }
+
+    // Empty path and "/" are the same resource; fragments never reach the server
+    private static String pathAndQuery(URI uri) {
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) path = "/";
+        return uri.getRawQuery() != null ? path + "?" + uri.getRawQuery() : path;
+    }
+
+    private static String key(URI uri) {
+        return origin(uri) + pathAndQuery(uri);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.companyScraper.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the scrape pipeline. They cost next to nothing while no
+ * recording is running; during one they line up with JFR's own lock, sleep, I/O and allocation
+ * events, so a slow URL can be traced to where its time went. Every event carries the URL, its
+ * domain and the bytes it handled, and JFR adds the duration and thread.
+ */
+public final class ScrapeEvents {
+
+    static final String CATEGORY = "Company Scraper";
+
+    private ScrapeEvents() {
+    }
+
+    @Category(CATEGORY)
+    @StackTrace(false)
+    abstract static class UrlEvent extends Event {
+        @Label("URL")
+        String url;
+
+        @Label("Domain")
+        String domain;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        /** Fill in and commit, if the event is enabled and over its threshold. */
+        void end(String eventUrl, long eventBytes) {
+            bytes = eventBytes;
+            end(eventUrl);
+        }
+
+        void end(String eventUrl) {
+            if (!shouldCommit()) return;
+            url = eventUrl;
+            domain = UrlHosts.hostOf(eventUrl);
+            commit();
+        }
+    }
+
+    @Name("companyScraper.Scrape")
+    @Label("Scrape")
+    @Description("One fetch-and-extract attempt; bytes are read off the wire")
+    public static final class Scrape extends UrlEvent {
+        @Label("Status")
+        String status;
+    }
+
+    @Name("companyScraper.RateLimitWait")
+    @Label("Rate Limit Wait")
+    @Description("Waiting for the domain's request slot and the global minimum delay")
+    public static final class RateLimitWait extends UrlEvent {
+    }
+
+    @Name("companyScraper.ProxyLease")
+    @Label("Proxy Lease")
+    @Description("Choosing a proxy and waiting for one of its in-flight slots")
+    public static final class ProxyLease extends UrlEvent {
+        @Label("Proxy")
+        String proxy;
+    }
+
+    @Name("companyScraper.Extractor")
+    @Label("Extractor")
+    @Description("One extractor run over a page; bytes are the characters scanned")
+    public static final class Extractor extends UrlEvent {
+        @Label("Extractor")
+        String extractor;
+    }
+
+    @Name("companyScraper.AiCall")
+    @Label("AI Call")
+    @Description("People extraction request to the AI service; bytes are the characters sent")
+    public static final class AiCall extends UrlEvent {
+        @Label("People Found")
+        int people;
+    }
+}
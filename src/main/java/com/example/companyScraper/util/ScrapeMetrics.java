@@ -0,0 +1,169 @@
+package com.example.companyScraper.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Metrics for the scrape path: a timer per stage (with histogram buckets, so percentiles can be
+ * computed across instances), counters per URL outcome and HTTP status, in-flight and queue
+ * gauges, and per-domain and per-proxy series. Everything is recorded on Micrometer's global
+ * registry, which Spring Boot links to its own registries (and so to /actuator/prometheus);
+ * with no registry attached, recording costs next to nothing.
+ * <p>
+ * Domain and proxy tags are capped: the first {@code maxDomains} / {@code maxProxies} distinct
+ * values get their own series and everything after that is counted under "other", so a job
+ * with a million domains can't blow up the number of time series.
+ */
+public final class ScrapeMetrics {
+
+    public enum Stage {
+        DNS, CONNECT, TTFB, DOWNLOAD, PARSE,
+        EXTRACT_EMAILS, EXTRACT_PHONES, EXTRACT_LINKEDIN, EXTRACT_GITHUB, EXTRACT_FACEBOOK, EXTRACT_PEOPLE,
+        AI, EXPORT;
+
+        final String tag = name().toLowerCase(Locale.ROOT).replace('_', '.');
+    }
+
+    static final String OTHER = "other";
+
+    private static volatile MeterRegistry registry = Metrics.globalRegistry;
+    private static volatile BoundedTags domains = new BoundedTags(100);
+    private static volatile BoundedTags proxies = new BoundedTags(50);
+    private static final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    static {
+        registerInFlightGauge();
+    }
+
+    private ScrapeMetrics() {
+    }
+
+    /** Distinct domain and proxy tag values allowed before the rest are grouped as "other". */
+    public static void limitTags(int maxDomains, int maxProxies) {
+        domains = new BoundedTags(maxDomains);
+        proxies = new BoundedTags(maxProxies);
+    }
+
+    public static void record(Stage stage, long nanos) {
+        Timer.builder("scraper.stage.duration")
+            .description("Time spent per scrape stage")
+            .tag("stage", stage.tag)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static <T> T time(Stage stage, Supplier<T> body) {
+        long start = System.nanoTime();
+        try {
+            return body.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    /** Final status of one input URL, e.g. SUCCESS, FAILED, TIMEOUT or HTTP_404. */
+    public static void recordOutcome(String status) {
+        String outcome = status == null ? "unknown"
+            : status.startsWith("HTTP_") ? "http_error"
+            : status.toLowerCase(Locale.ROOT);
+        Counter.builder("scraper.urls")
+            .description("Input URLs finished, by outcome")
+            .tag("outcome", outcome)
+            .register(registry)
+            .increment();
+    }
+
+    /** A response came back (statusCode > 0) or the request failed outright (statusCode 0). */
+    public static void recordResponse(String url, int statusCode, long nanos) {
+        String status = statusCode > 0 ? String.valueOf(statusCode) : "error";
+        Counter.builder("scraper.http.responses")
+            .description("HTTP responses by status code")
+            .tag("status", status)
+            .register(registry)
+            .increment();
+        Timer.builder("scraper.domain.requests")
+            .description("Requests per domain, by status class")
+            .tag("domain", domains.admit(UrlHosts.hostOf(url)))
+            .tag("status", statusCode > 0 ? (statusCode / 100) + "xx" : "error")
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordProxy(Scraper.ProxyInfo proxy, boolean success, long millis) {
+        Timer.builder("scraper.proxy.requests")
+            .description("Requests per proxy, by outcome")
+            .tag("proxy", proxies.admit(proxy.host + ":" + proxy.port))
+            .tag("outcome", success ? "success" : "failure")
+            .register(registry)
+            .record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    public static void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    public static void requestFinished() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /** Queue depth, running tasks and active jobs of the scheduler. */
+    public static void registerGauges(JobScheduler scheduler) {
+        Gauge.builder("scraper.queue.depth", scheduler, JobScheduler::waitingTaskCount)
+            .description("Tasks of active jobs waiting for a worker (or for another node)")
+            .strongReference(true)
+            .register(registry);
+        Gauge.builder("scraper.tasks.running", scheduler, JobScheduler::runningTaskCount)
+            .description("Tasks running on this node's workers")
+            .strongReference(true)
+            .register(registry);
+        Gauge.builder("scraper.jobs.active", scheduler, JobScheduler::activeJobCount)
+            .description("Jobs queued or running")
+            .strongReference(true)
+            .register(registry);
+    }
+
+    // For tests: record on a given registry instead of the global one
+    static void useRegistry(MeterRegistry meterRegistry) {
+        registry = meterRegistry;
+        registerInFlightGauge();
+    }
+
+    private static void registerInFlightGauge() {
+        Gauge.builder("scraper.requests.inflight", inFlightRequests, AtomicInteger::get)
+            .description("HTTP requests currently open")
+            .register(registry);
+    }
+
+    // First come, first served: once full, new values are reported as "other"
+    static final class BoundedTags {
+        private final int max;
+        private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+
+        BoundedTags(int max) {
+            this.max = Math.max(0, max);
+        }
+
+        String admit(String value) {
+            if (value == null) return OTHER;
+            if (admitted.contains(value)) return value;
+            synchronized (this) {
+                if (admitted.size() < max) {
+                    admitted.add(value);
+                    return value;
+                }
+            }
+            return admitted.contains(value) ? value : OTHER;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.companyScraper.util;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.springframework.http.*;
@@ -9,31 +8,68 @@ import org.springframework.web.client.RestTemplate;
 import java.io.*;
 import java.net.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Scraper {
 
-    public enum ProxyRotationStrategy { NONE, RANDOM, ROUND_ROBIN, SMART }
+    // AFFINITY pins each domain to a few proxies via consistent hashing
+    public enum ProxyRotationStrategy { NONE, RANDOM, ROUND_ROBIN, SMART, AFFINITY }
     public enum ConnectionType { DIRECT, PROXY }
+    // RAW_HTML scans doc.html(); VISIBLE_TEXT scans rendered text plus href/data-phone/meta content only
+    public enum ExtractionScope { RAW_HTML, VISIBLE_TEXT }
 
-    private final List<ProxyInfo> proxies = Collections.synchronizedList(new ArrayList<>());
-    private final ProxyRotationStrategy strategy;
-    private final ConnectionType connectionType;
-    private final AtomicInteger rrIndex = new AtomicInteger(0);
-    private final Map<String, Long> domainLastAccess = Collections.synchronizedMap(new HashMap<>());
-    private final Map<String, Integer> domainRequestCount = Collections.synchronizedMap(new HashMap<>());
-    private final Map<ProxyInfo, ProxyStats> proxyStats = Collections.synchronizedMap(new HashMap<>());
+    // Swapped whole on reload; requests holding a lease on the previous pool finish on it
+    private volatile ProxyPool proxyPool = ProxyPool.EMPTY;
+    private volatile ProxyHealthChecker healthChecker;
+    private String healthCheckUrl;
+    private long healthCheckIntervalMs;
+    private String proxyFile;
+    private FileTime proxyFileModified;
+    private long proxyFileSize = -1;
+    private ScheduledExecutorService proxyFileWatcher;
+    // Per-domain cooldown; in-process unless replicas share a coordinator
+    private volatile DomainRateLimiter domainRateLimiter;
+    // Pooled client for all fetches; shared so connections survive Scraper rebuilds
+    private static final HttpFetcher HTTP_FETCHER = new HttpFetcher(4);
+    private final DocumentExtractor documentExtractor = new DocumentExtractor(this);
+    // Time per fetch, download only: no cooldown, proxy wait or retries. Hedging waits on its p95
+    private final DomainLatency fetchLatency = new DomainLatency();
+    private final LongAdder hedgedFetches = new LongAdder();
+    // Taken by a hedged race that ended without a winner, so a late response knows it lost
+    private static final HttpFetcher.PageResponse NO_WINNER =
+        new HttpFetcher.PageResponse(null, 0, null, null, new byte[0], 0, false, 0);
+    // Runs both sides of a hedged fetch; the calling worker only waits
+    private static final ExecutorService HEDGE_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "fetch-hedge");
+        t.setDaemon(true);
+        return t;
+    });
     
     // Enhanced configuration
     private final long minDelayBetweenRequests;
     private final long domainCooldownMs;
     private final int maxRetriesPerProxy;
-    private final boolean useDirectConnection;
+    // How long a request waits for a proxy under its in-flight cap before the attempt fails
+    private static final long PROXY_SLOT_WAIT_MS = 30_000;
+    private static final long PROXY_FILE_POLL_MS = 5_000;
 
     // Expanded and more realistic user agents
     private static final List<String> USER_AGENTS = Arrays.asList(
@@ -64,57 +100,126 @@ public class Scraper {
         DEFAULT_HEADERS.put("Cache-Control", "max-age=0");
     }
 
-    public Scraper(String proxyFile, boolean useProxies, ProxyRotationStrategy strategy) {
-        this(proxyFile, useProxies, strategy, 1000, 5000, 3);
-    }
-
-    public Scraper(String proxyFile, boolean useProxies, ProxyRotationStrategy strategy, 
-                   long minDelayMs, long domainCooldownMs, int maxRetriesPerProxy) {
-        this.strategy = strategy != null ? strategy : ProxyRotationStrategy.NONE;
-        this.connectionType = useProxies ? ConnectionType.PROXY : ConnectionType.DIRECT;
-        this.useDirectConnection = !useProxies;
+    /**
+     * One long-lived engine per service: politeness state, proxy stats and connection pools
+     * live here and survive across jobs. Which connection a request uses is decided per call
+     * by its {@link ExtractionOptions}.
+     */
+    public Scraper(long minDelayMs, long domainCooldownMs, int maxRetries) {
         this.minDelayBetweenRequests = minDelayMs;
         this.domainCooldownMs = domainCooldownMs;
-        this.maxRetriesPerProxy = maxRetriesPerProxy;
-        
-        if (useProxies && proxyFile != null && !proxyFile.isBlank()) {
-            loadProxies(proxyFile);
+        this.maxRetriesPerProxy = maxRetries;
+        this.domainRateLimiter = new DomainRateLimiter(new DomainRateLimiter.InProcessCoordinator(), domainIntervalMs(), 1);
+    }
+
+    /**
+     * Share per-domain cooldowns with other replicas through the coordinator. Slots are leased
+     * up to {@code blockSize} at a time, so the coordinator is consulted once per block.
+     */
+    public void useRateCoordinator(DomainRateLimiter.Coordinator coordinator, int blockSize) {
+        domainRateLimiter = new DomainRateLimiter(coordinator, domainIntervalMs(), blockSize);
+    }
+
+    // The minimum delay between requests applies per domain: a shorter cooldown is raised to it
+    private long domainIntervalMs() {
+        return Math.max(domainCooldownMs, minDelayBetweenRequests);
+    }
+
+    /**
+     * Load proxies from the file and keep watching it: when it changes, the pool is rebuilt
+     * and swapped in atomically, carrying over stats for proxies that are still listed.
+     * No-op when this file is already in use with the same in-flight cap.
+     *
+     * @param maxInFlightPerProxy concurrent requests allowed through one proxy; 0 for no limit
+     */
+    public synchronized void useProxyFile(String proxyFile, int maxInFlightPerProxy) {
+        if (proxyFile == null || proxyFile.isBlank()) return;
+        if (proxyFile.equals(this.proxyFile) && maxInFlightPerProxy == proxyPool.getMaxInFlightPerProxy()) return;
+
+        this.proxyFile = proxyFile;
+        this.proxyFileModified = null;
+        this.proxyFileSize = -1;
+        reloadProxies(maxInFlightPerProxy);
+
+        if (proxyFileWatcher == null) {
+            proxyFileWatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "proxy-file-watcher");
+                t.setDaemon(true);
+                return t;
+            });
+            // Polled rather than WatchService: inotify events don't cross bind-mounted volumes
+            proxyFileWatcher.scheduleWithFixedDelay(this::reloadProxiesIfChanged,
+                PROXY_FILE_POLL_MS, PROXY_FILE_POLL_MS, TimeUnit.MILLISECONDS);
         }
     }
 
-    // New constructor for direct connection only
-    public Scraper(long minDelayMs, long domainCooldownMs, int maxRetries) {
-        this.strategy = ProxyRotationStrategy.NONE;
-        this.connectionType = ConnectionType.DIRECT;
-        this.useDirectConnection = true;
-        this.minDelayBetweenRequests = minDelayMs;
-        this.domainCooldownMs = domainCooldownMs;
-        this.maxRetriesPerProxy = maxRetries;
+    public void useProxyFile(String proxyFile) {
+        useProxyFile(proxyFile, proxyPool.getMaxInFlightPerProxy());
     }
 
-    private void loadProxies(String proxyFile) {
+    /** Whether {@link #useProxyFile} with these arguments would leave the current pool as it is. */
+    public synchronized boolean usesProxyFile(String proxyFile, int maxInFlightPerProxy) {
+        return proxyFile.equals(this.proxyFile) && maxInFlightPerProxy == proxyPool.getMaxInFlightPerProxy();
+    }
+
+    public synchronized String getProxyFile() {
+        return proxyFile;
+    }
+
+    synchronized void reloadProxiesIfChanged() {
         try {
-            List<String> lines = Files.readAllLines(Paths.get(proxyFile));
-            for (String line : lines) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) continue;
-                
-                try {
-                    ProxyInfo proxy = parseProxyLine(line);
-                    if (proxy != null) {
-                        proxies.add(proxy);
-                        proxyStats.put(proxy, new ProxyStats());
-                    }
-                } catch (Exception e) {
-                    System.err.println("Failed to parse proxy line: " + line + " - " + e.getMessage());
-                }
+            Path path = Paths.get(proxyFile);
+            if (Files.getLastModifiedTime(path).equals(proxyFileModified) && Files.size(path) == proxyFileSize) return;
+            reloadProxies(proxyPool.getMaxInFlightPerProxy());
+        } catch (Exception e) {
+            System.err.println("Failed to check proxy file " + proxyFile + ": " + e.getMessage());
+        }
+    }
+
+    // A file that can't be read leaves the current pool in place
+    private void reloadProxies(int maxInFlightPerProxy) {
+        try {
+            Path path = Paths.get(proxyFile);
+            FileTime modified = Files.getLastModifiedTime(path);
+            long size = Files.size(path);
+            List<ProxyInfo> proxies = readProxies(path);
+
+            ProxyPool next = proxyPool.withProxies(proxies, maxInFlightPerProxy);
+            proxyPool = next;
+            proxyFileModified = modified;
+            proxyFileSize = size;
+            System.out.println("Loaded " + next.size() + " proxies from " + proxyFile);
+
+            // The checker is bound to a pool; move it to the new one
+            if (healthChecker != null) {
+                healthChecker.close();
+                healthChecker = null;
+                startHealthChecks(healthCheckUrl, healthCheckIntervalMs);
             }
-            System.out.println("Loaded " + proxies.size() + " proxies from " + proxyFile);
         } catch (IOException e) {
             System.err.println("Failed to load proxies from file: " + proxyFile + " - " + e.getMessage());
         }
     }
 
+    private List<ProxyInfo> readProxies(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        List<ProxyInfo> proxies = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            
+            try {
+                ProxyInfo proxy = parseProxyLine(line);
+                if (proxy != null) {
+                    proxies.add(proxy);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to parse proxy line: " + line + " - " + e.getMessage());
+            }
+        }
+        return proxies;
+    }
+
     private ProxyInfo parseProxyLine(String line) {
         // Support formats: host:port, host:port:user:pass, user:pass@host:port
         String[] parts;
@@ -145,24 +250,48 @@ public class Scraper {
     }
 
     public ScrapeResponse scrapeWithRetryLogging(String url, int retries) {
+        return scrapeWithRetryLogging(url, retries, ExtractionOptions.DEFAULT);
+    }
+
+    public ScrapeResponse scrapeWithRetryLogging(String url, int retries, ExtractionOptions extraction) {
+        return scrapeWithRetryLogging(url, retries, extraction, new HashSet<>());
+    }
+
+    /**
+     * Retries stop at the extraction deadline. Proxies already tried are kept in
+     * {@code triedProxies}, so a retry or a hedged fetch goes through a different one.
+     */
+    public ScrapeResponse scrapeWithRetryLogging(String url, int retries, ExtractionOptions extraction,
+                                                 Set<ProxyInfo> triedProxies) {
         Exception lastEx = null;
-        Set<ProxyInfo> triedProxies = new HashSet<>();
         
         for (int attempt = 0; attempt < retries; attempt++) {
-            try {
+            if (extraction.remainingMs() <= 0) {
+                lastEx = new TimeoutException("Deadline passed after " + attempt + " attempts");
+                break;
+            }
+            try (JobTrace.Span span = JobTrace.span("attempt " + (attempt + 1), "attempt")) {
                 // Enforce rate limiting
                 enforceRateLimit(url);
                 
-                Result result = scrape(url, triedProxies);
-                return new ScrapeResponse(result, null);
+                ScrapeResponse response = scrape(url, triedProxies, extraction);
+                span.detail(response.result.getStatus());
+                return response;
                 
+            } catch (InterruptedException e) {
+                // Cancelled, e.g. the losing side of a hedged request
+                Thread.currentThread().interrupt();
+                lastEx = e;
+                break;
             } catch (Exception e) {
                 lastEx = e;
                 System.err.println("Attempt " + (attempt + 1) + "/" + retries + " failed for " + url + ": " + e.getMessage());
                 
-                // Add random delay between retries
-                try {
-                    Thread.sleep(ThreadLocalRandom.current().nextInt(1000, 3000));
+                // Add random delay between retries, never past the deadline
+                try (JobTrace.Span span = JobTrace.span("retry backoff", "retry")) {
+                    span.detail(e.getMessage());
+                    long delay = Math.min(ThreadLocalRandom.current().nextInt(1000, 3000), extraction.remainingMs());
+                    if (delay > 0) Thread.sleep(delay);
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
                     break;
@@ -174,194 +303,407 @@ public class Scraper {
     }
 
     public Result scrape(String url) throws Exception {
-        return scrape(url, new HashSet<>());
+        return scrape(url, new HashSet<>(), ExtractionOptions.DEFAULT).result;
+    }
+
+    private ScrapeResponse scrape(String url, Set<ProxyInfo> triedProxies, ExtractionOptions extraction) throws Exception {
+        ScrapeEvents.Scrape event = new ScrapeEvents.Scrape();
+        event.begin();
+        event.status = "EXCEPTION";
+        try {
+            ScrapeResponse response = fetchAndExtract(url, triedProxies, extraction, event);
+            event.status = response.result.getStatus();
+            return response;
+        } finally {
+            event.end(url);
+        }
     }
 
-    private Result scrape(String url, Set<ProxyInfo> triedProxies) throws Exception {
+    private ScrapeResponse fetchAndExtract(String url, Set<ProxyInfo> triedProxies, ExtractionOptions extraction,
+                                           ScrapeEvents.Scrape event) throws Exception {
         String normUrl = normalizeUrl(url);
         
         // NO ROBOTS.TXT CHECKING - REMOVED COMPLETELY
         
         Document doc;
-        ProxyInfo selectedProxy = useDirectConnection ? null : selectProxy(triedProxies);
         String userAgent = getRandomUserAgent();
-        
-        // Build connection with enhanced settings
-        var connection = Jsoup.connect(normUrl)
-                .userAgent(userAgent)
-                .timeout(15000)
-                .followRedirects(true)
-                .maxBodySize(1024 * 1024 * 5) // 5MB limit
-                .ignoreHttpErrors(true); // Changed to true to handle errors gracefully
 
-        // Add realistic headers
-        for (Map.Entry<String, String> header : DEFAULT_HEADERS.entrySet()) {
-            connection.header(header.getKey(), header.getValue());
+        // Add realistic headers, with some randomization
+        Map<String, String> headers = new LinkedHashMap<>(DEFAULT_HEADERS);
+        if (ThreadLocalRandom.current().nextBoolean()) {
+            headers.put("Sec-CH-UA", getRandomChromeUA());
         }
 
-        // Add some randomization to headers
-        if (ThreadLocalRandom.current().nextBoolean()) {
-            connection.header("Sec-CH-UA", getRandomChromeUA());
+        HttpFetcher.PageResponse page = fetchPage(normUrl, triedProxies, extraction, userAgent, headers);
+        event.bytes = page.wireBytes;
+
+        // Check if we got a successful response
+        if (page.statusCode != 200) {
+            return new ScrapeResponse(new Result(normUrl, "HTTP_" + page.statusCode, 
+                Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), List.of(), 
+                "HTTP Error: " + page.statusCode), null);
+        }
+        if (!page.isMarkup()) {
+            // A direct link to a PDF/Word file goes to Tika, reading the body of this same response;
+            // anything else was dropped before its body was downloaded
+            if (page.document != null) {
+                Result document = documentExtractor.extractDocument(page.finalUrl, page.document, extraction);
+                return new ScrapeResponse(document != null ? document : new Result(normUrl, "FAILED",
+                    Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), List.of(), "Document extraction failed"), null);
+            }
+            return new ScrapeResponse(new Result(normUrl, "SKIPPED_CONTENT_TYPE",
+                Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), List.of(),
+                "Skipped non-HTML content: " + page.contentType).withBytesSkipped(page.bytesSkipped), null);
         }
+        long parseStart = System.nanoTime();
+        doc = JobTrace.time("parse", "cpu", page::parse);
+        ScrapeMetrics.record(ScrapeMetrics.Stage.PARSE, System.nanoTime() - parseStart);
 
-        if (selectedProxy != null) {
-            connection.proxy(selectedProxy.toProxy());
-            
-            // Handle proxy authentication
-            if (selectedProxy.user != null && selectedProxy.pass != null) {
-                String auth = Base64.getEncoder().encodeToString(
-                    (selectedProxy.user + ":" + selectedProxy.pass).getBytes()
-                );
-                connection.header("Proxy-Authorization", "Basic " + auth);
+        Result result = extract(normUrl, doc, extraction.scope);
+
+        if (extraction.extractDocuments) {
+            List<Result> documents;
+            try (JobTrace.Span span = JobTrace.span("documents", "io")) {
+                documents = documentExtractor.extractLinkedDocuments(doc, normUrl, extraction);
+                span.detail(documents.size() + " documents");
             }
-            
-            triedProxies.add(selectedProxy);
+            if (!documents.isEmpty()) {
+                List<Result> combined = new ArrayList<>();
+                combined.add(result);
+                combined.addAll(documents);
+                result = Result.merge(normUrl, combined);
+            }
+        }
+
+        return new ScrapeResponse(result, null, doc);
+    }
+
+    /**
+     * Fetch through one proxy and, with hedging on, through a second one as well once the first
+     * has taken longer than the domain's p95 fetch time; the first response wins. Both go out
+     * under the domain slot this attempt already holds, so the hedge never waits for a cooldown.
+     * The slower fetch is left to finish or hit the deadline, then releases its proxy.
+     */
+    private HttpFetcher.PageResponse fetchPage(String normUrl, Set<ProxyInfo> triedProxies, ExtractionOptions extraction,
+                                               String userAgent, Map<String, String> headers) throws Exception {
+        long hedgeAfter = extraction.hedge && extraction.usesProxies() ? fetchLatency.percentile(normUrl, 0.95) : -1;
+        if (hedgeAfter <= 0 || hedgeAfter >= extraction.remainingMs()) {
+            ProxyPool.Lease lease = leaseProxy(normUrl, triedProxies, extraction);
+            if (lease.proxy() != null) triedProxies.add(lease.proxy());
+            return fetchVia(normUrl, lease, extraction, userAgent, headers);
         }
 
+        CompletionService<HttpFetcher.PageResponse> race = new ExecutorCompletionService<>(HEDGE_EXECUTOR);
+        List<Future<HttpFetcher.PageResponse>> fetches = new ArrayList<>();
+        // The first response in; a document body left open by the other one is closed
+        AtomicReference<HttpFetcher.PageResponse> winner = new AtomicReference<>();
+        boolean settled = false;
         try {
-            doc = connection.get();
-            
-            // Check if we got a successful response
-            if (connection.response().statusCode() != 200) {
-                return new Result(normUrl, "HTTP_" + connection.response().statusCode(), 
-                    Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), List.of(), 
-                    "HTTP Error: " + connection.response().statusCode());
+            fetches.add(submitFetch(race, winner, normUrl, leaseProxy(normUrl, triedProxies, extraction), triedProxies,
+                extraction, userAgent, headers));
+            Future<HttpFetcher.PageResponse> done = race.poll(hedgeAfter, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                ProxyPool.Lease second = leaseProxy(normUrl, triedProxies, extraction);
+                if (second.proxy() != null && !triedProxies.contains(second.proxy())) {
+                    hedgedFetches.increment();
+                    System.out.println("Hedging " + normUrl + " after " + hedgeAfter + " ms");
+                    JobTrace.mark("hedge", "after " + hedgeAfter + " ms");
+                    fetches.add(submitFetch(race, winner, normUrl, second, triedProxies, extraction, userAgent, headers));
+                } else {
+                    // No other proxy to race through
+                    second.close();
+                }
             }
-            
-            // Update proxy stats on success
-            if (selectedProxy != null) {
-                ProxyStats stats = proxyStats.get(selectedProxy);
-                if (stats != null) {
-                    stats.recordSuccess();
+
+            Exception failure = null;
+            for (int pending = fetches.size(); pending > 0; pending--) {
+                if (done == null) done = race.take();
+                try {
+                    done.get();
+                    settled = true;
+                    return winner.get();
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof Exception cause ? cause : e;
                 }
+                done = null;
             }
-            
+            throw failure;
+        } finally {
+            fetches.forEach(fetch -> fetch.cancel(true));
+            if (!settled) {
+                // Nobody will read a response that comes in from here on
+                HttpFetcher.PageResponse orphan = winner.getAndSet(NO_WINNER);
+                if (orphan != null) closeDocument(orphan);
+            }
+        }
+    }
+
+    // The proxy is recorded as tried on the calling thread, before the fetch starts
+    private Future<HttpFetcher.PageResponse> submitFetch(CompletionService<HttpFetcher.PageResponse> race,
+                                                         AtomicReference<HttpFetcher.PageResponse> winner,
+                                                         String normUrl, ProxyPool.Lease lease,
+                                                         Set<ProxyInfo> triedProxies, ExtractionOptions extraction,
+                                                         String userAgent, Map<String, String> headers) {
+        if (lease.proxy() != null) triedProxies.add(lease.proxy());
+        return race.submit(JobTrace.propagate(() -> {
+            HttpFetcher.PageResponse page = fetchVia(normUrl, lease, extraction, userAgent, headers);
+            if (!winner.compareAndSet(null, page)) closeDocument(page);
+            return page;
+        }));
+    }
+
+    private static void closeDocument(HttpFetcher.PageResponse page) {
+        if (page.document == null) return;
+        try {
+            page.document.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * The proxy slot is held for the download only, not for parsing or extraction; for a
+     * document left open for Tika, until that response is closed. Proxy authentication is
+     * answered by the fetcher's credentials provider.
+     */
+    private HttpFetcher.PageResponse fetchVia(String normUrl, ProxyPool.Lease lease, ExtractionOptions extraction,
+                                              String userAgent, Map<String, String> headers) throws Exception {
+        HttpFetcher.PageResponse page = null;
+        try {
+            page = fetchVia(normUrl, lease.proxy(), extraction, userAgent, headers);
+            return page;
+        } finally {
+            if (page != null && page.document != null) {
+                page.document.releaseOnClose(lease);
+            } else {
+                lease.close();
+            }
+        }
+    }
+
+    private HttpFetcher.PageResponse fetchVia(String normUrl, ProxyInfo selectedProxy, ExtractionOptions extraction,
+                                              String userAgent, Map<String, String> headers) throws Exception {
+        long fetchStart = System.currentTimeMillis();
+        try (JobTrace.Span span = JobTrace.span("fetch", "io")) {
+            HttpFetcher.PageResponse page = HTTP_FETCHER.fetchPage(normUrl, selectedProxy, userAgent, headers,
+                extraction.maxBodyBytes, extraction.deadlineAt, extraction.extractDocuments);
+            long fetchMs = System.currentTimeMillis() - fetchStart;
+            fetchLatency.record(normUrl, fetchMs);
+            span.detail("HTTP " + page.statusCode + ", " + page.wireBytes + " bytes"
+                + (selectedProxy != null ? " via " + selectedProxy.host + ":" + selectedProxy.port : ""));
+
+            // Update proxy stats on success
+            if (selectedProxy != null && page.statusCode == 200 && (page.isMarkup() || page.document != null)) {
+                proxyPool.recordSuccess(selectedProxy, fetchMs);
+                ScrapeMetrics.recordProxy(selectedProxy, true, fetchMs);
+            }
+            return page;
+
         } catch (Exception e) {
             // Update proxy stats on failure
             if (selectedProxy != null) {
-                ProxyStats stats = proxyStats.get(selectedProxy);
+                proxyPool.recordFailure(selectedProxy, System.currentTimeMillis() - fetchStart);
+                ScrapeMetrics.recordProxy(selectedProxy, false, System.currentTimeMillis() - fetchStart);
+                ProxyPool.ProxyStats stats = proxyPool.stats(selectedProxy);
                 if (stats != null) {
-                    stats.recordFailure();
-                    
                     // If proxy has high failure rate, mark it as potentially bad
-                    if (stats.getFailureRate() > 0.7 && stats.totalRequests > 10) {
+                    if (stats.getFailureRate() > 0.7 && stats.getTotalRequests() > 10) {
                         System.err.println("Proxy " + selectedProxy.host + ":" + selectedProxy.port + 
                                          " has high failure rate: " + String.format("%.2f", stats.getFailureRate()));
                     }
+                    // Only quarantine when a checker is running to bring the proxy back
+                    ProxyHealthChecker checker = healthChecker;
+                    if (checker != null && !stats.isHealthy()) {
+                        checker.reportFailing(selectedProxy);
+                    }
                 }
             }
             throw e;
         }
+    }
 
+    /**
+     * Run every extractor over an already fetched page. Shared by single-page scrapes and the
+     * multi-page site crawl so both produce identical per-page results.
+     */
+    public Result extract(String normUrl, Document doc, ExtractionScope scope) {
         String html = doc.html();
+        // Regex extractors only see visible text and contact attributes in VISIBLE_TEXT mode
+        String scanText = scope == ExtractionScope.VISIBLE_TEXT ? VisibleTextCollector.collect(doc) : html;
 
         // -------- Extract Information --------
-        Set<String> emails = EmailExtractor.extractEmails(html);
-        Set<String> phones = PhoneExtractor.extractPhones(html);
+        Set<String> emails = runExtractor(ScrapeMetrics.Stage.EXTRACT_EMAILS, normUrl, scanText.length(),
+            () -> EmailExtractor.extractEmails(scanText));
+        Set<String> phones = runExtractor(ScrapeMetrics.Stage.EXTRACT_PHONES, normUrl, scanText.length(),
+            () -> extractPhones(normUrl, doc, scanText));
+        Set<String> linkedins = runExtractor(ScrapeMetrics.Stage.EXTRACT_LINKEDIN, normUrl, scanText.length(),
+            () -> LinkedInExtractor.extractLinkedInUrls(scanText));
+        Set<String> githubs = runExtractor(ScrapeMetrics.Stage.EXTRACT_GITHUB, normUrl, scanText.length(),
+            () -> GitHubExtractor.extractGitHubUrls(scanText));
+        Set<String> facebooks = runExtractor(ScrapeMetrics.Stage.EXTRACT_FACEBOOK, normUrl, scanText.length(),
+            () -> FacebookExtractor.extractFacebookUrls(scanText));
+        List<Person> people = runExtractor(ScrapeMetrics.Stage.EXTRACT_PEOPLE, normUrl, html.length(),
+            () -> NameRoleExtractor.extractPeopleWithAI(html, normUrl));
+
+        // Enhanced notes with more context
+        String notes = generateNotes(emails, phones, linkedins, githubs, facebooks, people, doc);
+
+        return new Result(normUrl, "SUCCESS", emails, phones, linkedins, githubs, facebooks, people, notes);
+    }
+
+    // Timed for the metrics, on the job's trace and, while a flight recording runs, as a JFR event
+    private static <T> T runExtractor(ScrapeMetrics.Stage stage, String url, long chars, Supplier<T> extractor) {
+        ScrapeEvents.Extractor event = new ScrapeEvents.Extractor();
+        event.extractor = stage.tag;
+        event.begin();
+        try {
+            return JobTrace.time(stage.tag, "extract", () -> ScrapeMetrics.time(stage, extractor));
+        } finally {
+            event.end(url, chars);
+        }
+    }
+
+    private static Set<String> extractPhones(String normUrl, Document doc, String scanText) {
+        // Resolve the phone region once per page rather than per candidate
+        String phoneRegion = PhoneExtractor.inferRegion(normUrl, doc);
+        Set<String> phones = PhoneExtractor.extractValidNormalizedPhones(scanText, phoneRegion);
 
         // Extract phone numbers from tel: links
         for (Element el : doc.select("a[href^=tel]")) {
             String tel = el.attr("href").replace("tel:", "").trim();
             if (!tel.isEmpty()) {
-                String cleanPhone = PhoneExtractor.cleanAndFormatPhone(tel);
+                String cleanPhone = PhoneExtractor.cleanAndFormatPhone(tel, phoneRegion);
                 if (!cleanPhone.isEmpty()) {
                     phones.add(cleanPhone);
                 }
             }
         }
+        return phones;
+    }
 
-        Set<String> linkedins = LinkedInExtractor.extractLinkedInUrls(html);
-        Set<String> githubs = GitHubExtractor.extractGitHubUrls(html);
-        Set<String> facebooks = FacebookExtractor.extractFacebookUrls(html);
-        List<Person> people = NameRoleExtractor.extractPeopleWithAI(html, normUrl);
+    /**
+     * Throttle the next request to this URL's domain. Exposed so multi-request stages (site crawl,
+     * discovery) share the same per-domain cooldown as single-page scrapes.
+     */
+    public void awaitDomainSlot(String url) throws InterruptedException {
+        enforceRateLimit(url);
+    }
 
-        // Enhanced notes with more context
-        String notes = generateNotes(emails, phones, linkedins, githubs, facebooks, people, doc);
+    private void enforceRateLimit(String url) throws InterruptedException {
+        String domain = Objects.requireNonNullElse(UrlHosts.hostOf(url), url);
+        ScrapeEvents.RateLimitWait event = new ScrapeEvents.RateLimitWait();
+        event.begin();
+        try (JobTrace.Span span = JobTrace.span("domain cooldown", "wait")) {
+            span.detail(domain);
+            // Waiting for one domain's slot doesn't hold up requests to other domains; the
+            // per-domain slots are the only pacing, there is no global gap between requests
+            domainRateLimiter.acquire(domain);
+        } finally {
+            event.end(url);
+        }
+    }
 
-        return new Result(normUrl, "SUCCESS", emails, phones, linkedins, githubs, facebooks, people, notes);
+    // NO ROBOTS.TXT CHECKING - METHOD REMOVED COMPLETELY
+
+    /**
+     * Probe the loaded proxies in the background and keep dead ones out of rotation.
+     * No-op when no proxies were loaded; follows the pool across proxy file reloads.
+     */
+    public synchronized void startHealthChecks(String checkUrl, long intervalMs) {
+        healthCheckUrl = checkUrl;
+        healthCheckIntervalMs = intervalMs;
+        if (proxyPool.isEmpty() || healthChecker != null) return;
+        ProxyHealthChecker checker = new ProxyHealthChecker(proxyPool, HTTP_FETCHER, checkUrl, intervalMs);
+        checker.start();
+        healthChecker = checker;
     }
 
-    private void enforceRateLimit(String url) throws InterruptedException {
-        String domain = extractDomain(url);
-        
-        synchronized (domainLastAccess) {
-            Long lastAccess = domainLastAccess.get(domain);
-            long now = System.currentTimeMillis();
-            
-            if (lastAccess != null) {
-                long timeSinceLastAccess = now - lastAccess;
-                long waitTime = Math.max(0, domainCooldownMs - timeSinceLastAccess);
-                
-                if (waitTime > 0) {
-                    Thread.sleep(waitTime);
-                }
-            }
-            
-            // Also enforce minimum delay between any requests
-            if (minDelayBetweenRequests > 0) {
-                Thread.sleep(ThreadLocalRandom.current().nextLong(minDelayBetweenRequests/2, minDelayBetweenRequests));
-            }
-            
-            domainLastAccess.put(domain, System.currentTimeMillis());
-            domainRequestCount.merge(domain, 1, Integer::sum);
+    public synchronized void stopHealthChecks() {
+        if (healthChecker != null) {
+            healthChecker.close();
+            healthChecker = null;
         }
     }
 
-    private String extractDomain(String url) {
-        try {
-            return new URL(url).getHost().toLowerCase();
-        } catch (Exception e) {
-            return url;
+    /** Stop background work: health checks and proxy file watching. */
+    public synchronized void close() {
+        stopHealthChecks();
+        if (proxyFileWatcher != null) {
+            proxyFileWatcher.shutdownNow();
+            proxyFileWatcher = null;
         }
     }
 
-    // NO ROBOTS.TXT CHECKING - METHOD REMOVED COMPLETELY
+    public ProxyPool getProxyPool() {
+        return proxyPool;
+    }
 
-    private ProxyInfo selectProxy(Set<ProxyInfo> triedProxies) {
-        if (proxies.isEmpty() || strategy == ProxyRotationStrategy.NONE) return null;
+    private ProxyPool.Lease leaseProxy(String url, Set<ProxyInfo> triedProxies, ExtractionOptions extraction)
+            throws IOException, InterruptedException {
+        if (!extraction.usesProxies()) return ProxyPool.Lease.NONE;
+        ScrapeEvents.ProxyLease event = new ScrapeEvents.ProxyLease();
+        event.begin();
+        ProxyPool.Lease lease = null;
+        try (JobTrace.Span span = JobTrace.span("proxy wait", "wait")) {
+            lease = proxyPool.acquire(extraction.proxyStrategy, affinityKey(url), triedProxies, PROXY_SLOT_WAIT_MS);
+            if (lease.proxy() != null) span.detail(lease.proxy().host + ":" + lease.proxy().port);
+            return lease;
+        } finally {
+            ProxyInfo proxy = lease != null ? lease.proxy() : null;
+            event.proxy = proxy != null ? proxy.host + ":" + proxy.port : null;
+            event.end(url);
+        }
+    }
 
-        List<ProxyInfo> availableProxies = proxies.stream()
-            .filter(p -> !triedProxies.contains(p))
-            .filter(this::isProxyHealthy)
-            .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    // Proxy slot for a standalone request outside the retry loop; carries no proxy when connecting directly
+    ProxyPool.Lease leaseProxy(String url, ExtractionOptions extraction) throws IOException, InterruptedException {
+        return leaseProxy(url, new HashSet<>(), extraction);
+    }
 
-        if (availableProxies.isEmpty()) {
-            // If all proxies have been tried, reset and try the best ones
-            availableProxies = proxies.stream()
-                .filter(this::isProxyHealthy)
-                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
-        }
+    // www.example.com and example.com share their pinned proxies
+    private String affinityKey(String url) {
+        return Objects.requireNonNullElse(UrlHosts.siteOf(url), url);
+    }
 
-        if (availableProxies.isEmpty()) return null;
+    HttpFetcher getHttpFetcher() {
+        return HTTP_FETCHER;
+    }
 
-        switch (strategy) {
-            case RANDOM:
-                return availableProxies.get(ThreadLocalRandom.current().nextInt(availableProxies.size()));
-                
-            case ROUND_ROBIN:
-                int index = rrIndex.getAndIncrement() % availableProxies.size();
-                return availableProxies.get(index);
-                
-            case SMART:
-                // Select proxy based on success rate
-                return availableProxies.stream()
-                    .max(Comparator.comparing(p -> proxyStats.get(p).getSuccessRate()))
-                    .orElse(availableProxies.get(0));
-                    
-            default:
-                return null;
-        }
+    public DomainLatency getFetchLatency() {
+        return fetchLatency;
     }
 
-    private boolean isProxyHealthy(ProxyInfo proxy) {
-        ProxyStats stats = proxyStats.get(proxy);
-        if (stats == null) return true;
-        
-        // Consider proxy healthy if it has good success rate or hasn't been used much
-        return stats.totalRequests < 5 || stats.getSuccessRate() > 0.3;
+    public long getHedgedFetches() {
+        return hedgedFetches.sum();
+    }
+
+    public TransferStats getTransferStats() {
+        return HTTP_FETCHER.getTransferStats();
+    }
+
+    public CachingDnsResolver getDnsResolver() {
+        return HTTP_FETCHER.getDnsResolver();
+    }
+
+    public RedirectCache getRedirectCache() {
+        return HTTP_FETCHER.getRedirectCache();
+    }
+
+    /**
+     * Warm the DNS cache for URLs that will be fetched soon. Skipped when going through
+     * proxies, since the proxy resolves the target host, not us.
+     */
+    public void prefetchDns(List<String> upcomingUrls, ExtractionOptions extraction) {
+        if (extraction.usesProxies() && !proxyPool.isEmpty()) return;
+        for (String url : upcomingUrls) {
+            try {
+                HTTP_FETCHER.getDnsResolver().prefetch(URI.create(normalizeUrl(url)).getHost());
+            } catch (Exception ignored) {
+                // Malformed URLs fail properly when they are scraped
+            }
+        }
     }
 
-    private String getRandomUserAgent() {
+    String getRandomUserAgent() {
         return USER_AGENTS.get(ThreadLocalRandom.current().nextInt(USER_AGENTS.size()));
     }
 
@@ -371,8 +713,11 @@ public class Scraper {
         return "\"Not_A Brand\";v=\"8\", \"Chromium\";v=\"" + version + "\", \"Google Chrome\";v=\"" + version + "\"";
     }
 
-    private String generateNotes(Set<String> emails, Set<String> phones, Set<String> linkedins, Set<String> githubs, Set<String> facebooks, List<Person> people, Document doc) {
+    private static String generateNotes(Set<String> emails, Set<String> phones, Set<String> linkedins, Set<String> githubs, Set<String> facebooks, List<Person> people, Document doc) {
         if (emails.isEmpty() && phones.isEmpty() && linkedins.isEmpty() && githubs.isEmpty() && facebooks.isEmpty() && people.isEmpty()) {
+            if (doc == null) {
+                return "No contact info found";
+            }
             // Try to provide more context about why no contact info was found
             if (doc.select("form").size() > 0) {
                 return "No contact info found - page has forms, might require interaction";
@@ -425,15 +770,6 @@ public class Scraper {
         return url;
     }
 
-    // Getters for configuration
-    public boolean isUseDirectConnection() {
-        return useDirectConnection;
-    }
-    
-    public ConnectionType getConnectionType() {
-        return connectionType;
-    }
-
     // -------- Nested Classes --------
     
     public static class ProxyInfo {
@@ -472,33 +808,6 @@ public class Scraper {
         }
     }
 
-    private static class ProxyStats {
-        private int successCount = 0;
-        private int failureCount = 0;
-        private int totalRequests = 0;
-        private long lastUsed = 0;
-
-        synchronized void recordSuccess() {
-            successCount++;
-            totalRequests++;
-            lastUsed = System.currentTimeMillis();
-        }
-
-        synchronized void recordFailure() {
-            failureCount++;
-            totalRequests++;
-            lastUsed = System.currentTimeMillis();
-        }
-
-        synchronized double getSuccessRate() {
-            return totalRequests == 0 ? 1.0 : (double) successCount / totalRequests;
-        }
-
-        synchronized double getFailureRate() {
-            return totalRequests == 0 ? 0.0 : (double) failureCount / totalRequests;
-        }
-    }
-
     public static class Result {
         private final String url;
         private final String status;
@@ -509,6 +818,8 @@ public class Scraper {
         private final Set<String> facebookUrls;
         private final List<Person> people;
         private final String notes;
+        // Body bytes never downloaded because the content type had nothing to extract
+        private final long bytesSkipped;
 
         public Result(String url, String status) {
             this(url, status, Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), List.of(), null);
@@ -517,6 +828,12 @@ public class Scraper {
         public Result(String url, String status, Set<String> emails, Set<String> phones,
                       Set<String> linkedinUrls, Set<String> githubUrls, Set<String> facebookUrls,
                       List<Person> people, String notes) {
+            this(url, status, emails, phones, linkedinUrls, githubUrls, facebookUrls, people, notes, 0);
+        }
+
+        private Result(String url, String status, Set<String> emails, Set<String> phones,
+                       Set<String> linkedinUrls, Set<String> githubUrls, Set<String> facebookUrls,
+                       List<Person> people, String notes, long bytesSkipped) {
             this.url = url;
             this.status = status;
             this.emails = emails != null ? emails : Set.of();
@@ -526,6 +843,12 @@ public class Scraper {
             this.facebookUrls = facebookUrls != null ? facebookUrls : Set.of();
             this.people = people != null ? people : List.of();
             this.notes = notes;
+            this.bytesSkipped = bytesSkipped;
+        }
+
+        public Result withBytesSkipped(long bytesSkipped) {
+            return new Result(url, status, emails, phones, linkedinUrls, githubUrls, facebookUrls, people, notes,
+                bytesSkipped);
         }
 
         public String getUrl() { return url; }
@@ -537,16 +860,141 @@ public class Scraper {
         public Set<String> getFacebookUrls() { return facebookUrls; }
         public List<Person> getPeople() { return people; }
         public String getNotes() { return notes; }
+        public long getBytesSkipped() { return bytesSkipped; }
         public boolean isSuccess() { return "SUCCESS".equalsIgnoreCase(status); }
+
+        /**
+         * Combine the per-page results of one site into a single result for its input URL.
+         * Succeeds if any page succeeded; people are de-duplicated by name.
+         */
+        public static Result merge(String url, List<Result> pages) {
+            if (pages == null || pages.isEmpty()) return new Result(url, "FAILED");
+            if (pages.size() == 1) {
+                Result only = pages.get(0);
+                return new Result(url, only.status, only.emails, only.phones, only.linkedinUrls,
+                    only.githubUrls, only.facebookUrls, only.people, only.notes, only.bytesSkipped);
+            }
+
+            Set<String> emails = new LinkedHashSet<>();
+            Set<String> phones = new LinkedHashSet<>();
+            Set<String> linkedins = new LinkedHashSet<>();
+            Set<String> githubs = new LinkedHashSet<>();
+            Set<String> facebooks = new LinkedHashSet<>();
+            Map<String, Person> people = new LinkedHashMap<>();
+            int succeeded = 0;
+            long skipped = 0;
+
+            for (Result page : pages) {
+                skipped += page.bytesSkipped;
+                if (!page.isSuccess()) continue;
+                succeeded++;
+                emails.addAll(page.emails);
+                phones.addAll(page.phones);
+                linkedins.addAll(page.linkedinUrls);
+                githubs.addAll(page.githubUrls);
+                facebooks.addAll(page.facebookUrls);
+                for (Person person : page.people) {
+                    String key = (person.getFirstName() + " " + (person.getLastName() != null ? person.getLastName() : ""))
+                        .toLowerCase().trim();
+                    people.putIfAbsent(key, person);
+                }
+            }
+
+            if (succeeded == 0) {
+                Result first = pages.get(0);
+                return new Result(url, first.status, Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), List.of(), first.notes,
+                    skipped);
+            }
+
+            List<Person> mergedPeople = new ArrayList<>(people.values());
+            String notes = "Pages: " + succeeded + "/" + pages.size() + " - "
+                + generateNotes(emails, phones, linkedins, githubs, facebooks, mergedPeople, null);
+            return new Result(url, "SUCCESS", emails, phones, linkedins, githubs, facebooks, mergedPeople, notes,
+                skipped);
+        }
+    }
+
+    /**
+     * Per-call extraction and connection settings. Immutable and passed with each request, so a
+     * single Scraper can serve jobs that asked for different extraction behaviour or routing.
+     */
+    public static class ExtractionOptions {
+        public static final long DEFAULT_MAX_BODY_BYTES = 5L * 1024 * 1024;
+        public static final ExtractionOptions DEFAULT = new ExtractionOptions(ExtractionScope.RAW_HTML, false, 0);
+
+        public final ExtractionScope scope;
+        public final boolean extractDocuments;
+        public final int maxDocuments;
+        // Decoded bytes read per page before giving up on finding </body>
+        public final long maxBodyBytes;
+        public final ConnectionType connection;
+        public final ProxyRotationStrategy proxyStrategy;
+        // Epoch millis by which the whole URL must be done, retries included; 0 for none
+        public final long deadlineAt;
+        // Race a slow proxied fetch through a second proxy
+        public final boolean hedge;
+
+        public ExtractionOptions(ExtractionScope scope, boolean extractDocuments, int maxDocuments) {
+            this(scope, extractDocuments, maxDocuments, DEFAULT_MAX_BODY_BYTES);
+        }
+
+        public ExtractionOptions(ExtractionScope scope, boolean extractDocuments, int maxDocuments, long maxBodyBytes) {
+            this(scope, extractDocuments, maxDocuments, maxBodyBytes, ConnectionType.DIRECT, ProxyRotationStrategy.NONE);
+        }
+
+        public ExtractionOptions(ExtractionScope scope, boolean extractDocuments, int maxDocuments, long maxBodyBytes,
+                                 ConnectionType connection, ProxyRotationStrategy proxyStrategy) {
+            this(scope, extractDocuments, maxDocuments, maxBodyBytes, connection, proxyStrategy, 0);
+        }
+
+        public ExtractionOptions(ExtractionScope scope, boolean extractDocuments, int maxDocuments, long maxBodyBytes,
+                                 ConnectionType connection, ProxyRotationStrategy proxyStrategy, long deadlineAt) {
+            this(scope, extractDocuments, maxDocuments, maxBodyBytes, connection, proxyStrategy, deadlineAt, false);
+        }
+
+        public ExtractionOptions(ExtractionScope scope, boolean extractDocuments, int maxDocuments, long maxBodyBytes,
+                                 ConnectionType connection, ProxyRotationStrategy proxyStrategy, long deadlineAt,
+                                 boolean hedge) {
+            this.scope = scope != null ? scope : ExtractionScope.RAW_HTML;
+            this.extractDocuments = extractDocuments && maxDocuments > 0;
+            this.maxDocuments = Math.max(0, maxDocuments);
+            this.maxBodyBytes = maxBodyBytes > 0 ? maxBodyBytes : DEFAULT_MAX_BODY_BYTES;
+            this.connection = connection != null ? connection : ConnectionType.DIRECT;
+            this.proxyStrategy = proxyStrategy != null ? proxyStrategy : ProxyRotationStrategy.NONE;
+            this.deadlineAt = Math.max(0, deadlineAt);
+            this.hedge = hedge;
+        }
+
+        public ExtractionOptions withDeadline(long deadlineAt) {
+            return new ExtractionOptions(scope, extractDocuments, maxDocuments, maxBodyBytes, connection, proxyStrategy,
+                deadlineAt, hedge);
+        }
+
+        /** Milliseconds left before the deadline; Long.MAX_VALUE when there is none. */
+        public long remainingMs() {
+            return deadlineAt > 0 ? deadlineAt - System.currentTimeMillis() : Long.MAX_VALUE;
+        }
+
+        // With no proxies loaded, a proxied request falls back to a direct connection
+        public boolean usesProxies() {
+            return connection == ConnectionType.PROXY && proxyStrategy != ProxyRotationStrategy.NONE;
+        }
     }
 
     public static class ScrapeResponse {
         public final Result result;
         public final Exception error;
+        // Parsed page for callers that keep crawling from it; null on failure
+        public final Document document;
         
         public ScrapeResponse(Result result, Exception error) { 
+            this(result, error, null);
+        }
+
+        public ScrapeResponse(Result result, Exception error, Document document) {
             this.result = result; 
             this.error = error; 
+            this.document = document;
         }
     }
 
@@ -0,0 +1,419 @@
+package com.example.companyScraper.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Work queue shared by several instances through a common directory (a volume mounted into
+ * every node). URLs are sharded by a hash of their domain, so a domain is always scraped by the
+ * same node and its cooldown never has to be coordinated. The node that accepted a job keeps its
+ * own shard and publishes the others:
+ *
+ * <pre>
+ * &lt;dir&gt;/&lt;key&gt;/job.json                  owner and options
+ * &lt;dir&gt;/&lt;key&gt;/shard-&lt;n&gt;.tasks             "index TAB url" lines for node n
+ * &lt;dir&gt;/&lt;key&gt;/shard-&lt;n&gt;.results.jsonl     appended by node n, read back by the owner
+ * &lt;dir&gt;/&lt;key&gt;/shard-&lt;n&gt;.done              node n has finished its shard
+ * &lt;dir&gt;/&lt;key&gt;/shard-&lt;n&gt;.lease             touched by node n while it works on the shard
+ * &lt;dir&gt;/&lt;key&gt;/shard-&lt;n&gt;.reclaimed         the owner took the shard back
+ * </pre>
+ *
+ * Every file has a single writer. Only node n ever works on shard n, so a node that restarts
+ * simply picks its unfinished shards up again and skips the indexes it already reported. The
+ * owner deletes the job directory when the job completes or is cancelled, which also tells the
+ * other nodes to stop.
+ * <p>
+ * A node renews the lease of every shard it's working on with {@link #heartbeat}. If the owner
+ * sees a shard's lease unchanged for the lease timeout (never claimed at all, or renewed and then
+ * stopped), {@link #reclaimExpired} takes the shard back so the owner can run what's left itself:
+ * a node that is down, misnumbered or crashed can't stall the job. The owner only compares what
+ * it sees against its own clock, so the nodes' clocks don't have to agree.
+ */
+public class ShardedWorkQueue<O, R> {
+
+    private static final String JOB_FILE = "job.json";
+    public static final long DEFAULT_LEASE_TIMEOUT_MS = 30_000;
+
+    private final Path dir;
+    private final int nodeIndex;
+    private final int nodeCount;
+    private final Class<O> optionsType;
+    private final Class<R> resultType;
+    private final long leaseTimeoutMs;
+    private final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    // Keys are unique per process start, so a restarted owner never mixes up old and new jobs
+    private final String keyPrefix;
+    // Shards this node is working on, and how far into each results file the owner has read
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Long> readOffsets = new ConcurrentHashMap<>();
+    // Owner side: last lease timestamp seen per shard, and when (by this node's clock) it last changed
+    private final Map<Path, long[]> leasesSeen = new ConcurrentHashMap<>();
+
+    public ShardedWorkQueue(Path dir, int nodeIndex, int nodeCount, Class<O> optionsType, Class<R> resultType) {
+        this(dir, nodeIndex, nodeCount, optionsType, resultType, DEFAULT_LEASE_TIMEOUT_MS);
+    }
+
+    public ShardedWorkQueue(Path dir, int nodeIndex, int nodeCount, Class<O> optionsType, Class<R> resultType,
+                            long leaseTimeoutMs) {
+        if (nodeCount < 1 || nodeIndex < 0 || nodeIndex >= nodeCount) {
+            throw new IllegalArgumentException("Node index " + nodeIndex + " out of range for " + nodeCount + " nodes");
+        }
+        this.dir = dir;
+        this.nodeIndex = nodeIndex;
+        this.nodeCount = nodeCount;
+        this.optionsType = optionsType;
+        this.resultType = resultType;
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        this.keyPrefix = ownerPrefix(nodeIndex) + Long.toString(System.currentTimeMillis(), 36) + "-";
+    }
+
+    public int getNodeIndex() { return nodeIndex; }
+    public int getNodeCount() { return nodeCount; }
+
+    /** Node that owns the URL's domain; www.example.com and example.com land on the same node. */
+    public int shardOf(String url) {
+        String host = UrlHosts.hostOf(url);
+        if (host == null) return nodeIndex;
+        if (host.startsWith("www.")) host = host.substring(4);
+        // String.hashCode is specified, so every node computes the same shard
+        return Math.floorMod(host.hashCode(), nodeCount);
+    }
+
+    /**
+     * Publish the URLs at the given indexes to the nodes owning their domains. Returns the key
+     * to collect results with, or null when there was nothing to publish.
+     */
+    public String publish(String jobId, O options, List<String> urls, BitSet remote) throws IOException {
+        if (remote.isEmpty()) return null;
+        String key = keyPrefix + jobId;
+        Path jobDir = dir.resolve(key);
+        Files.createDirectories(jobDir);
+
+        ObjectNode job = mapper.createObjectNode();
+        job.put("owner", nodeIndex);
+        job.set("options", mapper.valueToTree(options));
+        writeAtomically(jobDir.resolve(JOB_FILE), mapper.writeValueAsBytes(job));
+
+        StringBuilder[] shards = new StringBuilder[nodeCount];
+        remote.stream().forEach(i -> {
+            int shard = shardOf(urls.get(i));
+            if (shards[shard] == null) shards[shard] = new StringBuilder();
+            shards[shard].append(i).append('\t').append(urls.get(i)).append('\n');
+        });
+        for (int shard = 0; shard < nodeCount; shard++) {
+            if (shards[shard] == null) continue;
+            writeAtomically(jobDir.resolve("shard-" + shard + ".tasks"),
+                shards[shard].toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return key;
+    }
+
+    /** Hand every result reported since the last call to the sink, by task index. */
+    public void collect(String key, BiConsumer<Integer, R> sink) {
+        Path jobDir = dir.resolve(key);
+        for (int shard = 0; shard < nodeCount; shard++) {
+            Path results = jobDir.resolve("shard-" + shard + ".results.jsonl");
+            if (!Files.exists(results)) continue;
+            try (FileChannel in = FileChannel.open(results, StandardOpenOption.READ)) {
+                long offset = readOffsets.getOrDefault(results, 0L);
+                if (in.size() <= offset) continue;
+
+                ByteBuffer buffer = ByteBuffer.allocate((int) (in.size() - offset));
+                while (buffer.hasRemaining() && in.read(buffer, offset + buffer.position()) > 0) { }
+                // Only whole lines; the node may be in the middle of appending the next one
+                int end = buffer.position();
+                while (end > 0 && buffer.get(end - 1) != '\n') end--;
+                if (end == 0) continue;
+
+                String chunk = new String(buffer.array(), 0, end, StandardCharsets.UTF_8);
+                for (String line : chunk.split("\n")) {
+                    if (line.isBlank()) continue;
+                    JsonNode node;
+                    try {
+                        node = mapper.readTree(line);
+                    } catch (IOException e) {
+                        // Torn line from a node that crashed mid-write; it reports that index again
+                        continue;
+                    }
+                    JsonNode result = node.get("result");
+                    sink.accept(node.get("index").asInt(),
+                        result == null || result.isNull() ? null : mapper.treeToValue(result, resultType));
+                }
+                readOffsets.put(results, offset + end);
+            } catch (IOException e) {
+                System.err.println("Failed to collect results from " + results + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Shards waiting for this node that it isn't already working on. */
+    public List<Shard> claim() {
+        List<Shard> claimed = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return claimed;
+
+        try (DirectoryStream<Path> jobs = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path jobDir : jobs) {
+                String key = jobDir.getFileName().toString();
+                Path tasks = jobDir.resolve("shard-" + nodeIndex + ".tasks");
+                if (!Files.exists(tasks) || Files.exists(jobDir.resolve("shard-" + nodeIndex + ".done"))) continue;
+                if (Files.exists(jobDir.resolve("shard-" + nodeIndex + ".reclaimed"))) continue;
+                if (!active.add(key)) continue;
+                try {
+                    renewLease(jobDir);
+                    claimed.add(read(key, jobDir, tasks));
+                } catch (Exception e) {
+                    active.remove(key);
+                    System.err.println("Failed to read shard " + tasks + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list work queue " + dir + ": " + e.getMessage());
+        }
+        return claimed;
+    }
+
+    /** Renew the lease of every shard this node is working on; call well within the lease timeout. */
+    public void heartbeat() {
+        for (String key : active) {
+            Path jobDir = dir.resolve(key);
+            if (!Files.isDirectory(jobDir)) continue;
+            try {
+                renewLease(jobDir);
+            } catch (IOException e) {
+                System.err.println("Failed to renew lease on " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Owner side: take back the shards of a published job whose lease hasn't changed for the
+     * lease timeout, and return the indexes they never reported. The node sees the shard as
+     * dropped and stops; anything it still reports for those indexes is ignored by the job.
+     */
+    public BitSet reclaimExpired(String key) {
+        BitSet expired = new BitSet();
+        Path jobDir = dir.resolve(key);
+        long now = System.currentTimeMillis();
+        for (int shard = 0; shard < nodeCount; shard++) {
+            if (shard == nodeIndex) continue;
+            String prefix = "shard-" + shard;
+            Path tasks = jobDir.resolve(prefix + ".tasks");
+            if (!Files.exists(tasks) || Files.exists(jobDir.resolve(prefix + ".done"))
+                || Files.exists(jobDir.resolve(prefix + ".reclaimed"))) continue;
+
+            Path lease = jobDir.resolve(prefix + ".lease");
+            long stamp = leaseStamp(lease);
+            long[] seen = leasesSeen.computeIfAbsent(lease, l -> new long[] {stamp, now});
+            if (seen[0] != stamp) {
+                seen[0] = stamp;
+                seen[1] = now;
+                continue;
+            }
+            if (now - seen[1] < leaseTimeoutMs) continue;
+
+            try {
+                Files.createFile(jobDir.resolve(prefix + ".reclaimed"));
+                BitSet remaining = taskIndexes(tasks);
+                reportedIndexes(jobDir.resolve(prefix + ".results.jsonl")).forEach(remaining::clear);
+                expired.or(remaining);
+                System.err.println("Node " + shard + (stamp < 0 ? " never claimed" : " stopped renewing")
+                    + " its shard of " + key + "; running " + remaining.cardinality() + " URLs here");
+            } catch (IOException e) {
+                System.err.println("Failed to reclaim shard " + shard + " of " + key + ": " + e.getMessage());
+            }
+        }
+        return expired;
+    }
+
+    /** Drop a published job: it completed, was cancelled, or was left behind by an earlier run. */
+    public void remove(String key) {
+        Path jobDir = dir.resolve(key);
+        try (Stream<Path> files = Files.walk(jobDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        } catch (IOException e) {
+            // Already gone
+        }
+        readOffsets.keySet().removeIf(p -> p.startsWith(jobDir));
+        leasesSeen.keySet().removeIf(p -> p.startsWith(jobDir));
+    }
+
+    /**
+     * Forget jobs this node published before a restart. Their results were journaled as they
+     * arrived, and resuming publishes whatever is left under a new key.
+     */
+    public void removeOwnLeftovers() {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> jobs = Files.newDirectoryStream(dir, ownerPrefix(nodeIndex) + "*")) {
+            for (Path jobDir : jobs) {
+                remove(jobDir.getFileName().toString());
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to clean up work queue " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private Shard read(String key, Path jobDir, Path tasks) throws IOException {
+        JsonNode job = mapper.readTree(jobDir.resolve(JOB_FILE).toFile());
+        O options = mapper.treeToValue(job.get("options"), optionsType);
+
+        Path results = jobDir.resolve("shard-" + nodeIndex + ".results.jsonl");
+        Set<Integer> reported = reportedIndexes(results);
+
+        List<Integer> indexes = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (String line : Files.readAllLines(tasks, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab < 0) continue;
+            int index = Integer.parseInt(line.substring(0, tab));
+            if (reported.contains(index)) continue;
+            indexes.add(index);
+            urls.add(line.substring(tab + 1));
+        }
+        return new Shard(key, job.get("owner").asInt(), options, indexes, urls, results);
+    }
+
+    private Set<Integer> reportedIndexes(Path results) throws IOException {
+        Set<Integer> reported = new HashSet<>();
+        if (Files.exists(results)) {
+            for (String line : Files.readAllLines(results, StandardCharsets.UTF_8)) {
+                try {
+                    reported.add(mapper.readTree(line).get("index").asInt());
+                } catch (Exception e) {
+                    // Torn line from a crash; that index runs again
+                }
+            }
+        }
+        return reported;
+    }
+
+    private static BitSet taskIndexes(Path tasks) throws IOException {
+        BitSet indexes = new BitSet();
+        for (String line : Files.readAllLines(tasks, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab > 0) indexes.set(Integer.parseInt(line.substring(0, tab)));
+        }
+        return indexes;
+    }
+
+    private void renewLease(Path jobDir) throws IOException {
+        writeAtomically(jobDir.resolve("shard-" + nodeIndex + ".lease"),
+            Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The node's own timestamp; only compared with earlier readings of the same file. -1 when missing
+    private static long leaseStamp(Path lease) {
+        try {
+            return Long.parseLong(Files.readString(lease).trim());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static String ownerPrefix(int nodeIndex) {
+        return "node" + nodeIndex + "-";
+    }
+
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, content);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** This node's part of a job published by another node. */
+    public final class Shard {
+        public final String key;
+        public final int owner;
+        public final O options;
+        public final List<Integer> indexes;
+        public final List<String> urls;
+        private final Path results;
+        private final Set<Integer> reported = new HashSet<>();
+        private FileChannel channel;
+
+        private Shard(String key, int owner, O options, List<Integer> indexes, List<String> urls, Path results) {
+            this.key = key;
+            this.owner = owner;
+            this.options = options;
+            this.indexes = List.copyOf(indexes);
+            this.urls = List.copyOf(urls);
+            this.results = results;
+        }
+
+        /** False once the owner dropped the job or took the shard back; remaining URLs can be skipped. */
+        public boolean isLive() {
+            Path jobDir = dir.resolve(key);
+            return Files.isDirectory(jobDir) && !Files.exists(jobDir.resolve("shard-" + nodeIndex + ".reclaimed"));
+        }
+
+        /** Report one result back to the owner; null reports a failure. */
+        public synchronized void report(int index, R result) {
+            if (!isLive()) return;
+            try {
+                if (channel == null) {
+                    boolean torn = Files.exists(results) && Files.size(results) > 0 && !endsWithNewline(results);
+                    channel = FileChannel.open(results,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    if (torn) channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+                }
+                ObjectNode line = mapper.createObjectNode();
+                line.put("index", index);
+                line.set("result", mapper.valueToTree(result));
+                // One write per line, so the owner never sees half a result
+                ByteBuffer bytes = ByteBuffer.wrap((mapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) channel.write(bytes);
+                reported.add(index);
+            } catch (IOException e) {
+                System.err.println("Failed to report result " + index + " of " + key + ": " + e.getMessage());
+            }
+        }
+
+        /**
+         * Mark the shard finished so this node doesn't pick it up again. Indexes never reported
+         * (the task threw, or was cancelled here) are reported as failed so the owner can finish.
+         */
+        public synchronized void done() {
+            try {
+                for (int index : indexes) {
+                    if (!reported.contains(index)) report(index, null);
+                }
+                if (channel != null) channel.close();
+                if (isLive()) Files.createFile(dir.resolve(key).resolve("shard-" + nodeIndex + ".done"));
+            } catch (IOException e) {
+                System.err.println("Failed to finish shard of " + key + ": " + e.getMessage());
+            } finally {
+                active.remove(key);
+            }
+        }
+
+        private boolean endsWithNewline(Path file) throws IOException {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                in.read(last, in.size() - 1);
+                return last.get(0) == '\n';
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.companyScraper.util;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Multi-page crawl of a single site. Starting from the input URL it follows same-site links,
+ * highest {@link ContactPageRanker} score first, within a page budget and depth limit.
+ * Every fetch goes through {@link Scraper#scrapeWithRetryLogging}, so the per-domain
+ * cooldown applies to crawled pages exactly as it does to single-page scrapes.
+ * <p>
+ * A crawl stops at the extraction deadline (or when its thread is interrupted) and merges what
+ * it has. Pages are also added to a caller-supplied list as they come in, so a caller that
+ * stops waiting at the deadline can still use them.
+ */
+public class SiteCrawler {
+
+    // Cap on queued-but-unvisited links so link-heavy pages can't blow up memory
+    private static final int MAX_FRONTIER_SIZE = 500;
+
+    // Links that never lead to an HTML page worth extracting from
+    private static final Set<String> SKIPPED_EXTENSIONS = Set.of(
+        ".jpg", ".jpeg", ".png", ".gif", ".svg", ".webp", ".ico", ".css", ".js", ".json",
+        ".xml", ".zip", ".gz", ".mp4", ".mp3", ".avi", ".mov", ".woff", ".woff2", ".ttf",
+        ".pdf", ".doc", ".docx", ".xls", ".xlsx", ".ppt", ".pptx"
+    );
+
+    private final Scraper scraper;
+
+    public SiteCrawler(Scraper scraper) {
+        this.scraper = scraper;
+    }
+
+    public Scraper.ScrapeResponse crawl(String startUrl, CrawlConfig config) {
+        return crawl(startUrl, config, new ArrayList<>());
+    }
+
+    /** As above, adding each page's result to {@code pages} (which must be thread-safe if shared) as it's fetched. */
+    public Scraper.ScrapeResponse crawl(String startUrl, CrawlConfig config, List<Scraper.Result> pages) {
+        String normStart = scraper.normalizeUrl(startUrl);
+        Set<String> siteHosts = new HashSet<>();
+        siteHosts.add(UrlHosts.siteOf(normStart));
+
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>();
+        Set<String> seen = new HashSet<>();
+        Exception firstError = null;
+        Document startPage = null;
+        long sequence = 0;
+
+        frontier.add(new Candidate(normStart, 0, Integer.MAX_VALUE, sequence++));
+        seen.add(canonicalize(normStart));
+
+        while (!frontier.isEmpty() && pages.size() < config.maxPages && !outOfTime(config)) {
+            Candidate next = frontier.poll();
+
+            Scraper.ScrapeResponse response = scraper.scrapeWithRetryLogging(next.url, config.retries, config.extraction);
+            pages.add(response.result);
+            if (response.error != null && firstError == null && next.depth == 0) {
+                firstError = response.error;
+            }
+
+            if (response.document == null) continue;
+            if (next.depth == 0) {
+                startPage = response.document;
+                // The start URL may redirect to another host (bare domain -> locale site); treat it as the same site
+                siteHosts.add(UrlHosts.siteOf(response.document.location()));
+            }
+            if (next.depth >= config.maxDepth) continue;
+
+            for (Element link : response.document.select("a[href]")) {
+                String href = link.absUrl("href");
+                if (!isCrawlable(href, siteHosts)) continue;
+
+                String key = canonicalize(href);
+                if (!seen.add(key)) continue;
+                if (frontier.size() >= MAX_FRONTIER_SIZE) break;
+
+                int score = ContactPageRanker.score(href, link.text());
+                frontier.add(new Candidate(stripFragment(href), next.depth + 1, score, sequence++));
+            }
+        }
+
+        System.out.println("Crawled " + pages.size() + " page(s) for " + normStart
+            + (outOfTime(config) ? " before the deadline" : ""));
+
+        Scraper.Result merged = Scraper.Result.merge(normStart, List.copyOf(pages));
+        // Only surface an error when nothing on the site could be fetched
+        return new Scraper.ScrapeResponse(merged, merged.isSuccess() ? null : firstError, startPage);
+    }
+
+    /**
+     * Fetch a known list of target pages (e.g. sitemap picks) without following links,
+     * merging them into one result for the input URL.
+     */
+    public Scraper.ScrapeResponse fetchTargets(String startUrl, List<String> targets, CrawlConfig config) {
+        return fetchTargets(startUrl, targets, config, new ArrayList<>());
+    }
+
+    /** As above, adding each page's result to {@code pages} as it's fetched. */
+    public Scraper.ScrapeResponse fetchTargets(String startUrl, List<String> targets, CrawlConfig config,
+                                               List<Scraper.Result> pages) {
+        String normStart = scraper.normalizeUrl(startUrl);
+        Exception firstError = null;
+
+        for (String target : targets) {
+            if (pages.size() >= config.maxPages || outOfTime(config)) break;
+            Scraper.ScrapeResponse response = scraper.scrapeWithRetryLogging(target, config.retries, config.extraction);
+            pages.add(response.result);
+            if (response.error != null && firstError == null) firstError = response.error;
+        }
+
+        System.out.println("Fetched " + pages.size() + " targeted page(s) for " + normStart);
+
+        Scraper.Result merged = Scraper.Result.merge(normStart, List.copyOf(pages));
+        return new Scraper.ScrapeResponse(merged, merged.isSuccess() ? null : firstError);
+    }
+
+    // Past the deadline, or the caller stopped waiting: keep the pages so far rather than fetch more
+    private static boolean outOfTime(CrawlConfig config) {
+        return config.extraction.remainingMs() <= 0 || Thread.currentThread().isInterrupted();
+    }
+
+    private boolean isCrawlable(String href, Set<String> siteHosts) {
+        if (href == null || href.isEmpty()) return false;
+        if (!href.startsWith("http://") && !href.startsWith("https://")) return false;
+
+        String host = UrlHosts.siteOf(href);
+        if (host == null || !siteHosts.contains(host)) return false;
+
+        String path = pathOf(href).toLowerCase(Locale.ROOT);
+        int dot = path.lastIndexOf('.');
+        return dot < 0 || !SKIPPED_EXTENSIONS.contains(path.substring(dot));
+    }
+
+    private static String pathOf(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            return path != null ? path : "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static String stripFragment(String url) {
+        int hash = url.indexOf('#');
+        return hash >= 0 ? url.substring(0, hash) : url;
+    }
+
+    // Visited-set key: no fragment, no scheme, no www., no trailing slash. Only the scheme and host are
+    // lower-cased; paths and queries are case-sensitive, so /Team and /team may be different pages
+    private static String canonicalize(String url) {
+        String key = stripFragment(url);
+        int hostStart = key.indexOf("://") + 3;
+        if (hostStart < 3) hostStart = 0;
+        int hostEnd = hostStart;
+        while (hostEnd < key.length() && key.charAt(hostEnd) != '/' && key.charAt(hostEnd) != '?') hostEnd++;
+        key = key.substring(0, hostEnd).toLowerCase(Locale.ROOT) + key.substring(hostEnd);
+        key = key.replaceFirst("^https?://(www\\.)?", "");
+        while (key.endsWith("/")) key = key.substring(0, key.length() - 1);
+        return key;
+    }
+
+    public static class CrawlConfig {
+        public final int maxPages;
+        public final int maxDepth;
+        public final int retries;
+        public final Scraper.ExtractionOptions extraction;
+
+        public CrawlConfig(int maxPages, int maxDepth, int retries, Scraper.ExtractionOptions extraction) {
+            this.maxPages = Math.max(1, maxPages);
+            this.maxDepth = Math.max(0, maxDepth);
+            this.retries = retries;
+            this.extraction = extraction != null ? extraction : Scraper.ExtractionOptions.DEFAULT;
+        }
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        final String url;
+        final int depth;
+        final int score;
+        final long sequence;
+
+        Candidate(String url, int depth, int score, long sequence) {
+            this.url = url;
+            this.depth = depth;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        // Highest score first, then shallower, then discovery order
+        @Override
+        public int compareTo(Candidate o) {
+            if (score != o.score) return Integer.compare(o.score, score);
+            if (depth != o.depth) return Integer.compare(depth, o.depth);
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+}
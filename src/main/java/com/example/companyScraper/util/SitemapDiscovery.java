@@ -0,0 +1,226 @@
+package com.example.companyScraper.util;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Finds a site's contact/people pages from its sitemap instead of crawling for them.
+ * Sitemaps and sitemap indexes (plain or gzipped) are parsed as a stream with StAX under a
+ * byte limit, keeping only the best-ranked URLs, so even 50k-entry sitemaps stay cheap.
+ */
+public class SitemapDiscovery {
+
+    private static final List<String> SITEMAP_PATHS = List.of("/sitemap.xml", "/sitemap_index.xml");
+
+    private static final long MAX_SITEMAP_BYTES = 10L * 1024 * 1024; // decompressed, per sitemap
+    private static final int MAX_CHILD_SITEMAPS = 5;
+    private static final int MAX_URLS_SCANNED = 50_000; // sitemap protocol limit per file
+
+    private static final XMLInputFactory XML_FACTORY = XMLInputFactory.newInstance();
+    static {
+        // Sitemaps never need DTDs; refuse them so a hostile sitemap can't trigger XXE
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+
+    private final Scraper scraper;
+
+    public SitemapDiscovery(Scraper scraper) {
+        this.scraper = scraper;
+    }
+
+    /**
+     * Return up to {@code limit} same-site URLs from the sitemap that look most likely to
+     * carry contact or people data, best first. Empty when the site has no usable sitemap.
+     */
+    public List<String> discover(String siteUrl, int limit) {
+        return discover(siteUrl, limit, Scraper.ExtractionOptions.DEFAULT);
+    }
+
+    public List<String> discover(String siteUrl, int limit, Scraper.ExtractionOptions extraction) {
+        String origin = originOf(scraper.normalizeUrl(siteUrl));
+        if (origin == null || limit <= 0) return List.of();
+
+        TopUrls best = new TopUrls(limit, UrlHosts.siteOf(origin));
+        for (String path : SITEMAP_PATHS) {
+            Parsed root = fetchAndParse(origin + path, best, extraction);
+            if (root == null) continue;
+
+            // Sitemap index: visit the site's own child sitemaps that sound like pages, not posts or products.
+            // An index may list sitemaps anywhere; fetching another host's would let it spend our requests
+            root.childSitemaps.stream()
+                .filter(best::isSameSite)
+                .sorted(Comparator.comparingInt(SitemapDiscovery::childSitemapScore).reversed())
+                .limit(MAX_CHILD_SITEMAPS)
+                .forEach(child -> fetchAndParse(child, best, extraction));
+            break;
+        }
+
+        List<String> picks = best.ranked();
+        if (!picks.isEmpty()) {
+            System.out.println("Sitemap discovery for " + origin + " picked: " + picks);
+        }
+        return picks;
+    }
+
+    private Parsed fetchAndParse(String sitemapUrl, TopUrls best, Scraper.ExtractionOptions extraction) {
+        try {
+            scraper.awaitDomainSlot(sitemapUrl);
+
+            // Bounded below, after decompression; closing early drops the rest of a huge sitemap
+            try (ProxyPool.Lease lease = scraper.leaseProxy(sitemapUrl, extraction);
+                 HttpFetcher.StreamResponse response = scraper.getHttpFetcher()
+                    .openStream(sitemapUrl, lease.proxy(), scraper.getRandomUserAgent(), null, extraction.deadlineAt)) {
+                if (response.statusCode != 200) return null;
+
+                InputStream body = decompressIfGzipped(response.body());
+                return parse(new BoundedInputStream(body, MAX_SITEMAP_BYTES), best);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            System.err.println("Sitemap fetch failed for " + sitemapUrl + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // .xml.gz files usually arrive as application/gzip without Content-Encoding; sniff the magic bytes
+    private static InputStream decompressIfGzipped(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int b1 = buffered.read();
+        int b2 = buffered.read();
+        buffered.reset();
+        return (b1 == 0x1f && b2 == 0x8b) ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    static Parsed parse(InputStream in, TopUrls best) {
+        Parsed parsed = new Parsed();
+        XMLStreamReader reader = null;
+        boolean inSitemapIndex = false;
+        boolean inLoc = false;
+        StringBuilder loc = new StringBuilder();
+        int scanned = 0;
+
+        try {
+            reader = XML_FACTORY.createXMLStreamReader(in);
+            while (reader.hasNext() && scanned < MAX_URLS_SCANNED) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("sitemapindex".equals(name)) inSitemapIndex = true;
+                    if ("loc".equals(name)) {
+                        inLoc = true;
+                        loc.setLength(0);
+                    }
+                } else if (inLoc && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    loc.append(reader.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT && "loc".equals(reader.getLocalName())) {
+                    inLoc = false;
+                    String url = loc.toString().trim();
+                    if (url.isEmpty()) continue;
+                    scanned++;
+                    if (inSitemapIndex) {
+                        parsed.childSitemaps.add(url);
+                    } else {
+                        best.offer(url);
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            // Truncated at the byte limit or malformed; keep whatever was read before the error
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private static int childSitemapScore(String url) {
+        String lower = url.toLowerCase(Locale.ROOT);
+        int score = 0;
+        if (lower.contains("page")) score += 5;
+        if (lower.contains("team") || lower.contains("contact") || lower.contains("about")) score += 5;
+        if (lower.contains("post") || lower.contains("blog") || lower.contains("news")) score -= 3;
+        if (lower.contains("product") || lower.contains("image") || lower.contains("video")) score -= 5;
+        return score;
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getScheme() == null || uri.getHost() == null) return null;
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() > 0 ? ":" + uri.getPort() : "");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static class Parsed {
+        final List<String> childSitemaps = new ArrayList<>();
+    }
+
+    /**
+     * Bounded min-heap of the best-scoring same-site URLs seen so far; only positively scored
+     * URLs are kept, so a sitemap full of blog posts yields nothing and falls back to crawling.
+     */
+    static class TopUrls {
+        private final int capacity;
+        private final String siteHost;
+        private final PriorityQueue<Map.Entry<String, Integer>> heap =
+            new PriorityQueue<>(Map.Entry.comparingByValue());
+        private final Set<String> members = new HashSet<>();
+
+        TopUrls(int capacity, String siteHost) {
+            this.capacity = capacity;
+            this.siteHost = siteHost;
+        }
+
+        boolean isSameSite(String url) {
+            return siteHost != null && siteHost.equals(UrlHosts.siteOf(url));
+        }
+
+        void offer(String url) {
+            if (!isSameSite(url)) return;
+
+            int score = ContactPageRanker.score(url, null);
+            if (score <= 0 || members.contains(url)) return;
+
+            if (heap.size() < capacity) {
+                heap.add(Map.entry(url, score));
+                members.add(url);
+            } else if (heap.peek().getValue() < score) {
+                members.remove(heap.poll().getKey());
+                heap.add(Map.entry(url, score));
+                members.add(url);
+            }
+        }
+
+        List<String> ranked() {
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>(heap);
+            entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+            List<String> urls = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : entries) {
+                urls.add(entry.getKey());
+            }
+            return urls;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.companyScraper.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-domain counters for page bodies: wire bytes actually read, bytes not downloaded because
+ * the read stopped at {@code </body>} or the body budget, and bodies skipped outright because
+ * their content type had nothing to extract. Saved and skipped bytes are only known when the
+ * server sent a Content-Length; chunked responses that stop early count as early stops only.
+ */
+public class TransferStats {
+
+    private static final int MAX_DOMAINS = 10_000;
+
+    private final Cache<String, DomainTransfer> domains = Caffeine.newBuilder()
+        .maximumSize(MAX_DOMAINS)
+        .build();
+
+    private final LongAdder totalBytesRead = new LongAdder();
+    private final LongAdder totalBytesSaved = new LongAdder();
+    private final LongAdder totalPages = new LongAdder();
+    private final LongAdder totalEarlyStops = new LongAdder();
+    private final LongAdder totalBytesSkipped = new LongAdder();
+    private final LongAdder totalSkippedBodies = new LongAdder();
+
+    public void record(String url, long bytesRead, long bytesSaved, boolean stoppedEarly) {
+        totalBytesRead.add(bytesRead);
+        totalBytesSaved.add(bytesSaved);
+        totalPages.increment();
+        if (stoppedEarly) totalEarlyStops.increment();
+
+        String domain = UrlHosts.hostOf(url);
+        if (domain == null) return;
+        DomainTransfer transfer = domains.get(domain, d -> new DomainTransfer());
+        transfer.bytesRead.add(bytesRead);
+        transfer.bytesSaved.add(bytesSaved);
+        transfer.pages.increment();
+        if (stoppedEarly) transfer.earlyStops.increment();
+    }
+
+    public void recordSkipped(String url, long bytesSkipped) {
+        totalBytesSkipped.add(bytesSkipped);
+        totalSkippedBodies.increment();
+
+        String domain = UrlHosts.hostOf(url);
+        if (domain == null) return;
+        DomainTransfer transfer = domains.get(domain, d -> new DomainTransfer());
+        transfer.bytesSkipped.add(bytesSkipped);
+        transfer.skippedBodies.increment();
+    }
+
+    public DomainTransfer forDomain(String domain) {
+        return domain != null ? domains.getIfPresent(domain.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    public long getTotalBytesRead() { return totalBytesRead.sum(); }
+    public long getTotalBytesSaved() { return totalBytesSaved.sum(); }
+    public long getTotalPages() { return totalPages.sum(); }
+    public long getTotalEarlyStops() { return totalEarlyStops.sum(); }
+    public long getTotalBytesSkipped() { return totalBytesSkipped.sum(); }
+    public long getTotalSkippedBodies() { return totalSkippedBodies.sum(); }
+
+    public String summary() {
+        return String.format("Pages: %d (%d stopped early), read %d KB, saved %d KB, skipped %d non-HTML response(s) (%d KB) across %d domain(s)",
+            getTotalPages(), getTotalEarlyStops(), getTotalBytesRead() / 1024, getTotalBytesSaved() / 1024,
+            getTotalSkippedBodies(), getTotalBytesSkipped() / 1024, domains.estimatedSize());
+    }
+
+    public static class DomainTransfer {
+        final LongAdder bytesRead = new LongAdder();
+        final LongAdder bytesSaved = new LongAdder();
+        final LongAdder pages = new LongAdder();
+        final LongAdder earlyStops = new LongAdder();
+        final LongAdder bytesSkipped = new LongAdder();
+        final LongAdder skippedBodies = new LongAdder();
+
+        public long getBytesRead() { return bytesRead.sum(); }
+        public long getBytesSaved() { return bytesSaved.sum(); }
+        public long getPages() { return pages.sum(); }
+        public long getEarlyStops() { return earlyStops.sum(); }
+        public long getBytesSkipped() { return bytesSkipped.sum(); }
+        public long getSkippedBodies() { return skippedBodies.sum(); }
+    }
+}
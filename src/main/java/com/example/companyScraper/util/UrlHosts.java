@@ -0,0 +1,28 @@
+package com.example.companyScraper.util;
+
+import java.net.URI;
+import java.util.Locale;
+
+/** Host of a URL as users upload them, which often come without a scheme ("acme.com/about"). */
+public final class UrlHosts {
+
+    private UrlHosts() {
+    }
+
+    /** Lower-cased host, or null when there is none to be found. */
+    public static String hostOf(String url) {
+        if (url == null) return null;
+        try {
+            String trimmed = url.trim().toLowerCase(Locale.ROOT);
+            return URI.create(trimmed.contains("://") ? trimmed : "http://" + trimmed).getHost();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** Host without a leading "www.", so www.example.com and example.com count as one site; null when there is none. */
+    public static String siteOf(String url) {
+        String host = hostOf(url);
+        return host != null && host.startsWith("www.") ? host.substring(4) : host;
+    }
+}
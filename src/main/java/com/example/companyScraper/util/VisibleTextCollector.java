@@ -0,0 +1,70 @@
+package com.example.companyScraper.util;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import java.util.Set;
+
+/**
+ * Builds the extraction input for {@link Scraper.ExtractionScope#VISIBLE_TEXT} in a single DOM walk:
+ * visible text nodes plus the few attributes that carry contact data (href, data-phone, meta content).
+ * Scripts, styles, SVG paths and embedded JSON never reach the email/phone regexes this way.
+ */
+public class VisibleTextCollector {
+
+    // Elements whose contents are never rendered as text
+    private static final Set<String> SKIPPED_TAGS = Set.of(
+        "script", "style", "noscript", "template", "svg", "canvas", "iframe", "object", "embed", "picture", "video", "audio"
+    );
+
+    public static String collect(Document doc) {
+        if (doc == null) return "";
+
+        StringBuilder out = new StringBuilder(4096);
+
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (node instanceof TextNode) {
+                    TextNode text = (TextNode) node;
+                    if (!text.isBlank()) {
+                        appendLine(out, text.text());
+                    }
+                    return FilterResult.CONTINUE;
+                }
+
+                if (node instanceof Element) {
+                    Element el = (Element) node;
+                    String tag = el.normalName();
+                    if (SKIPPED_TAGS.contains(tag) || el.hasAttr("hidden")) {
+                        return FilterResult.SKIP_ENTIRELY;
+                    }
+
+                    if (el.hasAttr("href")) appendLine(out, el.attr("href"));
+                    if (el.hasAttr("data-phone")) appendLine(out, el.attr("data-phone"));
+                    if ("meta".equals(tag) && el.hasAttr("content")) appendLine(out, el.attr("content"));
+                }
+                return FilterResult.CONTINUE;
+            }
+
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                return FilterResult.CONTINUE;
+            }
+        }, doc);
+
+        return out.toString();
+    }
+
+    // One value per line so patterns can't match across unrelated nodes
+    private static void appendLine(StringBuilder out, String value) {
+        String trimmed = value.trim();
+        if (!trimmed.isEmpty()) {
+            out.append(trimmed).append('\n');
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.companyScraper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class FlightRecorderEndpointTests {
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Test
+	void flightRecordingsAreNotReachableByDefault() {
+		assertEquals(HttpStatus.NOT_FOUND, rest.getForEntity("/actuator/jfr", String.class).getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, rest.postForEntity("/actuator/jfr", null, String.class).getStatusCode());
+	}
+
+}
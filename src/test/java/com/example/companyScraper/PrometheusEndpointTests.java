@@ -0,0 +1,32 @@
+package com.example.companyScraper;
+
+import com.example.companyScraper.util.ScrapeMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tests turn metrics export off unless asked; this brings the Prometheus registry back
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTests {
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Test
+	void scrapeMetricsAreExposedForPrometheus() {
+		ScrapeMetrics.record(ScrapeMetrics.Stage.PARSE, 2_000_000);
+
+		ResponseEntity<String> response = rest.getForEntity("/actuator/prometheus", String.class);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertTrue(response.getBody().contains("scraper_stage_duration"), response.getBody());
+		assertTrue(response.getBody().contains("stage=\"parse\""));
+	}
+
+}
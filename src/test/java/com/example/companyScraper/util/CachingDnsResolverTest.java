@@ -0,0 +1,80 @@
+package com.example.companyScraper.util;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDnsResolverTest {
+
+	private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+	private final AtomicLong now = new AtomicLong();
+	private final Ticker ticker = now::get;
+
+	private InetAddress[] stub(String host) throws UnknownHostException {
+		calls.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+		if (host.endsWith(".invalid")) {
+			throw new UnknownHostException(host);
+		}
+		return new InetAddress[] { InetAddress.getByAddress(host, new byte[] { 10, 0, 0, 1 }) };
+	}
+
+	@Test
+	void servesRepeatLookupsFromCacheUntilTtlExpires() throws Exception {
+		CachingDnsResolver resolver = new CachingDnsResolver(this::stub, 1000, 100, ticker);
+
+		assertEquals("10.0.0.1", resolver.resolve("Acme.example")[0].getHostAddress());
+		resolver.resolve("acme.example");
+		assertEquals(1, calls.get("acme.example").get());
+		assertEquals(1, resolver.getCacheHits());
+
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+		resolver.resolve("acme.example");
+		assertEquals(2, calls.get("acme.example").get());
+	}
+
+	@Test
+	void remembersFailuresForTheNegativeTtl() {
+		CachingDnsResolver resolver = new CachingDnsResolver(this::stub, 1000, 100, ticker);
+
+		assertThrows(UnknownHostException.class, () -> resolver.resolve("gone.invalid"));
+		assertThrows(UnknownHostException.class, () -> resolver.resolve("gone.invalid"));
+		assertEquals(1, calls.get("gone.invalid").get());
+		assertEquals(1, resolver.getNegativeHits());
+
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(101));
+		assertThrows(UnknownHostException.class, () -> resolver.resolve("gone.invalid"));
+		assertEquals(2, calls.get("gone.invalid").get());
+	}
+
+	@Test
+	void resolveJoinsAPrefetchInsteadOfLookingUpAgain() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CachingDnsResolver resolver = new CachingDnsResolver(host -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return stub(host);
+		}, 1000, 100, ticker);
+
+		resolver.prefetch("slow.example");
+		resolver.prefetch("slow.example");
+		release.countDown();
+
+		assertEquals("10.0.0.1", resolver.resolve("slow.example")[0].getHostAddress());
+		assertEquals(1, calls.get("slow.example").get());
+		assertEquals(1, resolver.getPrefetches());
+	}
+
+}
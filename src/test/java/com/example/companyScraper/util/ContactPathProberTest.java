@@ -0,0 +1,67 @@
+package com.example.companyScraper.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactPathProberTest {
+
+	private TestServer server;
+	private String origin;
+	// Range header of each ranged GET, by path
+	private final Map<String, String> ranges = new ConcurrentHashMap<>();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new TestServer();
+		origin = server.origin();
+		server.handle("/", exchange -> {
+			String path = exchange.getRequestURI().getPath();
+			boolean head = exchange.getRequestMethod().equals("HEAD");
+			if (!head && exchange.getRequestHeaders().containsKey("Range")) {
+				ranges.put(path, exchange.getRequestHeaders().getFirst("Range"));
+			}
+			switch (path) {
+				case "/", "/contact" -> respond(exchange, 200, "text/html", head ? 0 : 100);
+				// Rejects HEAD but answers the ranged GET
+				case "/about" -> respond(exchange, head ? 405 : 206, "text/html", head ? 0 : 1024);
+				case "/team" -> {
+					exchange.getResponseHeaders().set("Location", origin + "/");
+					respond(exchange, 301, "text/html", 0);
+				}
+				case "/contact-us" -> respond(exchange, 200, "application/pdf", 0);
+				default -> respond(exchange, 404, "text/html", 0);
+			}
+		});
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void keepsOnlyPathsThatAnswerWithAnHtmlPage() {
+		ContactPathProber prober = new ContactPathProber(new Scraper(0, 0, 1), ContactPathProber.DEFAULT_PATHS, 2);
+
+		ContactPathProber.ProbeReport report = prober.probe(origin, Scraper.ExtractionOptions.DEFAULT);
+
+		// /contact-us is a PDF, /team redirects home, /impressum is missing
+		assertEquals(List.of(origin + "/contact", origin + "/about"), report.hits);
+		assertEquals(5, report.probesSent);
+		assertEquals("bytes=0-1023", ranges.get("/about"));
+		assertTrue(report.bytesRead <= 1024, "read " + report.bytesRead + " body bytes");
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, int bodyBytes) throws IOException {
+		TestServer.respond(exchange, status, contentType, new byte[bodyBytes]);
+	}
+}
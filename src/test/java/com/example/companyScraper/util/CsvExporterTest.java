@@ -0,0 +1,38 @@
+package com.example.companyScraper.util;
+
+import com.example.companyScraper.model.ScrapeResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvExporterTest {
+
+	@Test
+	void writesARowForAFailedTaskToo(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("results.csv");
+		ScrapeResult found = new ScrapeResult("https://acme.com");
+		found.setStatus("SUCCESS");
+
+		CsvExporter.CsvSink sink = new CsvExporter.CsvSink(file, CsvExporter.ExportFormat.STANDARD);
+		sink.expect(0, "https://acme.com");
+		sink.expect(1, "https://broken.example");
+		sink.accept(0, found);
+		// A task that threw reaches the sink as null
+		sink.accept(1, null);
+		sink.close();
+
+		assertEquals(2, sink.getRows());
+
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		assertEquals(3, lines.size());
+		assertTrue(lines.get(1).startsWith("\"https://acme.com\",\"SUCCESS\""), lines.get(1));
+		assertTrue(lines.get(2).startsWith("\"https://broken.example\",\"FAILED\""), lines.get(2));
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.companyScraper.util;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentExtractorTest {
+
+	private TestServer server;
+	private String origin;
+	// Held by the /slow/ handler until the test ends
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final DocumentExtractor extractor = new DocumentExtractor(new Scraper(0, 0, 1));
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new TestServer();
+		origin = server.origin();
+		server.handle("/docs/", exchange -> {
+			String name = exchange.getRequestURI().getPath().replaceAll(".*/|\\.rtf$", "");
+			sleep(200);
+			TestServer.respond(exchange, 200, "application/rtf",
+					("{\\rtf1\\ansi Write to " + name + "@acme.com\\par}").getBytes(StandardCharsets.US_ASCII));
+		});
+		server.handle("/slow/", exchange -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.close();
+		});
+	}
+
+	@AfterEach
+	void stopServer() {
+		release.countDown();
+		server.close();
+	}
+
+	@Test
+	void extractsContactsFromLinkedDocumentsOnly() {
+		Document page = Jsoup.parse("<a href=\"/docs/brochure.rtf\">Brochure</a><a href=\"/logo.png\">Logo</a>"
+				+ "<a href=\"/docs/brochure.rtf\">Again</a>", origin + "/");
+
+		List<Scraper.Result> results = extractor.extractLinkedDocuments(page, origin + "/", documents(5, 0));
+
+		assertEquals(1, results.size());
+		assertEquals(Set.of("brochure@acme.com"), results.get(0).getEmails());
+		assertEquals(List.of("/docs/brochure.rtf"), server.requested);
+	}
+
+	@Test
+	void skipsDocumentsOnceThePoolAndItsQueueAreFull() {
+		// Two workers and eight queued: at least two of twelve are turned away, not queued. Up to
+		// two more go when workers left idle by earlier tests haven't taken a task off the queue yet
+		StringBuilder links = new StringBuilder();
+		for (int i = 0; i < 12; i++) {
+			links.append("<a href=\"/docs/d").append(i).append(".rtf\">").append(i).append("</a>");
+		}
+		Document page = Jsoup.parse(links.toString(), origin + "/");
+
+		List<Scraper.Result> results = extractor.extractLinkedDocuments(page, origin + "/", documents(12, 0));
+
+		Set<String> emails = results.stream().flatMap(r -> r.getEmails().stream()).collect(Collectors.toSet());
+		assertTrue(emails.size() >= 8 && emails.size() <= 10, emails.toString());
+		assertTrue(emails.contains("d0@acme.com"));
+		// Turned-away documents are never fetched
+		assertEquals(emails.size(), server.requested.size());
+	}
+
+	@Test
+	void givesUpOnADocumentAtTheDeadline() {
+		long start = System.currentTimeMillis();
+
+		Scraper.Result result = extractor.extractDocument(origin + "/slow/report.pdf", documents(1, start + 500));
+
+		assertNull(result);
+		assertTrue(System.currentTimeMillis() - start < 5_000);
+	}
+
+	private static Scraper.ExtractionOptions documents(int maxDocuments, long deadlineAt) {
+		return new Scraper.ExtractionOptions(Scraper.ExtractionScope.RAW_HTML, true, maxDocuments)
+				.withDeadline(deadlineAt);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainLatencyTest {
+
+	@Test
+	void fallsBackToAllDomainsUntilADomainHasEnoughSamples() {
+		DomainLatency latency = new DomainLatency();
+		assertEquals(-1, latency.percentile("https://slow.com/", 0.95));
+
+		for (int i = 0; i < 30; i++) {
+			latency.record("https://fast-" + i + ".com/", 100);
+		}
+		latency.record("https://slow.com/a", 5_000);
+		// One sample of its own isn't enough; the overall p95 stands in
+		assertEquals(100, latency.percentile("https://slow.com/b", 0.95), 10);
+
+		for (int i = 0; i < 4; i++) {
+			latency.record("https://slow.com/" + i, 5_000);
+		}
+		assertEquals(5_000, latency.percentile("https://slow.com/contact", 0.95), 500);
+	}
+
+	@Test
+	void groupsUrlsByHostWhateverTheirCaseOrScheme() {
+		DomainLatency latency = new DomainLatency();
+		for (int i = 0; i < 30; i++) {
+			latency.record("https://fast-" + i + ".com/", 100);
+		}
+		latency.record("HTTPS://Slow.com/a", 5_000);
+		latency.record("http://slow.com/b", 5_000);
+		latency.record("slow.com/c", 5_000);
+		latency.record(" https://SLOW.COM/d ", 5_000);
+		latency.record("https://slow.com/e", 5_000);
+
+		assertEquals(5_000, latency.percentile("Slow.com/contact", 0.95), 500);
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainOrderTest {
+
+	@Test
+	void interleavesDomainsInsteadOfQueueingOnOne() {
+		List<String> domains = List.of("a.com", "a.com", "a.com", "b.com", "c.com", "b.com");
+		// One URL per domain in turn, then the repeats in input order
+		assertArrayEquals(new int[] {0, 3, 4, 1, 5, 2}, DomainOrder.interleave(domains));
+		assertArrayEquals(new int[0], DomainOrder.interleave(List.of()));
+	}
+
+	@Test
+	void interleavedJobBeatsLockStepBatchesOnTimeToResult() throws Exception {
+		TestServer server = new TestServer(new InetSocketAddress(0));
+		server.handle("/", exchange -> TestServer.respond(exchange, 200, "text/html", TestServer.html("ok")));
+		// Four domains (loopback addresses), two URLs each, grouped by domain as uploads usually are
+		List<String> urls = new ArrayList<>();
+		for (int host = 1; host <= 4; host++) {
+			for (int page = 0; page < 2; page++) {
+				urls.add("http://127.0.0." + host + ":" + server.port() + "/p" + page);
+			}
+		}
+		try (JobScheduler scheduler = new JobScheduler(4, "order-worker")) {
+			LatencyHistogram lockStep = lockStep(scheduler, urls, 4);
+			LatencyHistogram interleaved = interleaved(scheduler, urls);
+			System.out.println("Lock-step batches: " + lockStep.summary());
+			System.out.println("Interleaved job:   " + interleaved.summary());
+
+			assertTrue(interleaved.percentile(0.95) < lockStep.percentile(0.95));
+			assertTrue(interleaved.percentile(0.50) <= lockStep.percentile(0.50));
+		} finally {
+			server.close();
+		}
+	}
+
+	// What scrapeUrlsInBatches did: one batch at a time, wait for all of it, then 2 s before the next
+	private static LatencyHistogram lockStep(JobScheduler scheduler, List<String> urls, int batchSize)
+			throws InterruptedException {
+		Scraper scraper = new Scraper(0, 300, 1);
+		LatencyHistogram timeToResult = new LatencyHistogram();
+		long start = System.currentTimeMillis();
+		for (int from = 0; from < urls.size(); from += batchSize) {
+			List<String> batch = urls.subList(from, Math.min(urls.size(), from + batchSize));
+			scheduler.submit("batch", 1, tasks(scraper, batch, timeToResult, start)).await();
+			if (from + batchSize < urls.size()) Thread.sleep(2000);
+		}
+		return timeToResult;
+	}
+
+	private static LatencyHistogram interleaved(JobScheduler scheduler, List<String> urls) {
+		Scraper scraper = new Scraper(0, 300, 1);
+		LatencyHistogram timeToResult = new LatencyHistogram();
+		int[] order = DomainOrder.interleave(urls.stream().map(UrlHosts::hostOf).toList());
+		scheduler.submit(scheduler.newJobId(), "interleaved", 1,
+				tasks(scraper, urls, timeToResult, System.currentTimeMillis()), new BitSet(), new BitSet(), false, order)
+				.await();
+		return timeToResult;
+	}
+
+	private static List<Callable<Scraper.Result>> tasks(Scraper scraper, List<String> urls,
+			LatencyHistogram timeToResult, long start) {
+		List<Callable<Scraper.Result>> tasks = new ArrayList<>();
+		for (String url : urls) {
+			tasks.add(() -> {
+				Scraper.Result result = scraper.scrapeWithRetryLogging(url, 1).result;
+				assertEquals("SUCCESS", result.getStatus(), url);
+				timeToResult.record(System.currentTimeMillis() - start);
+				return result;
+			});
+		}
+		return tasks;
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainRateLimiterTest {
+
+	private static final long INTERVAL_MS = 1_000;
+	private static final long NOW = 1_000_000;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void replicasSharingAFileNeverOverlapSlots() throws Exception {
+		AtomicInteger reservations = new AtomicInteger();
+		List<DomainRateLimiter> replicas = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			// Separate coordinator objects, as in separate processes; only the files are shared
+			DomainRateLimiter.FileCoordinator file = new DomainRateLimiter.FileCoordinator(dir, () -> NOW);
+			replicas.add(new DomainRateLimiter((domain, count, interval) -> {
+				reservations.incrementAndGet();
+				return file.reserve(domain, count, interval);
+			}, INTERVAL_MS, 4, () -> NOW));
+		}
+
+		List<Long> slots = Collections.synchronizedList(new ArrayList<>());
+		ExecutorService pool = Executors.newFixedThreadPool(12);
+		for (int i = 0; i < 60; i++) {
+			DomainRateLimiter replica = replicas.get(i % 3);
+			pool.execute(() -> slots.add(replica.nextSlot("example.com")));
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		Collections.sort(slots);
+		for (int i = 1; i < slots.size(); i++) {
+			assertTrue(slots.get(i) - slots.get(i - 1) >= INTERVAL_MS, "slots " + slots.get(i - 1) + " and " + slots.get(i));
+		}
+		assertTrue(reservations.get() < 60, reservations.get() + " coordinator calls for 60 requests");
+		// Leases only cover real demand, so nothing was reserved and left unused
+		assertEquals(NOW + 59 * INTERVAL_MS, slots.get(59));
+	}
+
+	@Test
+	void forgetsDomainsThatWentIdle() {
+		long[] now = {NOW};
+		DomainRateLimiter limiter = new DomainRateLimiter(new DomainRateLimiter.InProcessCoordinator(() -> now[0]),
+				INTERVAL_MS, 4, () -> now[0]);
+		for (int i = 0; i < 1_000; i++) {
+			limiter.nextSlot("site" + i + ".com");
+		}
+		assertEquals(1_000, limiter.trackedDomains());
+
+		now[0] += 10 * 60_000;
+		assertEquals(NOW + 10 * 60_000, limiter.nextSlot("site0.com"));
+		assertEquals(1, limiter.trackedDomains());
+	}
+
+	@Test
+	void dropsLeasedSlotsThatWentByUnused() {
+		long[] now = {NOW};
+		DomainRateLimiter limiter = new DomainRateLimiter(new DomainRateLimiter.InProcessCoordinator(() -> now[0]),
+				INTERVAL_MS, 4, () -> now[0]);
+
+		assertEquals(NOW, limiter.nextSlot("a.com"));
+		assertEquals(NOW, limiter.nextSlot("b.com"), "domains are independent");
+		now[0] += 10 * INTERVAL_MS;
+		assertEquals(now[0], limiter.nextSlot("a.com"));
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.example.companyScraper.util;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingsTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void recordsScrapeEventsToAFile() throws Exception {
+		FlightRecordings recordings = new FlightRecordings(dir);
+		recordings.start("default", Duration.ofMinutes(1));
+		assertThrows(IllegalStateException.class, () -> recordings.start("default", null));
+
+		ScrapeEvents.Scrape event = new ScrapeEvents.Scrape();
+		event.begin();
+		event.status = "SUCCESS";
+		event.end("https://www.example.com/contact", 2048);
+
+		Path file = recordings.stop();
+		assertNotNull(recordings.find(file.getFileName().toString()));
+		assertNull(recordings.find("../" + file.getFileName()));
+
+		List<RecordedEvent> scrapes = RecordingFile.readAllEvents(file).stream()
+				.filter(e -> e.getEventType().getName().equals("companyScraper.Scrape"))
+				.toList();
+		assertEquals(1, scrapes.size());
+		assertEquals("www.example.com", scrapes.get(0).getString("domain"));
+		assertEquals(2048, scrapes.get(0).getLong("bytes"));
+		assertEquals("SUCCESS", scrapes.get(0).getString("status"));
+	}
+}
@@ -0,0 +1,154 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpFetcherTest {
+
+	private static final String PAGE = "<html><body><p>Contact us</p></body></html>";
+
+	private TestServer server;
+	private String origin;
+	private HttpFetcher fetcher;
+	// Client port of each request, to tell a reused connection from a new one
+	private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	void start() throws IOException {
+		server = new TestServer();
+		origin = server.origin();
+		fetcher = new HttpFetcher(1);
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		fetcher.close();
+		server.close();
+	}
+
+	@Test
+	void decodesGzip() throws IOException {
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+			out.write(bytes(PAGE));
+		}
+		serve("/gzip", "gzip", gzip.toByteArray());
+
+		assertEquals(PAGE, text(fetch("/gzip", 0)));
+	}
+
+	@Test
+	void decodesDeflateWithAndWithoutTheZlibWrapper() throws IOException {
+		serve("/zlib", "deflate", deflate(PAGE, false));
+		serve("/raw", "deflate", deflate(PAGE, true));
+
+		assertEquals(PAGE, text(fetch("/zlib", 0)));
+		assertEquals(PAGE, text(fetch("/raw", 0)));
+	}
+
+	@Test
+	void decodesBrotli() throws IOException {
+		serve("/br", "br", brotli(bytes(PAGE)));
+
+		assertEquals(PAGE, text(fetch("/br", 0)));
+	}
+
+	@Test
+	void stopsReadingAtTheEndOfTheBody() throws IOException {
+		serve("/long", null, bytes(PAGE + "<!--" + "x".repeat(200_000) + "-->"));
+
+		HttpFetcher.PageResponse page = fetch("/long", 0);
+		assertTrue(page.stoppedEarly);
+		assertTrue(text(page).startsWith(PAGE));
+		assertTrue(page.body.length < 10_000, "read " + page.body.length + " bytes");
+	}
+
+	@Test
+	void stopsReadingAtTheByteBudget() throws IOException {
+		serve("/unclosed", null, bytes("<html><body>" + "x".repeat(100_000)));
+
+		HttpFetcher.PageResponse page = fetch("/unclosed", 1000);
+		assertTrue(page.stoppedEarly);
+		assertEquals(1000, page.body.length);
+	}
+
+	@Test
+	void drainsAShortRestSoTheConnectionIsReused() throws IOException {
+		serve("/short-tail", null, bytes(PAGE + "x".repeat(4_000)));
+
+		fetch("/short-tail", 0);
+		fetch("/short-tail", 0);
+		assertEquals(2, clientPorts.size());
+		assertEquals(clientPorts.get(0), clientPorts.get(1));
+	}
+
+	@Test
+	void dropsTheConnectionRatherThanDownloadALongRest() throws IOException {
+		serve("/long-tail", null, bytes(PAGE + "x".repeat(500_000)));
+
+		HttpFetcher.PageResponse first = fetch("/long-tail", 0);
+		fetch("/long-tail", 0);
+		assertTrue(first.wireBytes < 100_000, "downloaded " + first.wireBytes + " bytes");
+		assertEquals(2, clientPorts.size());
+		assertNotEquals(clientPorts.get(0), clientPorts.get(1));
+	}
+
+	private HttpFetcher.PageResponse fetch(String path, long maxBodyBytes) throws IOException {
+		HttpFetcher.PageResponse page = fetcher.fetchPage(origin + path, null, "test", Map.of(), maxBodyBytes);
+		assertEquals(200, page.statusCode);
+		return page;
+	}
+
+	private void serve(String path, String contentEncoding, byte[] body) {
+		server.handle(path, exchange -> {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+			if (contentEncoding != null) {
+				exchange.getResponseHeaders().set("Content-Encoding", contentEncoding);
+			}
+			TestServer.respond(exchange, 200, "text/html; charset=utf-8", body);
+		});
+	}
+
+	private static byte[] deflate(String text, boolean raw) throws IOException {
+		ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+		try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+			out.write(bytes(text));
+		}
+		return deflated.toByteArray();
+	}
+
+	// No Brotli encoder on the classpath: one stored (uncompressed) meta-block, then an empty last one
+	private static byte[] brotli(byte[] data) {
+		// WBITS=0 (16-bit window), ISLAST=0, MNIBBLES=0 (four nibbles), MLEN-1, ISUNCOMPRESSED=1
+		int header = ((data.length - 1) << 4) | (1 << 20);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(header);
+		out.write(header >> 8);
+		out.write(header >> 16);
+		out.writeBytes(data);
+		// ISLAST=1, ISLASTEMPTY=1
+		out.write(0b11);
+		return out.toByteArray();
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String text(HttpFetcher.PageResponse page) {
+		return new String(page.body, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.companyScraper.util;
+
+import com.example.companyScraper.model.ScrapeResult;
+import com.example.companyScraper.service.ScraperService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobJournalTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void interruptedJobComesBackWithItsFinishedResults() throws Exception {
+		JobJournal<ScraperService.ScrapingOptions, ScrapeResult> journal =
+				new JobJournal<>(dir, ScraperService.ScrapingOptions.class, ScrapeResult.class);
+		ScraperService.ScrapingOptions options = new ScraperService.ScrapingOptions();
+		options.setMaxRetries(1);
+		options.setPriorityDomains(List.of("acme.com"));
+
+		JobJournal<ScraperService.ScrapingOptions, ScrapeResult>.Writer writer =
+				journal.start("job-7", "leads.csv", 2, options, List.of("a.com", "b.com", "c.com"));
+		ScrapeResult done = new ScrapeResult("b.com");
+		done.setStatus("SUCCESS");
+		done.setEmails(List.of("info@b.com"));
+		done.setPeople(List.of(new ScrapeResult.Person("Ada", "Lovelace", "CTO")));
+		writer.record(1, done);
+		writer.close();
+		// What a crash in the middle of a write leaves behind
+		Files.writeString(dir.resolve("job-7.results.jsonl"), "{\"index\":2,\"res",
+				StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		List<JobJournal.Pending<ScraperService.ScrapingOptions, ScrapeResult>> pending = journal.pending();
+		assertEquals(1, pending.size());
+		JobJournal.Pending<ScraperService.ScrapingOptions, ScrapeResult> job = pending.get(0);
+		assertEquals("job-7", job.id);
+		assertEquals("leads.csv", job.name);
+		assertEquals(2, job.weight);
+		assertEquals(List.of("a.com", "b.com", "c.com"), job.urls);
+		assertEquals(1, job.options.getMaxRetries());
+		assertEquals(List.of("acme.com"), job.options.getPriorityDomains());
+		assertEquals(1, job.completed.size());
+		ScrapeResult restored = job.completed.get(1);
+		assertEquals("b.com", restored.getUrl());
+		assertEquals(List.of("info@b.com"), restored.getEmails());
+		assertEquals("Lovelace", restored.getPeople().get(0).getLastName());
+
+		// Appending after the torn line still produces readable lines
+		writer = journal.resume(job);
+		writer.record(0, new ScrapeResult("a.com"));
+		writer.close();
+		assertEquals(2, journal.pending().get(0).completed.size());
+
+		journal.finish("job-7");
+		assertTrue(journal.pending().isEmpty());
+	}
+
+}
@@ -0,0 +1,229 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobSchedulerTest {
+
+	private final JobScheduler scheduler = new JobScheduler(2, "test-worker");
+
+	@AfterEach
+	void close() {
+		scheduler.close();
+	}
+
+	@Test
+	void smallJobIsNotStuckBehindBulkJob() throws Exception {
+		JobScheduler.Job<Integer> bulk = scheduler.submit("bulk", 1, tasks(500, 5));
+		Thread.sleep(50);
+		JobScheduler.Job<Integer> small = scheduler.submit("small", 1, tasks(10, 5));
+
+		List<Integer> results = small.completion().get(5, TimeUnit.SECONDS);
+		assertEquals(10, results.size());
+		assertEquals(JobScheduler.State.COMPLETED, small.getState());
+		// Half the workers went to the small job, so the bulk job is nowhere near done
+		assertEquals(JobScheduler.State.RUNNING, bulk.getState());
+		assertTrue(bulk.getCompleted() < 100, "bulk completed " + bulk.getCompleted());
+
+		assertTrue(scheduler.cancel(bulk.getId()));
+		assertEquals(JobScheduler.State.CANCELLED, bulk.getState());
+	}
+
+	@Test
+	void finishedJobKeepsResultsOnlyWhenAsked() throws Exception {
+		JobScheduler.Job<Integer> kept = scheduler.submit("kept", "kept", 1, tasks(3, 0), new BitSet(), new BitSet(), true);
+		JobScheduler.Job<Integer> handedOff = scheduler.submit("handed-off", "handed off", 1, tasks(3, 0), new BitSet(),
+				new BitSet(), false);
+		assertEquals(List.of(0, 1, 2), kept.completion().get(5, TimeUnit.SECONDS));
+		// Whoever held the job still gets its results
+		assertEquals(List.of(0, 1, 2), handedOff.completion().get(5, TimeUnit.SECONDS));
+
+		assertEquals(List.of(0, 1, 2), scheduler.get("kept").await());
+		JobScheduler.Job<?> listed = scheduler.get("handed-off");
+		assertFalse(listed.isResultsKept());
+		assertEquals(JobScheduler.State.COMPLETED, listed.getState());
+		assertEquals(3, listed.getCompleted());
+		assertEquals(List.of(), listed.await());
+	}
+
+	@Test
+	void tasksStartInTheGivenOrderAndResultsStayInInputOrder() throws Exception {
+		List<Integer> started = Collections.synchronizedList(new ArrayList<>());
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			int index = i;
+			tasks.add(() -> {
+				started.add(index);
+				return index;
+			});
+		}
+		try (JobScheduler single = new JobScheduler(1, "ordered-worker")) {
+			assertThrows(IllegalArgumentException.class, () -> single.submit("bad", "bad", 1, tasks, new BitSet(),
+					new BitSet(), true, new int[] {0, 0, 1, 2}));
+
+			JobScheduler.Job<Integer> job = single.submit("ordered", "ordered", 1, tasks, new BitSet(), new BitSet(),
+					true, new int[] {2, 0, 3, 1});
+			assertEquals(List.of(0, 1, 2, 3), job.completion().get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(List.of(2, 0, 3, 1), started);
+	}
+
+	@Test
+	void weightSetsShareOfWorkers() throws Exception {
+		CountDownLatch first = new CountDownLatch(1);
+		CountDownLatch second = new CountDownLatch(1);
+		// Hold both workers until both jobs are queued, then free one so they share it strictly by weight
+		scheduler.submit("blocker", 1, List.of(() -> {
+			first.await();
+			return 0;
+		}, () -> {
+			second.await();
+			return 0;
+		}));
+		Thread.sleep(50);
+
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		JobScheduler.Job<Integer> heavy = scheduler.submit("heavy", 3, recording(order, "H", 30));
+		JobScheduler.Job<Integer> light = scheduler.submit("light", 1, recording(order, "L", 30));
+		first.countDown();
+		light.completion().get(5, TimeUnit.SECONDS);
+		heavy.completion().get(5, TimeUnit.SECONDS);
+		second.countDown();
+
+		long heavyInFirst20 = order.subList(0, 20).stream().filter("H"::equals).count();
+		assertTrue(heavyInFirst20 >= 14 && heavyInFirst20 <= 16, "heavy got " + heavyInFirst20 + " of 20");
+	}
+
+	@Test
+	void highLaneGoesFirstButNormalLaneKeepsMoving() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		// Keep one worker busy so the job's tasks are dispatched strictly one after another
+		scheduler.submit("blocker", 1, List.of(() -> {
+			release.await();
+			return 0;
+		}, () -> 0));
+		Thread.sleep(50);
+
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		List<Callable<Integer>> tasks = new ArrayList<>(recording(order, "N", 20));
+		tasks.addAll(recording(order, "H", 20));
+		BitSet high = new BitSet();
+		high.set(20, 40);
+		JobScheduler.Job<Integer> job = scheduler.submit("mixed", 1, tasks, high);
+		assertEquals(20, job.getHighPriority());
+		job.completion().get(5, TimeUnit.SECONDS);
+		release.countDown();
+
+		// Bursts of high-lane tasks with a normal one in between
+		assertEquals(List.of("H", "H", "H", "H", "N", "H", "H", "H", "H", "N"), order.subList(0, 10));
+	}
+
+	@Test
+	void externalTasksCompleteThroughSupply() throws Exception {
+		BitSet external = new BitSet();
+		external.set(1);
+		external.set(2);
+		JobScheduler.Job<Integer> job = scheduler.submit(scheduler.newJobId(), "split", 1, tasks(3, 0),
+				new BitSet(), external);
+
+		Thread.sleep(50);
+		assertEquals(1, job.getCompleted());
+		assertFalse(job.completion().isDone());
+
+		job.supply(2, 42);
+		job.supply(2, 43);
+		job.supply(1, null);
+		assertEquals(Arrays.asList(0, null, 42), job.completion().get(5, TimeUnit.SECONDS));
+		assertEquals(1, job.getFailed());
+	}
+
+	@Test
+	void reclaimedExternalTasksRunLocally() throws Exception {
+		BitSet external = new BitSet();
+		external.set(1, 3);
+		JobScheduler.Job<Integer> job = scheduler.submit(scheduler.newJobId(), "split", 1, tasks(3, 0),
+				new BitSet(), external);
+		job.supply(1, 41);
+
+		// Index 1 was already handed in; only index 2 runs here, and its late result is ignored
+		job.runLocally(external);
+		assertEquals(Arrays.asList(0, 41, 2), job.completion().get(5, TimeUnit.SECONDS));
+		job.supply(2, 42);
+		assertEquals(Arrays.asList(0, 41, 2), job.await());
+	}
+
+	@Test
+	void streamedJobKeepsWithinWindowAndEmitsInOrder() throws Exception {
+		List<Integer> emitted = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger maxAhead = new AtomicInteger();
+		AtomicBoolean closed = new AtomicBoolean();
+		Iterator<Callable<Integer>> source = IntStream.range(0, 200).<Callable<Integer>>mapToObj(n -> () -> {
+			// How far this task runs past the oldest result not yet emitted
+			maxAhead.accumulateAndGet(n - emitted.size(), Math::max);
+			Thread.sleep(n % 3);
+			if (n == 7) throw new IllegalStateException("boom");
+			return n;
+		}).iterator();
+
+		JobScheduler.Job<Integer> job = scheduler.submitStreaming("stream", "stream", 1, 200, source, 5,
+				new JobScheduler.ResultSink<>() {
+					@Override
+					public void accept(int index, Integer result) {
+						assertEquals(emitted.size(), index);
+						emitted.add(result);
+					}
+
+					@Override
+					public void close() {
+						closed.set(true);
+					}
+				});
+
+		assertEquals(List.of(), job.completion().get(10, TimeUnit.SECONDS));
+		assertTrue(closed.get());
+		assertEquals(200, emitted.size());
+		assertNull(emitted.get(7));
+		assertEquals(199, emitted.get(199));
+		assertEquals(1, job.getFailed());
+		assertTrue(maxAhead.get() < 5, "ran " + maxAhead.get() + " ahead");
+	}
+
+	private static List<Callable<Integer>> tasks(int count, long sleepMs) {
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			int n = i;
+			tasks.add(() -> {
+				Thread.sleep(sleepMs);
+				return n;
+			});
+		}
+		return tasks;
+	}
+
+	private static List<Callable<Integer>> recording(List<String> order, String tag, int count) {
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			tasks.add(() -> {
+				order.add(tag);
+				return 0;
+			});
+		}
+		return tasks;
+	}
+
+}
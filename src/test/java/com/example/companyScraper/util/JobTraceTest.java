@@ -0,0 +1,103 @@
+package com.example.companyScraper.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobTraceTest {
+
+	@Test
+	void exportsNestedSpansInChromeTraceFormat() throws Exception {
+		JobTrace trace = new JobTrace("job-1", 100);
+		long queuedSince = trace.now();
+		Thread.sleep(2);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try (JobTrace.Lane lane = trace.enter(0, "https://example.com", queuedSince)) {
+			try (JobTrace.Span span = JobTrace.span("fetch", "io")) {
+				span.detail("HTTP 200");
+				Thread.sleep(2);
+			}
+			// A stage on another thread (a hedged attempt) still lands on the same URL
+			executor.submit(JobTrace.propagate(() -> JobTrace.time("parse", "cpu", () -> null))).get();
+			lane.setStatus("SUCCESS");
+		} finally {
+			executor.shutdown();
+		}
+		// Nothing bound any more
+		try (JobTrace.Span span = JobTrace.span("stray", "io")) {
+			span.detail("ignored");
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		trace.writeTo(out);
+		JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+		assertEquals("job-1", json.get("otherData").get("job").asText());
+
+		List<String> names = new ArrayList<>();
+		JsonNode fetch = null;
+		JsonNode url = null;
+		for (JsonNode event : json.get("traceEvents")) {
+			if (event.get("ph").asText().equals("M")) continue;
+			names.add(event.get("ph").asText() + ":" + event.get("name").asText());
+			if (event.get("name").asText().equals("fetch")) fetch = event;
+			if (event.get("name").asText().equals("url")) url = event;
+		}
+		assertEquals(List.of("b:queued", "e:queued", "X:fetch", "X:parse", "X:url"), names);
+		assertEquals("HTTP 200", fetch.get("args").get("detail").asText());
+		assertEquals("https://example.com SUCCESS", url.get("args").get("detail").asText());
+		assertEquals(fetch.get("tid").asLong(), url.get("tid").asLong());
+		assertTrue(fetch.get("ts").asLong() >= url.get("ts").asLong());
+		assertTrue(fetch.get("ts").asLong() + fetch.get("dur").asLong()
+				<= url.get("ts").asLong() + url.get("dur").asLong());
+	}
+
+	@Test
+	void dropsEventsPastTheCap() {
+		JobTrace trace = new JobTrace("job-2", 3);
+		try (JobTrace.Lane lane = trace.enter(0, "https://example.com", trace.now())) {
+			for (int i = 0; i < 5; i++) {
+				try (JobTrace.Span span = JobTrace.span("fetch", "io")) {
+					span.detail("attempt " + i);
+				}
+			}
+			lane.setStatus("FAILED");
+		}
+		assertEquals(3, trace.getEventCount());
+		assertTrue(trace.getDropped() >= 3);
+	}
+
+	@Test
+	void sharedBudgetLimitsEveryTraceAndDiscardGivesItBack() {
+		JobTrace.Budget budget = new JobTrace.Budget(4);
+		JobTrace first = new JobTrace("job-3", 100, budget);
+		JobTrace second = new JobTrace("job-4", 100, budget);
+		record(first, 3);
+		record(second, 3);
+		assertEquals(3, first.getEventCount());
+		assertEquals(1, second.getEventCount());
+		assertEquals(0, budget.getAvailable());
+
+		first.discard();
+		assertEquals(3, budget.getAvailable());
+		record(first, 1);
+		assertEquals(0, first.getEventCount(), "a discarded trace records nothing");
+		record(second, 2);
+		assertEquals(3, second.getEventCount());
+	}
+
+	// Each URL's lane adds one event when it closes
+	private static void record(JobTrace trace, int urls) {
+		for (int i = 0; i < urls; i++) {
+			trace.enter(i, "https://example.com/" + i, trace.now() + 1_000_000_000L).close();
+		}
+	}
+}
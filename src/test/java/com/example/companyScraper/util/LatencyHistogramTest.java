@@ -0,0 +1,22 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+	@Test
+	void percentilesStayWithinBucketError() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int ms = 1; ms <= 1000; ms++) {
+			histogram.record(ms);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500, histogram.percentile(0.50), 50);
+		assertEquals(950, histogram.percentile(0.95), 95);
+		assertEquals(990, histogram.percentile(0.99), 99);
+		assertEquals(0, new LatencyHistogram().percentile(0.99));
+	}
+}
@@ -0,0 +1,46 @@
+package com.example.companyScraper.util;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhoneExtractorTest {
+
+	@Test
+	void infersRegionFromCountryCodeTld() {
+		assertEquals("GB", PhoneExtractor.inferRegion("https://www.example.co.uk/contact", null));
+		assertEquals("DE", PhoneExtractor.inferRegion("https://firma.de", null));
+	}
+
+	@Test
+	void infersRegionFromLangAttributeWhenTldIsGeneric() {
+		Document doc = Jsoup.parse("<html lang=\"fr-FR\"><body></body></html>");
+		assertEquals("FR", PhoneExtractor.inferRegion("https://startup.io", doc));
+
+		Document bareLanguage = Jsoup.parse("<html lang=\"de\"><body></body></html>");
+		assertEquals("DE", PhoneExtractor.inferRegion("https://example.com", bareLanguage));
+	}
+
+	@Test
+	void fallsBackToUsRegion() {
+		Document doc = Jsoup.parse("<html lang=\"en\"><body></body></html>");
+		assertEquals("US", PhoneExtractor.inferRegion("https://example.com", doc));
+	}
+
+	@Test
+	void parsesNationalNumbersAgainstInferredRegionOnly() {
+		Set<String> phones = PhoneExtractor.extractValidNormalizedPhones("Ruf uns an: 030 901820", "DE");
+		assertTrue(phones.contains("+4930901820"), phones.toString());
+	}
+
+	@Test
+	void plusPrefixedNumbersIgnorePageRegion() {
+		Set<String> phones = PhoneExtractor.extractValidNormalizedPhones("Call +44 20 7946 0018 today", "US");
+		assertTrue(phones.contains("+442079460018"), phones.toString());
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProxyHealthCheckerTest {
+
+	// Requests through a proxy never resolve the target host, so it can be made up
+	private static final String CHECK_URL = "http://check.test/generate_204";
+
+	private final List<TestServer> servers = new ArrayList<>();
+	private final AtomicLong now = new AtomicLong(1_000_000);
+
+	@AfterEach
+	void stopServers() {
+		servers.forEach(TestServer::close);
+	}
+
+	@Test
+	void quarantinesFailingProxyAndReinstatesItOnceChecksPass() throws Exception {
+		AtomicBoolean flakyUp = new AtomicBoolean(false);
+		Scraper.ProxyInfo healthy = fakeProxy(new AtomicBoolean(true));
+		Scraper.ProxyInfo flaky = fakeProxy(flakyUp);
+		ProxyPool pool = new ProxyPool(List.of(healthy, flaky));
+		ProxyHealthChecker checker = new ProxyHealthChecker(pool, new HttpFetcher(2), CHECK_URL,
+				10_000, 1_000, 8_000, now::get);
+
+		checker.runRound();
+		assertTrue(pool.isQuarantined(flaky));
+		assertFalse(pool.isQuarantined(healthy));
+		for (int i = 0; i < 20; i++) {
+			assertEquals(healthy, pool.select(Scraper.ProxyRotationStrategy.ROUND_ROBIN, Set.of()));
+		}
+
+		flakyUp.set(true);
+		now.addAndGet(999);
+		checker.runRound();
+		assertTrue(pool.isQuarantined(flaky), "re-checked before its backoff elapsed");
+
+		now.addAndGet(1);
+		checker.runRound();
+		assertFalse(pool.isQuarantined(flaky));
+	}
+
+	@Test
+	void proxyQuarantinedByWorkersIsSelectedAgainAfterAPassingCheck() throws Exception {
+		Scraper.ProxyInfo proxy = fakeProxy(new AtomicBoolean(true));
+		ProxyPool pool = new ProxyPool(List.of(proxy));
+		ProxyHealthChecker checker = new ProxyHealthChecker(pool, new HttpFetcher(2), CHECK_URL,
+				10_000, 1_000, 8_000, now::get);
+
+		for (int i = 0; i < 10; i++) {
+			pool.recordFailure(proxy, 100);
+		}
+		checker.reportFailing(proxy);
+		assertTrue(pool.isQuarantined(proxy));
+		assertNull(pool.select(Scraper.ProxyRotationStrategy.SMART, Set.of()));
+
+		now.addAndGet(1_000);
+		checker.runRound();
+		assertFalse(pool.isQuarantined(proxy));
+		assertEquals(proxy, pool.select(Scraper.ProxyRotationStrategy.SMART, Set.of()));
+		assertEquals(proxy, pool.select(Scraper.ProxyRotationStrategy.ROUND_ROBIN, Set.of()));
+	}
+
+	@Test
+	void backsOffExponentiallyUpToTheCap() throws Exception {
+		Scraper.ProxyInfo dead = deadProxy();
+		ProxyPool pool = new ProxyPool(List.of(dead));
+		ProxyHealthChecker checker = new ProxyHealthChecker(pool, new HttpFetcher(2), CHECK_URL,
+				10_000, 1_000, 8_000, now::get);
+
+		assertEquals(1_000, checker.backoffMs(1));
+		assertEquals(4_000, checker.backoffMs(3));
+		assertEquals(8_000, checker.backoffMs(10));
+
+		checker.runRound();
+		assertTrue(pool.isQuarantined(dead));
+		assertNull(pool.select(Scraper.ProxyRotationStrategy.SMART, Set.of()));
+	}
+
+	private Scraper.ProxyInfo fakeProxy(AtomicBoolean up) throws IOException {
+		TestServer server = new TestServer();
+		server.handle("/", exchange -> TestServer.respond(exchange, up.get() ? 204 : 502, null, new byte[0]));
+		servers.add(server);
+		return new Scraper.ProxyInfo("127.0.0.1", server.port(), null, null);
+	}
+
+	private Scraper.ProxyInfo deadProxy() throws IOException {
+		TestServer server = new TestServer();
+		int port = server.port();
+		server.close();
+		return new Scraper.ProxyInfo("127.0.0.1", port, null, null);
+	}
+
+}
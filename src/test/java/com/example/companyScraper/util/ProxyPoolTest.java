@@ -0,0 +1,105 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProxyPoolTest {
+
+	@Test
+	void failedProxyOnlyMovesTheDomainsPinnedToIt() {
+		List<Scraper.ProxyInfo> proxies = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			proxies.add(new Scraper.ProxyInfo("10.0.0." + i, 8080, null, null));
+		}
+		ProxyPool pool = new ProxyPool(proxies);
+
+		Map<String, List<Scraper.ProxyInfo>> before = new HashMap<>();
+		for (int d = 0; d < 500; d++) {
+			String domain = "site" + d + ".example";
+			List<Scraper.ProxyInfo> pinned = pool.pinnedProxies(domain);
+			assertEquals(2, pinned.size());
+			before.put(domain, pinned);
+			assertTrue(pinned.contains(pool.select(Scraper.ProxyRotationStrategy.AFFINITY, domain, Set.of())));
+		}
+
+		Scraper.ProxyInfo failed = proxies.get(3);
+		pool.quarantine(failed);
+		int moved = 0;
+		for (Map.Entry<String, List<Scraper.ProxyInfo>> entry : before.entrySet()) {
+			List<Scraper.ProxyInfo> after = pool.pinnedProxies(entry.getKey());
+			assertFalse(after.contains(failed));
+			if (entry.getValue().contains(failed)) {
+				moved++;
+				// The surviving pin stays, the failed one is replaced by the next proxy on the ring
+				entry.getValue().stream().filter(p -> !p.equals(failed))
+					.forEach(p -> assertTrue(after.contains(p)));
+			} else {
+				assertEquals(entry.getValue(), after);
+			}
+		}
+		assertTrue(moved > 0 && moved < 250, "moved " + moved);
+	}
+
+	@Test
+	void capsInFlightRequestsPerProxy() throws Exception {
+		Scraper.ProxyInfo only = new Scraper.ProxyInfo("10.0.0.1", 8080, null, null);
+		ProxyPool pool = new ProxyPool(List.of(only), 2);
+
+		ProxyPool.Lease first = pool.acquire(Scraper.ProxyRotationStrategy.AFFINITY, "a.example", Set.of(), 1_000);
+		ProxyPool.Lease second = pool.acquire(Scraper.ProxyRotationStrategy.AFFINITY, "b.example", Set.of(), 1_000);
+		assertEquals(only, first.proxy());
+		assertEquals(only, second.proxy());
+		assertEquals(2, pool.inFlight(only));
+
+		assertThrows(IOException.class,
+			() -> pool.acquire(Scraper.ProxyRotationStrategy.AFFINITY, "c.example", Set.of(), 100));
+
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException ignored) {
+			}
+			first.close();
+		});
+		releaser.start();
+		ProxyPool.Lease third = pool.acquire(Scraper.ProxyRotationStrategy.AFFINITY, "c.example", Set.of(), 5_000);
+		assertEquals(only, third.proxy());
+
+		first.close(); // second close is a no-op
+		second.close();
+		third.close();
+		assertEquals(0, pool.inFlight(only));
+	}
+
+	@Test
+	void reloadKeepsStatsAndInFlightOfProxiesStillListed() throws Exception {
+		Scraper.ProxyInfo kept = new Scraper.ProxyInfo("10.0.0.1", 8080, null, null);
+		Scraper.ProxyInfo dropped = new Scraper.ProxyInfo("10.0.0.2", 8080, null, null);
+		ProxyPool pool = new ProxyPool(List.of(kept, dropped), 1);
+		pool.recordSuccess(kept, 200);
+		ProxyPool.Lease running = pool.acquire(Scraper.ProxyRotationStrategy.SMART, null, Set.of(dropped), 1_000);
+		assertEquals(kept, running.proxy());
+
+		ProxyPool reloaded = pool.withProxies(List.of(kept), 1);
+		assertEquals(1, reloaded.stats(kept).getTotalRequests());
+		assertEquals(1, reloaded.inFlight(kept));
+		assertNull(reloaded.stats(dropped));
+
+		// The request still running on the old pool holds the slot until it finishes
+		assertThrows(IOException.class,
+			() -> reloaded.acquire(Scraper.ProxyRotationStrategy.SMART, null, Set.of(), 100));
+		running.close();
+		try (ProxyPool.Lease next = reloaded.acquire(Scraper.ProxyRotationStrategy.SMART, null, Set.of(), 100)) {
+			assertEquals(kept, next.proxy());
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectCacheTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void rulesSurviveSaveAndLoad() throws Exception {
+		RedirectCache cache = new RedirectCache(100);
+		cache.recordPermanent("http://acme.com/", "https://www.acme.com/");
+		cache.recordPermanent("https://www.acme.com/old", "https://www.acme.com/new");
+		Path file = dir.resolve("redirects.tsv");
+		cache.save(file);
+
+		RedirectCache loaded = new RedirectCache(100);
+		loaded.load(file);
+		assertEquals(2, loaded.size());
+		// The origin rule applies to every path, then the exact-URL rule takes over
+		assertEquals("https://www.acme.com/new", loaded.resolve("http://acme.com/old"));
+		assertEquals("https://www.acme.com/about", loaded.resolve("http://ACME.com/about"));
+		assertEquals("https://other.com/", loaded.resolve("https://other.com/"));
+	}
+
+	@Test
+	void concurrentSavesDoNotCollide() throws Exception {
+		RedirectCache cache = new RedirectCache(100);
+		cache.recordPermanent("http://acme.com/", "https://acme.com/");
+		Path file = dir.resolve("redirects.tsv");
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> saves = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				saves.add(executor.submit(() -> {
+					cache.save(file);
+					return null;
+				}));
+			}
+			for (Future<?> save : saves) {
+				save.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		RedirectCache loaded = new RedirectCache(100);
+		loaded.load(file);
+		assertEquals("https://acme.com/", loaded.resolve("http://acme.com/"));
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(List.of(file), files.toList(), "temporary files left behind");
+		}
+	}
+
+	@Test
+	void forgetsATargetThatStartsAnsweringWithAnError() throws Exception {
+		AtomicBoolean gone = new AtomicBoolean(false);
+		TestServer server = new TestServer();
+		server.handle("/old", exchange -> {
+			exchange.getResponseHeaders().set("Location", "/new");
+			exchange.sendResponseHeaders(301, -1);
+			exchange.close();
+		});
+		server.handle("/new", exchange -> TestServer.respond(exchange, gone.get() ? 404 : 200, "text/html",
+				gone.get() ? new byte[0] : TestServer.html("moved")));
+		String origin = server.origin();
+
+		try (HttpFetcher fetcher = new HttpFetcher(2)) {
+			RedirectCache cache = fetcher.getRedirectCache();
+			assertEquals(200, fetcher.fetchPage(origin + "/old", null, "test", Map.of(), 100_000).statusCode);
+			assertEquals(origin + "/new", cache.resolve(origin + "/old"));
+
+			gone.set(true);
+			assertEquals(404, fetcher.fetchPage(origin + "/old", null, "test", Map.of(), 100_000).statusCode);
+			assertEquals(origin + "/old", cache.resolve(origin + "/old"));
+		} finally {
+			server.close();
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.example.companyScraper.util;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScrapeMetricsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void restore() {
+		ScrapeMetrics.useRegistry(Metrics.globalRegistry);
+		ScrapeMetrics.limitTags(100, 50);
+	}
+
+	@Test
+	void domainsPastTheCapShareOneSeries() {
+		ScrapeMetrics.useRegistry(registry);
+		ScrapeMetrics.limitTags(2, 2);
+		for (int i = 0; i < 10; i++) {
+			ScrapeMetrics.recordResponse("https://site-" + i + ".com/", 200, 1_000_000);
+		}
+		ScrapeMetrics.recordResponse("https://site-0.com/contact", 404, 1_000_000);
+
+		assertEquals(2, registry.get("scraper.domain.requests").tag("domain", "site-0.com").timers().size());
+		assertEquals(8, registry.get("scraper.domain.requests").tag("domain", ScrapeMetrics.OTHER).timer().count());
+		assertEquals(10, registry.get("scraper.http.responses").tag("status", "200").counter().count());
+		// Two admitted domains plus "other", per status class
+		assertEquals(4, registry.get("scraper.domain.requests").timers().size());
+	}
+
+	@Test
+	void stagesAreTimedUnderTheirOwnTag() {
+		ScrapeMetrics.useRegistry(registry);
+		assertEquals("done", ScrapeMetrics.time(ScrapeMetrics.Stage.EXTRACT_EMAILS, () -> "done"));
+		ScrapeMetrics.recordOutcome("HTTP_503");
+
+		assertEquals(1, registry.get("scraper.stage.duration").tag("stage", "extract.emails").timer().count());
+		assertEquals(1, registry.get("scraper.urls").tag("outcome", "http_error").counter().count());
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScraperTest {
+
+	private static final int IMAGE_BYTES = 2 * 1024 * 1024;
+
+	private TestServer server;
+	private String origin;
+	private final Scraper scraper = new Scraper(0, 0, 1);
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new TestServer();
+		origin = server.origin();
+		server.serve("/logo", "image/png", new byte[IMAGE_BYTES]);
+		server.serve("/brochure", "application/rtf",
+				"{\\rtf1\\ansi Write to docs@acme.com\\par}".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void skipsANonHtmlBodyFromItsHeadersWithoutRetrying() {
+		long skippedBefore = scraper.getTransferStats().getTotalBytesSkipped();
+
+		Scraper.ScrapeResponse response = scraper.scrapeWithRetryLogging(origin + "/logo", 3);
+
+		assertNull(response.error);
+		assertEquals("SKIPPED_CONTENT_TYPE", response.result.getStatus());
+		assertEquals(IMAGE_BYTES, response.result.getBytesSkipped());
+		assertEquals(IMAGE_BYTES, scraper.getTransferStats().getTotalBytesSkipped() - skippedBefore);
+		assertEquals(1, server.requested.size());
+	}
+
+	@Test
+	void sendsADirectDocumentLinkToTheDocumentExtractorWhenEnabled() {
+		Scraper.ExtractionOptions documents = new Scraper.ExtractionOptions(Scraper.ExtractionScope.RAW_HTML, true, 1);
+
+		Scraper.ScrapeResponse skipped = scraper.scrapeWithRetryLogging(origin + "/brochure", 1);
+		Scraper.ScrapeResponse extracted = scraper.scrapeWithRetryLogging(origin + "/brochure", 1, documents);
+
+		assertEquals("SKIPPED_CONTENT_TYPE", skipped.result.getStatus());
+		assertEquals("SUCCESS", extracted.result.getStatus());
+		assertEquals(Set.of("docs@acme.com"), extracted.result.getEmails());
+		// One request each: the document is parsed from the response the scrape already opened
+		assertEquals(List.of("/brochure", "/brochure"), server.requested);
+	}
+
+	@Test
+	void pacesEachDomainWithoutAGlobalDelay() throws InterruptedException {
+		// A 1 s minimum delay used to be slept between any two requests, under one shared lock
+		Scraper paced = new Scraper(1000, 0, 1);
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 5; i++) {
+			paced.awaitDomainSlot("https://site" + i + ".example/");
+		}
+		assertTrue(System.currentTimeMillis() - start < 500);
+
+		paced.awaitDomainSlot("https://site0.example/again");
+		assertTrue(System.currentTimeMillis() - start >= 900, "same domain waits out its gap");
+	}
+
+	@Test
+	void hedgedFetchWinsAgainstASlowProxyWithoutAnotherCooldown(@TempDir Path dir) throws IOException {
+		// Both "proxies" answer every request themselves; the next request to reach either one stalls
+		AtomicBoolean stallNext = new AtomicBoolean();
+		TestServer first = proxy(stallNext);
+		TestServer second = proxy(stallNext);
+		// A second slot on the same domain would wait 5 s
+		Scraper hedging = new Scraper(0, 5000, 1);
+		try {
+			Path proxies = dir.resolve("proxies.txt");
+			Files.write(proxies, List.of("127.0.0.1:" + first.port(), "127.0.0.1:" + second.port()));
+			hedging.useProxyFile(proxies.toString(), 0);
+			Scraper.ExtractionOptions options = new Scraper.ExtractionOptions(Scraper.ExtractionScope.RAW_HTML, false, 0,
+					0, Scraper.ConnectionType.PROXY, Scraper.ProxyRotationStrategy.ROUND_ROBIN, 0, true);
+			// Fetch times to hedge on, one domain each so none of them waits out a cooldown
+			for (int i = 0; i < 5; i++) {
+				assertEquals("SUCCESS", hedging.scrapeWithRetryLogging("http://warm" + i + ".test/", 1, options)
+						.result.getStatus());
+			}
+
+			stallNext.set(true);
+			long start = System.currentTimeMillis();
+			Scraper.ScrapeResponse response = hedging.scrapeWithRetryLogging("http://target.test/", 1, options);
+
+			assertEquals("SUCCESS", response.result.getStatus());
+			assertTrue(System.currentTimeMillis() - start < 2_000);
+			assertEquals(1, hedging.getHedgedFetches());
+		} finally {
+			hedging.close();
+			first.close();
+			second.close();
+		}
+	}
+
+	private static TestServer proxy(AtomicBoolean stallNext) throws IOException {
+		TestServer proxy = new TestServer();
+		proxy.handle("/", exchange -> {
+			try {
+				Thread.sleep(stallNext.getAndSet(false) ? 5_000 : 50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			TestServer.respond(exchange, 200, "text/html", TestServer.html("ok"));
+		});
+		return proxy;
+	}
+}
@@ -0,0 +1,126 @@
+package com.example.companyScraper.util;
+
+import com.example.companyScraper.model.ScrapeResult;
+import com.example.companyScraper.service.ScraperService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedWorkQueueTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void otherNodeRunsItsDomainsAndOwnerCollectsResults() throws Exception {
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult> owner = queue(0);
+		List<String> urls = new ArrayList<>();
+		BitSet remote = new BitSet();
+		for (int i = 0; i < 40; i++) {
+			urls.add("https://www.site" + i + ".com/contact");
+			if (owner.shardOf(urls.get(i)) == 1) remote.set(i);
+		}
+		assertFalse(remote.isEmpty());
+		assertEquals(owner.shardOf("site3.com"), owner.shardOf("https://www.site3.com/about"));
+
+		String key = owner.publish("job-1", new ScraperService.ScrapingOptions(), urls, remote);
+
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult> worker = queue(1);
+		List<ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult>.Shard> shards = worker.claim();
+		assertEquals(1, shards.size());
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult>.Shard shard = shards.get(0);
+		assertEquals(0, shard.owner);
+		assertEquals(remote.stream().boxed().toList(), shard.indexes);
+		assertTrue(worker.claim().isEmpty(), "claimed twice");
+
+		// Half reported, then the worker restarts
+		int half = shard.indexes.size() / 2;
+		for (int i = 0; i < half; i++) {
+			shard.report(shard.indexes.get(i), new ScrapeResult(shard.urls.get(i)));
+		}
+		Map<Integer, ScrapeResult> collected = new HashMap<>();
+		owner.collect(key, collected::put);
+		assertEquals(half, collected.size());
+
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult>.Shard resumed = queue(1).claim().get(0);
+		assertEquals(shard.indexes.subList(half, shard.indexes.size()), resumed.indexes);
+		resumed.report(resumed.indexes.get(0), new ScrapeResult(resumed.urls.get(0)));
+		// Whatever never got a result is reported as failed, so the owner can finish
+		resumed.done();
+		assertTrue(queue(1).claim().isEmpty());
+
+		owner.collect(key, collected::put);
+		assertEquals(remote.cardinality(), collected.size());
+		assertEquals(urls.get(resumed.indexes.get(0)), collected.get(resumed.indexes.get(0)).getUrl());
+		assertNull(collected.get(resumed.indexes.get(1)));
+
+		owner.remove(key);
+		assertFalse(resumed.isLive());
+	}
+
+	@Test
+	void ownerTakesBackShardsWhoseLeaseExpires() throws Exception {
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult> owner = queue(0, 200);
+		List<String> urls = new ArrayList<>();
+		BitSet remote = new BitSet();
+		for (int i = 0; i < 40; i++) {
+			urls.add("https://www.site" + i + ".com/contact");
+			if (owner.shardOf(urls.get(i)) == 1) remote.set(i);
+		}
+		String key = owner.publish("job-1", new ScraperService.ScrapingOptions(), urls, remote);
+
+		// Claimed, one result reported, and the lease kept alive for a while
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult> worker = queue(1, 200);
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult>.Shard shard = worker.claim().get(0);
+		shard.report(shard.indexes.get(0), new ScrapeResult(shard.urls.get(0)));
+		for (int i = 0; i < 6; i++) {
+			assertTrue(owner.reclaimExpired(key).isEmpty());
+			Thread.sleep(60);
+			worker.heartbeat();
+		}
+
+		// Then the node goes quiet; the owner polls as usual
+		assertTrue(owner.reclaimExpired(key).isEmpty());
+		Thread.sleep(300);
+		BitSet expected = (BitSet) remote.clone();
+		expected.clear(shard.indexes.get(0));
+		assertEquals(expected, owner.reclaimExpired(key));
+		assertTrue(owner.reclaimExpired(key).isEmpty(), "reclaimed twice");
+		assertFalse(shard.isLive());
+		assertTrue(queue(1, 200).claim().isEmpty());
+	}
+
+	@Test
+	void shardNobodyClaimsIsTakenBack() throws Exception {
+		ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult> owner = queue(0, 100);
+		List<String> urls = new ArrayList<>();
+		BitSet remote = new BitSet();
+		for (int i = 0; i < 20; i++) {
+			urls.add("https://www.site" + i + ".com/contact");
+			if (owner.shardOf(urls.get(i)) == 1) remote.set(i);
+		}
+		String key = owner.publish("job-2", new ScraperService.ScrapingOptions(), urls, remote);
+
+		assertTrue(owner.reclaimExpired(key).isEmpty());
+		Thread.sleep(150);
+		assertEquals(remote, owner.reclaimExpired(key));
+	}
+
+	private ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult> queue(int node, long leaseTimeoutMs) {
+		return new ShardedWorkQueue<>(dir, node, 2, ScraperService.ScrapingOptions.class, ScrapeResult.class,
+				leaseTimeoutMs);
+	}
+
+	private ShardedWorkQueue<ScraperService.ScrapingOptions, ScrapeResult> queue(int node) {
+		return new ShardedWorkQueue<>(dir, node, 2, ScraperService.ScrapingOptions.class, ScrapeResult.class);
+	}
+
+}
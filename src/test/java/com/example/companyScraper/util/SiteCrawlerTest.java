@@ -0,0 +1,118 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SiteCrawlerTest {
+
+	private TestServer server;
+	private String origin;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new TestServer();
+		origin = server.origin();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void stopsAtTheDeadlineAndKeepsThePagesSoFar() {
+		server.serveHtml("/", "<a href=\"/a\">a</a><a href=\"/b\">b</a><a href=\"/c\">c</a><a href=\"/d\">d</a> home@acme.com");
+		for (String page : List.of("a", "b", "c", "d")) {
+			server.serveHtml("/" + page, page + "@acme.com");
+		}
+		// 1 s between requests to the same domain: five pages take over four seconds. The deadline
+		// leaves room for a first request on a cold JVM
+		Scraper scraper = new Scraper(0, 1000, 1);
+		Scraper.ExtractionOptions extraction = Scraper.ExtractionOptions.DEFAULT
+				.withDeadline(System.currentTimeMillis() + 2000);
+		List<Scraper.Result> pages = Collections.synchronizedList(new ArrayList<>());
+
+		Scraper.ScrapeResponse response = new SiteCrawler(scraper)
+				.crawl(origin + "/", new SiteCrawler.CrawlConfig(5, 1, 1, extraction), pages);
+
+		assertNull(response.error);
+		assertEquals("SUCCESS", response.result.getStatus());
+		assertTrue(response.result.getEmails().contains("home@acme.com"));
+		assertTrue(pages.size() < 5, "crawled " + pages.size() + " pages");
+	}
+
+	@Test
+	void followsContactLinksFirstWithinTheDepthLimit() {
+		server.serveHtml("/", "<a href=\"/blog\">Blog</a><a href=\"/contact\">Contact</a><a href=\"/contact#form\">Form</a>"
+				+ "<a href=\"/logo.png\">Logo</a><a href=\"http://elsewhere.test/contact\">Partner</a>");
+		server.serveHtml("/blog", "blog@acme.com");
+		server.serveHtml("/contact", "<a href=\"/team\">Team</a> sales@acme.com");
+		server.serveHtml("/team", "team@acme.com");
+		Scraper scraper = new Scraper(0, 0, 1);
+
+		Scraper.ScrapeResponse response = new SiteCrawler(scraper)
+				.crawl(origin + "/", new SiteCrawler.CrawlConfig(5, 1, 1, Scraper.ExtractionOptions.DEFAULT));
+
+		// Same-site HTML pages only, each once; /team is two links away
+		assertEquals(List.of("/", "/contact", "/blog"), server.requested);
+		assertEquals(Set.of("sales@acme.com", "blog@acme.com"), response.result.getEmails());
+	}
+
+	@Test
+	void treatsPathsThatDifferOnlyInCaseAsDifferentPages() {
+		server.serveHtml("/", "<a href=\"/Jobs\">Jobs</a><a href=\"/jobs\">jobs</a><a href=\"/jobs/\">jobs again</a>");
+		server.serveHtml("/Jobs", "hr@acme.com");
+		server.serveHtml("/jobs", "careers@acme.com");
+		Scraper scraper = new Scraper(0, 0, 1);
+
+		Scraper.ScrapeResponse response = new SiteCrawler(scraper)
+				.crawl(origin + "/", new SiteCrawler.CrawlConfig(5, 1, 1, Scraper.ExtractionOptions.DEFAULT));
+
+		// A trailing slash is still the same page
+		assertEquals(List.of("/", "/Jobs", "/jobs"), server.requested.stream().sorted().toList());
+		assertEquals(Set.of("hr@acme.com", "careers@acme.com"), response.result.getEmails());
+	}
+
+	@Test
+	void ranksContactPagesAboveBlogAndDeepPages() {
+		assertTrue(ContactPageRanker.score("https://acme.com/contact", null)
+				> ContactPageRanker.score("https://acme.com/blog", null));
+		assertTrue(ContactPageRanker.score("https://acme.com/team", null)
+				> ContactPageRanker.score("https://acme.com/a/b/c/d/team", null));
+		// Anchor text counts when the path says nothing
+		assertTrue(ContactPageRanker.score("https://acme.com/p?id=7", "Meet the team")
+				> ContactPageRanker.score("https://acme.com/p?id=7", "Read more"));
+	}
+
+	@Test
+	void mergesSuccessfulPagesAndDedupesPeopleByName() {
+		Scraper.Result home = new Scraper.Result(origin, "SUCCESS", Set.of("info@acme.com"), Set.of(), Set.of(),
+				Set.of(), Set.of(), List.of(new Scraper.Person("Ada", "Lovelace", "CEO")), null);
+		Scraper.Result team = new Scraper.Result(origin + "/team", "SUCCESS", Set.of("info@acme.com", "ada@acme.com"),
+				Set.of(), Set.of(), Set.of(), Set.of(), List.of(new Scraper.Person("ada", "lovelace", "Founder"),
+				new Scraper.Person("Alan", "Turing", "CTO")), null);
+		Scraper.Result brochure = new Scraper.Result(origin + "/brochure.zip", "FAILED").withBytesSkipped(2048);
+
+		Scraper.Result merged = Scraper.Result.merge(origin, List.of(home, team, brochure));
+
+		assertEquals("SUCCESS", merged.getStatus());
+		assertEquals(origin, merged.getUrl());
+		assertEquals(Set.of("info@acme.com", "ada@acme.com"), merged.getEmails());
+		assertEquals(List.of("CEO", "CTO"), merged.getPeople().stream().map(Scraper.Person::getRole).toList());
+		assertEquals(2048, merged.getBytesSkipped());
+		assertTrue(merged.getNotes().startsWith("Pages: 2/3"), merged.getNotes());
+
+		Scraper.Result failed = Scraper.Result.merge(origin, List.of(brochure, brochure));
+		assertEquals("FAILED", failed.getStatus());
+		assertTrue(failed.getEmails().isEmpty());
+	}
+}
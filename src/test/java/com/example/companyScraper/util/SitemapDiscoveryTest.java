@@ -0,0 +1,93 @@
+package com.example.companyScraper.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SitemapDiscoveryTest {
+
+	private TestServer server;
+	private String origin;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new TestServer();
+		origin = server.origin();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void picksContactPagesFromGzippedChildOfSitemapIndex() throws IOException {
+		server.serve("/sitemap.xml", "application/xml", sitemapIndex(origin + "/sitemap-posts.xml", origin + "/sitemap-pages.xml.gz"));
+		server.serve("/sitemap-posts.xml", "application/xml", urlset(origin + "/blog/launch", origin + "/blog/funding"));
+		server.serve("/sitemap-pages.xml.gz", "application/gzip", gzip(urlset(
+				origin + "/", origin + "/products/widget", origin + "/about/team", origin + "/contact",
+				"https://elsewhere.example/contact")));
+
+		List<String> picks = new SitemapDiscovery(new Scraper(0, 0, 1)).discover(origin, 2);
+
+		assertEquals(Set.of(origin + "/contact", origin + "/about/team"), new HashSet<>(picks));
+	}
+
+	@Test
+	void skipsChildSitemapsOnAnotherHost() {
+		// Same server under another name: the best-sounding child, but not this site's
+		String elsewhere = "http://localhost:" + server.port();
+		server.serve("/sitemap.xml", "application/xml", sitemapIndex(elsewhere + "/team-pages.xml", origin + "/pages.xml"));
+		server.serve("/team-pages.xml", "application/xml", urlset(elsewhere + "/team"));
+		server.serve("/pages.xml", "application/xml", urlset(origin + "/contact"));
+
+		List<String> picks = new SitemapDiscovery(new Scraper(0, 0, 1)).discover(origin, 2);
+
+		assertEquals(List.of(origin + "/contact"), picks);
+		assertEquals(List.of("/sitemap.xml", "/pages.xml"), server.requested);
+	}
+
+	@Test
+	void returnsNothingWithoutSitemap() {
+		List<String> picks = new SitemapDiscovery(new Scraper(0, 0, 1)).discover(origin, 2);
+
+		assertTrue(picks.isEmpty());
+	}
+
+	private static byte[] sitemapIndex(String... sitemaps) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+				.append("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+		for (String sitemap : sitemaps) {
+			xml.append("<sitemap><loc>").append(sitemap).append("</loc></sitemap>");
+		}
+		return xml.append("</sitemapindex>").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] urlset(String... urls) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+				.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+		for (String url : urls) {
+			xml.append("<url><loc>").append(url).append("</loc></url>");
+		}
+		return xml.append("</urlset>").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gz = new GZIPOutputStream(bytes)) {
+			gz.write(data);
+		}
+		return bytes.toByteArray();
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.example.companyScraper.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server for tests, on a free port and answering requests in parallel. Keep pages and
+ * documents under 100 characters of text, so people extraction never reaches the AI call.
+ */
+final class TestServer implements AutoCloseable {
+
+	private final HttpServer server;
+	private final ExecutorService handlers = Executors.newCachedThreadPool();
+	// Path of every request, in arrival order
+	final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+	TestServer() throws IOException {
+		this(new InetSocketAddress("127.0.0.1", 0));
+	}
+
+	// The wildcard address answers on every loopback address, e.g. one per made-up domain
+	TestServer(InetSocketAddress address) throws IOException {
+		server = HttpServer.create(address, 0);
+		server.setExecutor(handlers);
+		server.start();
+	}
+
+	String origin() {
+		return "http://127.0.0.1:" + port();
+	}
+
+	int port() {
+		return server.getAddress().getPort();
+	}
+
+	/** Handle every request under the path prefix. */
+	void handle(String path, HttpHandler handler) {
+		server.createContext(path, exchange -> {
+			requested.add(exchange.getRequestURI().getPath());
+			handler.handle(exchange);
+		});
+	}
+
+	/** Answer this exact path with the body, and anything else under it with a 404. */
+	void serve(String path, String contentType, byte[] body) {
+		handle(path, exchange -> {
+			if (exchange.getRequestURI().getPath().equals(path)) {
+				respond(exchange, 200, contentType, body);
+			} else {
+				respond(exchange, 404, null, new byte[0]);
+			}
+		});
+	}
+
+	void serveHtml(String path, String body) {
+		serve(path, "text/html; charset=utf-8", html(body));
+	}
+
+	static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+		if (contentType != null) {
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+		}
+		exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		} catch (IOException e) {
+			// The client dropped the connection after the headers
+		}
+	}
+
+	static byte[] html(String body) {
+		return ("<html><body>" + body + "</body></html>").getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		handlers.shutdownNow();
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.companyScraper.util;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisibleTextCollectorTest {
+
+	@Test
+	void keepsVisibleTextAndContactAttributesOnly() {
+		Document doc = Jsoup.parse("<html><head>"
+				+ "<meta name=\"description\" content=\"Call +1 212 555 0100\">"
+				+ "<style>.a { color: red }</style>"
+				+ "<script>var tracker = \"noise@tracker.com\";</script>"
+				+ "</head><body>"
+				+ "<p>Write to <a href=\"mailto:info@acme.com\">us</a></p>"
+				+ "<span data-phone=\"+44 20 7946 0000\">Phone</span>"
+				+ "<svg><text>svg@acme.com</text></svg>"
+				+ "<div hidden>hidden@acme.com</div>"
+				+ "<template><p>template@acme.com</p></template>"
+				+ "</body></html>");
+
+		String text = VisibleTextCollector.collect(doc);
+
+		assertEquals(List.of("Call +1 212 555 0100", "Write to", "mailto:info@acme.com", "us",
+				"+44 20 7946 0000", "Phone"), text.lines().toList());
+	}
+
+	@Test
+	void emptyForNoDocument() {
+		assertEquals("", VisibleTextCollector.collect(null));
+	}
+}